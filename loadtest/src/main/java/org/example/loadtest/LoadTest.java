@@ -0,0 +1,240 @@
+package org.example.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs a mixed REST + SOAP load against myRest and mySOAP and prints latency percentiles per operation.
+ * <p>
+ * Requests are sent at a fixed rate whether or not the services keep up ({@link OpenLoopDriver}), so
+ * the percentiles include the time requests spent waiting behind a slow one. Each operation's
+ * corrected histogram is also written to target/loadtest-&lt;operation&gt;.hgrm (milliseconds), which
+ * HdrHistogram's plotter reads.
+ * <p>
+ * With --start-services both services are started from their jars on in-memory H2 databases
+ * (myRest with its h2 profile), seeded, measured and stopped: nothing else is needed.
+ * Run with --help for the options.
+ */
+public final class LoadTest {
+
+    private static final String DEFAULT_MIX =
+            "listLines=10,schedulesByLine=40,createLine=5,deleteLine=5,getAirQuality=25,compareAirQuality=10,getAllZones=5";
+
+    private static final String USAGE = """
+            Usage: LoadTest [options]
+              --rest-url URL            myRest base URL (default http://localhost:18080)
+              --soap-url URL            mySOAP endpoint (default http://localhost:18081/ws)
+              --start-services          start both jars on in-memory H2 and stop them afterwards
+              --myrest-jar PATH         default ../myRest/target/myRest-0.0.1-SNAPSHOT.jar (built with -Ph2)
+              --mysoap-jar PATH         default ../mySOAP/target/soap-air-quality-service-1.0.0.jar
+              --service-jvm-opts OPTS   JVM options for started services (default "-Xms512m -Xmx512m")
+              --rate N                  requests per second, all operations together (default 200)
+              --warmup S                seconds sent but not recorded (default 20)
+              --duration S              seconds recorded (default 60)
+              --threads N               most requests in flight at once (default 200)
+              --mix OP=W,...            operation weights (default %s)
+              --seed-lines N            lines created before the run (default 200)
+              --schedules-per-line N    schedules imported per seeded line (default 20)
+              --seed N                  seed of the operation sequence (default 42)
+              --timeout S               request timeout in seconds (default 30)
+            """.formatted(DEFAULT_MIX);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        if (options.containsKey("help")) {
+            System.out.print(USAGE);
+            return;
+        }
+        String restUrl = options.getOrDefault("rest-url", "http://localhost:18080");
+        String soapUrl = options.getOrDefault("soap-url", "http://localhost:18081/ws");
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "20"));
+        long duration = Long.parseLong(options.getOrDefault("duration", "60"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "200"));
+        Map<String, Integer> weights = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+        int seedLines = Integer.parseInt(options.getOrDefault("seed-lines", "200"));
+        int schedulesPerLine = Integer.parseInt(options.getOrDefault("schedules-per-line", "20"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "30")));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<ServiceLauncher> services = new ArrayList<>();
+        try {
+            if (options.containsKey("start-services")) {
+                List<String> jvmOptions = List.of(options.getOrDefault("service-jvm-opts", "-Xms512m -Xmx512m").trim().split("\\s+"));
+                System.out.println("Starting myRest and mySOAP (logs in target/)...");
+                ServiceLauncher myRest = ServiceLauncher.start("myRest",
+                        Path.of(options.getOrDefault("myrest-jar", "../myRest/target/myRest-0.0.1-SNAPSHOT.jar")),
+                        jvmOptions,
+                        List.of("--spring.profiles.active=h2", "--server.port=" + port(restUrl)));
+                services.add(myRest);
+                ServiceLauncher mySoap = ServiceLauncher.start("mySOAP",
+                        Path.of(options.getOrDefault("mysoap-jar", "../mySOAP/target/soap-air-quality-service-1.0.0.jar")),
+                        jvmOptions,
+                        List.of("--server.port=" + port(soapUrl),
+                                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1"));
+                services.add(mySoap);
+                myRest.awaitHealthy(client, restUrl + "/actuator/health", Duration.ofMinutes(2));
+                mySoap.awaitHealthy(client, soapUrl.replaceFirst("/ws/?$", "") + "/actuator/health", Duration.ofMinutes(2));
+            }
+
+            Map<String, Operation> available = new HashMap<>();
+            if (usesAny(weights, "listLines", "schedulesByLine", "createLine", "deleteLine")) {
+                RestTraffic rest = new RestTraffic(client, restUrl, timeout);
+                // Enough deletable lines for the whole run even if no create succeeds
+                long expectedDeletes = Math.round(rate * (warmup + duration) * share(weights, "deleteLine"));
+                System.out.printf("Seeding myRest: %d lines x %d schedules, %d lines to delete...%n",
+                        seedLines, schedulesPerLine, expectedDeletes);
+                rest.seed(Math.max(1, seedLines), schedulesPerLine, (int) expectedDeletes);
+                available.putAll(rest.operations());
+            }
+            if (usesAny(weights, "getAirQuality", "compareAirQuality", "getAllZones")) {
+                SoapTraffic soap = new SoapTraffic(client, soapUrl, timeout);
+                soap.discoverZones();
+                available.putAll(soap.operations());
+            }
+
+            Map<Operation, Integer> mix = new LinkedHashMap<>();
+            weights.forEach((name, weight) -> {
+                if (weight <= 0) {
+                    return;
+                }
+                Operation operation = available.get(name);
+                if (operation == null) {
+                    throw new IllegalArgumentException("Unknown operation in --mix: " + name + " (known: " + available.keySet() + ")");
+                }
+                mix.put(operation, weight);
+            });
+
+            System.out.printf(Locale.ROOT, "Sending %.0f req/s with up to %d in flight: %ds warmup, %ds measured...%n",
+                    rate, threads, warmup, duration);
+            Map<String, OpenLoopDriver.Result> results = new OpenLoopDriver(mix, seed).run(rate, warmup, duration, threads);
+            report(results);
+        } finally {
+            for (ServiceLauncher service : services) {
+                service.close();
+            }
+        }
+    }
+
+    private static void report(Map<String, OpenLoopDriver.Result> results) throws IOException {
+        System.out.println();
+        System.out.println("Latency in ms, measured from when each request was due (corrected for coordinated omission).");
+        System.out.println("svc p99 = p99 measured from when the request was actually sent.");
+        System.out.printf("%-18s %8s %6s %8s %9s %9s %9s %9s %9s %9s %10s%n",
+                "operation", "count", "errors", "req/s", "p50", "p90", "p99", "p99.9", "max", "svc p99", "start lag");
+
+        Histogram total = null;
+        for (Map.Entry<String, OpenLoopDriver.Result> entry : results.entrySet()) {
+            OpenLoopDriver.Result result = entry.getValue();
+            printRow(entry.getKey(), result.latency(), result.serviceTime(), result.errors(),
+                    result.requestsPerSecond(), result.maxStartLagMicros());
+            writeHgrm(entry.getKey(), result.latency());
+            if (total == null) {
+                total = result.latency().copy();
+            } else {
+                total.add(result.latency());
+            }
+        }
+        if (total != null) {
+            writeHgrm("all", total);
+            long errors = results.values().stream().mapToLong(OpenLoopDriver.Result::errors).sum();
+            double perSecond = results.values().stream().mapToDouble(OpenLoopDriver.Result::requestsPerSecond).sum();
+            System.out.printf(Locale.ROOT, "%-18s %8d %6d %8.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", "all",
+                    total.getTotalCount(), errors, perSecond,
+                    ms(total, 50), ms(total, 90), ms(total, 99), ms(total, 99.9), total.getMaxValue() / 1000.0);
+        }
+        System.out.println();
+        System.out.println("Histograms written to target/loadtest-*.hgrm");
+    }
+
+    private static void printRow(String name, Histogram latency, Histogram service, long errors, double perSecond,
+                                 long maxStartLagMicros) {
+        System.out.printf(Locale.ROOT, "%-18s %8d %6d %8.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f %10.2f%n",
+                name, latency.getTotalCount(), errors, perSecond,
+                ms(latency, 50), ms(latency, 90), ms(latency, 99), ms(latency, 99.9), latency.getMaxValue() / 1000.0,
+                ms(service, 99), maxStartLagMicros / 1000.0);
+    }
+
+    private static double ms(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static void writeHgrm(String name, Histogram histogram) throws IOException {
+        Path file = Path.of("target", "loadtest-" + name + ".hgrm");
+        Files.createDirectories(file.getParent());
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);   // Microseconds recorded, milliseconds written
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i] + "\n" + USAGE);
+            }
+            String name = args[i].substring(2);
+            boolean flag = name.equals("help") || name.equals("start-services");
+            if (flag) {
+                options.put(name, "true");
+            } else if (i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for --" + name);
+            }
+        }
+        return options;
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("--mix expects operation=weight pairs, got: " + part);
+            }
+            weights.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+
+    private static boolean usesAny(Map<String, Integer> weights, String... names) {
+        for (String name : names) {
+            if (weights.getOrDefault(name, 0) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double share(Map<String, Integer> weights, String name) {
+        int total = weights.values().stream().mapToInt(Integer::intValue).filter(w -> w > 0).sum();
+        return total == 0 ? 0 : Math.max(0, weights.getOrDefault(name, 0)) / (double) total;
+    }
+
+    private static int port(String url) {
+        int port = URI.create(url).getPort();
+        if (port < 0) {
+            throw new IllegalArgumentException("--start-services needs an explicit port in " + url);
+        }
+        return port;
+    }
+}
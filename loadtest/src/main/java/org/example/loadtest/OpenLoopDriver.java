@@ -0,0 +1,167 @@
+package org.example.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests on a fixed schedule, whatever the server does (open loop): request i is due at
+ * {@code start + i / rate}. A closed-loop client waits for each answer before sending the next one,
+ * so when the server stalls it simply stops asking, and the stall shows up as one slow request instead
+ * of all the requests that real users would have sent meanwhile ("coordinated omission").
+ * <p>
+ * Here latency is measured from the time a request was <em>due</em>, not from when it was actually
+ * sent: if every worker thread is stuck on a slow server, the requests that pile up are charged for the
+ * time they waited. The service time (from the actual send) is recorded too, so the two can be
+ * compared; a large gap means queueing, either in the server or in this client (see
+ * {@link Result#maxStartLagMicros()}: if that grows, add --threads).
+ * <p>
+ * Which operation request i is does not depend on timing: the mix is drawn from a hash of
+ * (seed, i), so two runs with the same seed send the same sequence.
+ */
+public final class OpenLoopDriver {
+
+    private final List<Operation> operations;
+    private final long[] cumulativeWeights;
+    private final long totalWeight;
+    private final long seed;
+
+    public OpenLoopDriver(Map<Operation, Integer> mix, long seed) {
+        this.operations = new ArrayList<>();
+        this.cumulativeWeights = new long[mix.size()];
+        long total = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            if (entry.getValue() <= 0) {
+                continue;
+            }
+            total += entry.getValue();
+            cumulativeWeights[operations.size()] = total;
+            operations.add(entry.getKey());
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no operation with a weight above 0");
+        }
+        this.totalWeight = total;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs warmup + duration at ratePerSecond with at most threads requests in flight.
+     * Only requests due after the warmup are recorded.
+     */
+    public Map<String, Result> run(double ratePerSecond, long warmupSeconds, long durationSeconds, int threads)
+            throws InterruptedException {
+        long intervalNanos = Math.max(1, Math.round(1_000_000_000d / ratePerSecond));
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        Map<Operation, Stats> stats = new LinkedHashMap<>();
+        for (Operation operation : operations) {
+            stats.put(operation, new Stats());
+        }
+        AtomicLong next = new AtomicLong();
+
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                while (true) {
+                    long sequence = next.getAndIncrement();
+                    long due = start + sequence * intervalNanos;
+                    if (due >= end) {
+                        return;
+                    }
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+
+                    Operation operation = pick(sequence);
+                    long sent = System.nanoTime();
+                    int status;
+                    try {
+                        status = operation.call(sequence);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        status = -1;   // Connection refused, timeout...
+                    }
+                    long done = System.nanoTime();
+
+                    if (due >= measureFrom) {
+                        stats.get(operation).record(due, sent, done, status);
+                    }
+                }
+            }, "load-" + t);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        stats.forEach((operation, s) -> results.put(operation.name(), s.result(durationSeconds)));
+        return results;
+    }
+
+    private Operation pick(long sequence) {
+        long draw = Math.floorMod(mix64(seed ^ (sequence * 0x9E3779B97F4A7C15L)), totalWeight);
+        for (int i = 0; i < operations.size(); i++) {
+            if (draw < cumulativeWeights[i]) {
+                return operations.get(i);
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    // SplitMix64 finalizer: spreads consecutive sequence numbers over the whole range
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Stats {
+        // Microseconds, 3 significant digits; Recorder = many writers without locks
+        private final Recorder corrected = new Recorder(3);
+        private final Recorder service = new Recorder(3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAccumulator maxStartLag = new LongAccumulator(Math::max, 0);
+
+        void record(long due, long sent, long done, int status) {
+            corrected.recordValue(Math.max(1, (done - due) / 1000));
+            service.recordValue(Math.max(1, (done - sent) / 1000));
+            maxStartLag.accumulate((sent - due) / 1000);
+            if (status < 200 || status >= 300) {
+                errors.increment();
+            }
+        }
+
+        Result result(long durationSeconds) {
+            Histogram latency = corrected.getIntervalHistogram();
+            return new Result(latency, service.getIntervalHistogram(), errors.sum(), maxStartLag.get(),
+                    latency.getTotalCount() / (double) durationSeconds);
+        }
+    }
+
+    /**
+     * What one operation got during the measured part of the run. Histograms are in microseconds.
+     *
+     * @param latency      from the time each request was due (coordinated-omission corrected)
+     * @param serviceTime  from the time each request was actually sent
+     */
+    public record Result(Histogram latency, Histogram serviceTime, long errors, long maxStartLagMicros,
+                         double requestsPerSecond) {}
+}
@@ -0,0 +1,36 @@
+package org.example.loadtest;
+
+import java.io.IOException;
+
+/**
+ * One kind of request in the traffic mix. {@link #call} sends it once and returns the HTTP status;
+ * anything outside 2xx counts as an error. Implementations are called from many threads at once.
+ */
+public interface Operation {
+
+    String name();
+
+    int call(long sequence) throws IOException, InterruptedException;
+
+    static Operation of(String name, Call call) {
+        return new Operation() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public int call(long sequence) throws IOException, InterruptedException {
+                return call.send(sequence);
+            }
+        };
+    }
+
+    /**
+     * The request itself; sequence is the request's number in the schedule (for picking ids repeatably).
+     */
+    @FunctionalInterface
+    interface Call {
+        int send(long sequence) throws IOException, InterruptedException;
+    }
+}
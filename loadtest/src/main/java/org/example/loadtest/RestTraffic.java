@@ -0,0 +1,155 @@
+package org.example.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * myRest requests: list lines, schedules of one line, create a line, delete a line.
+ * <p>
+ * {@link #seed} fills the database first (lines + schedules through the bulk import), so reads hit
+ * realistic data. Lines created during the run go into a queue that deleteLine takes from, plus a
+ * reserve created up front, so deletes always have something to delete and the table stays about
+ * the same size.
+ */
+public final class RestTraffic {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final String[] LINE_TYPES = {"BUS", "METRO", "TRAIN", "TRAM"};
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong lineNumber = new AtomicLong();
+
+    private final List<Long> seededLines = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Long> deletable = new ConcurrentLinkedQueue<>();
+
+    public RestTraffic(HttpClient client, String baseUrl, Duration timeout) {
+        this.client = client;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Creates lines with schedulesPerLine schedules each, and reserve extra lines for deleteLine.
+     */
+    public void seed(int lines, int schedulesPerLine, int reserve) throws IOException, InterruptedException {
+        for (int i = 0; i < lines; i++) {
+            seededLines.add(createLine("Seed"));
+        }
+        for (int i = 0; i < reserve; i++) {
+            deletable.add(createLine("Reserve"));
+        }
+        if (schedulesPerLine > 0) {
+            // One import per 50 lines keeps each request body small
+            for (int from = 0; from < seededLines.size(); from += 50) {
+                importSchedules(seededLines.subList(from, Math.min(from + 50, seededLines.size())), schedulesPerLine);
+            }
+        }
+    }
+
+    public Map<String, Operation> operations() {
+        if (seededLines.isEmpty()) {
+            throw new IllegalStateException("seed() first: the read operations need lines to read");
+        }
+        return Map.of(
+                "listLines", Operation.of("listLines", sequence -> get("/api/lines")),
+                "schedulesByLine", Operation.of("schedulesByLine", sequence ->
+                        get("/api/schedules/line/" + seededLines.get((int) Math.floorMod(sequence, (long) seededLines.size())))),
+                "createLine", Operation.of("createLine", sequence -> {
+                    HttpResponse<String> response = postJson("/api/lines", lineJson("Load"));
+                    Long id = parseId(response.body());
+                    if (id != null) {
+                        deletable.add(id);
+                    }
+                    return response.statusCode();
+                }),
+                "deleteLine", Operation.of("deleteLine", sequence -> {
+                    Long id = deletable.poll();
+                    if (id == null) {
+                        return 0;   // Nothing left to delete: counted as an error, raise the reserve
+                    }
+                    return send(request("/api/lines/" + id).DELETE().build()).statusCode();
+                }));
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = request(path).GET().header("Accept", "application/json").build();
+        // Read the whole body: a streamed response is only finished once its last byte arrives
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private long createLine(String prefix) throws IOException, InterruptedException {
+        HttpResponse<String> response = postJson("/api/lines", lineJson(prefix));
+        Long id = parseId(response.body());
+        if (response.statusCode() != 201 || id == null) {
+            throw new IOException("POST /api/lines answered " + response.statusCode() + ": " + response.body());
+        }
+        return id;
+    }
+
+    private void importSchedules(List<Long> lineIds, int perLine) throws IOException, InterruptedException {
+        StringBuilder json = new StringBuilder("[");
+        for (long lineId : lineIds) {
+            for (int i = 0; i < perLine; i++) {
+                // Departures every 20 minutes from 05:00, 30-minute trips
+                LocalTime departure = LocalTime.of(5, 0).plusMinutes(20L * i);
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                json.append("{\"lineId\":").append(lineId)
+                        .append(",\"stationFrom\":\"Station ").append(lineId % 97)
+                        .append("\",\"stationTo\":\"Station ").append((lineId + 1 + i) % 97)
+                        .append("\",\"departureTime\":\"").append(departure)
+                        .append("\",\"arrivalTime\":\"").append(departure.plusMinutes(30))
+                        .append("\"}");
+            }
+        }
+        HttpResponse<String> response = postJson("/api/schedules/import", json.append(']').toString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("POST /api/schedules/import answered " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    private HttpResponse<String> postJson(String path, String json) throws IOException, InterruptedException {
+        return send(request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+    }
+
+    private String lineJson(String prefix) {
+        long n = lineNumber.incrementAndGet();
+        // Names are unique: the run id keeps a second run against the same database from colliding
+        return "{\"name\":\"" + prefix + " " + runId + "-" + n + "\""
+                + ",\"lineType\":\"" + LINE_TYPES[(int) (n % LINE_TYPES.length)] + "\""
+                + ",\"lineStatus\":\"ACTIVE\""
+                + ",\"description\":\"Created by the load test\"}";
+    }
+
+    private static Long parseId(String body) {
+        Matcher matcher = ID.matcher(body);
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts a service jar in its own JVM for the length of the run (--start-services).
+ * Output goes to target/&lt;name&gt;.log; {@link #close} stops the process.
+ */
+public final class ServiceLauncher implements AutoCloseable {
+
+    private final String name;
+    private final Process process;
+    private final Path log;
+    private final long launchedNanos;
+
+    private ServiceLauncher(String name, Process process, Path log, long launchedNanos) {
+        this.name = name;
+        this.process = process;
+        this.log = log;
+        this.launchedNanos = launchedNanos;
+    }
+
+    public static ServiceLauncher start(String name, Path jar, List<String> jvmOptions, List<String> arguments)
+            throws IOException {
+        return start(name, jar, null, jvmOptions, arguments);
+    }
+
+    /**
+     * Same, run from workingDirectory (null: this process's). A relative jar is resolved against it.
+     */
+    public static ServiceLauncher start(String name, Path jar, Path workingDirectory, List<String> jvmOptions,
+                                        List<String> arguments) throws IOException {
+        Path resolvedJar = workingDirectory != null ? workingDirectory.resolve(jar) : jar;
+        if (!Files.isRegularFile(resolvedJar)) {
+            throw new IOException(resolvedJar + " not found: build " + name + " first (see loadtest/pom.xml)");
+        }
+        Path log = Path.of("target", name + ".log").toAbsolutePath();
+        Files.createDirectories(log.getParent());
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.addAll(arguments);
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+        if (workingDirectory != null) {
+            builder.directory(workingDirectory.toFile());
+        }
+        long launched = System.nanoTime();
+        return new ServiceLauncher(name, builder.start(), log, launched);
+    }
+
+    /**
+     * Polls healthUrl until it answers 200 (Actuator: status UP), or fails after timeout.
+     */
+    public void awaitHealthy(HttpClient client, String healthUrl, Duration timeout)
+            throws IOException, InterruptedException {
+        awaitResponse(client, HttpRequest.newBuilder(URI.create(healthUrl)).timeout(Duration.ofSeconds(2)).GET().build(),
+                timeout, Duration.ofMillis(250));
+    }
+
+    /**
+     * Sends request every pollInterval until it answers 2xx; returns the time from launch to that answer.
+     */
+    public Duration awaitResponse(HttpClient client, HttpRequest request, Duration timeout, Duration pollInterval)
+            throws IOException, InterruptedException {
+        long deadline = launchedNanos + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException(name + " exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2) {
+                    return Duration.ofNanos(System.nanoTime() - launchedNanos);
+                }
+            } catch (IOException notListeningYet) {
+                // Keep polling
+            }
+            Thread.sleep(pollInterval.toMillis());
+        }
+        throw new IOException(name + " did not answer " + request.uri() + " within " + timeout.toSeconds() + "s, see " + log);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();   // SIGTERM: Spring closes the context (and the embedded database) cleanly
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * mySOAP requests: GetAirQuality, CompareAirQuality, GetAllZones.
+ * <p>
+ * The zones asked for are the ones the service itself lists ({@link #discoverZones}), so the mix
+ * works with whatever data.sql seeds. A SOAP fault comes back as HTTP 500 and counts as an error.
+ */
+public final class SoapTraffic {
+
+    private static final String NAMESPACE = "http://example.com/air-quality-service";
+    private static final Pattern ZONE_NAME = Pattern.compile("<(?:\\w+:)?zoneName>([^<]*)</");
+
+    private final HttpClient client;
+    private final URI endpoint;
+    private final Duration timeout;
+    private final List<String> zones = new ArrayList<>();
+
+    public SoapTraffic(HttpClient client, String endpoint, Duration timeout) {
+        this.client = client;
+        this.endpoint = URI.create(endpoint);
+        this.timeout = timeout;
+    }
+
+    public void discoverZones() throws IOException, InterruptedException {
+        HttpResponse<String> response = post("<tns:GetAllZonesRequest/>");
+        if (response.statusCode() != 200) {
+            throw new IOException("GetAllZones answered " + response.statusCode() + ": " + response.body());
+        }
+        Matcher matcher = ZONE_NAME.matcher(response.body());
+        while (matcher.find()) {
+            zones.add(unescape(matcher.group(1)));
+        }
+        if (zones.isEmpty()) {
+            throw new IOException("GetAllZones returned no zone");
+        }
+    }
+
+    public Map<String, Operation> operations() {
+        if (zones.isEmpty()) {
+            throw new IllegalStateException("discoverZones() first");
+        }
+        return Map.of(
+                "getAirQuality", Operation.of("getAirQuality", sequence -> post(
+                        "<tns:GetAirQualityRequest><tns:zoneName>" + zone(sequence)
+                                + "</tns:zoneName></tns:GetAirQualityRequest>").statusCode()),
+                "compareAirQuality", Operation.of("compareAirQuality", sequence -> post(
+                        "<tns:CompareAirQualityRequest><tns:zone1>" + zone(sequence)
+                                + "</tns:zone1><tns:zone2>" + zone(sequence + 1)
+                                + "</tns:zone2></tns:CompareAirQualityRequest>").statusCode()),
+                "getAllZones", Operation.of("getAllZones", sequence -> post("<tns:GetAllZonesRequest/>").statusCode()));
+    }
+
+    private String zone(long sequence) {
+        return escape(zones.get((int) Math.floorMod(sequence, (long) zones.size())));
+    }
+
+    private HttpResponse<String> post(String payload) throws IOException, InterruptedException {
+        return client.send(request(endpoint, payload, timeout), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * A SOAP 1.1 request carrying payload, with tns bound to the service namespace.
+     */
+    static HttpRequest request(URI endpoint, String payload, Duration timeout) {
+        String envelope = "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\""
+                + " xmlns:tns=\"" + NAMESPACE + "\"><soapenv:Header/><soapenv:Body>"
+                + payload
+                + "</soapenv:Body></soapenv:Envelope>";
+        return HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "text/xml; charset=utf-8")
+                .header("SOAPAction", "\"\"")
+                .POST(HttpRequest.BodyPublishers.ofString(envelope))
+                .build();
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static String unescape(String text) {
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&apos;", "'")
+                .replace("&quot;", "\"").replace("&amp;", "&");
+    }
+}
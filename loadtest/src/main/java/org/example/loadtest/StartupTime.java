@@ -0,0 +1,176 @@
+package org.example.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Time to first request: how long after "java" is launched a service answers a real request
+ * (myRest: GET /api/lines?limit=1, mySOAP: GetAllZones), for each way of starting it:
+ * <ul>
+ *   <li>default: java -jar on the Spring Boot jar; mySOAP runs its SQL scripts at every start
+ *       (as before fast-start)</li>
+ *   <li>fast-start: the -Pfast-start build (Spring AOT + class-data sharing archive), scripts
+ *       skipped when unchanged</li>
+ * </ul>
+ * Each service runs on its own H2 file database (under target/startup), so every start after the
+ * first finds the schema in place, like a restarted or scaled-out instance. Per variant, one start is
+ * run and thrown away (creates the database, fills the OS file cache), then --runs starts are timed.
+ * Run with --help for the options.
+ */
+public final class StartupTime {
+
+    private static final String USAGE = """
+            Usage: StartupTime [options]
+              --services LIST     myRest,mySOAP (default both)
+              --variants LIST     default,fast-start (default both)
+              --runs N            timed starts per service and variant (default 5)
+              --myrest-dir PATH   default ../myRest (built with mvn -Pfast-start,h2 package)
+              --mysoap-dir PATH   default ../mySOAP (built with mvn -Pfast-start package)
+              --jvm-opts OPTS     JVM options for every start (default "-Xms512m -Xmx512m")
+            """;
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(3);
+    private static final Duration POLL = Duration.ofMillis(20);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--help")) {
+                System.out.print(USAGE);
+                return;
+            }
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i] + "\n" + USAGE);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        List<String> services = List.of(options.getOrDefault("services", "myRest,mySOAP").split(","));
+        List<String> variants = List.of(options.getOrDefault("variants", "default,fast-start").split(","));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        List<String> jvmOptions = List.of(options.getOrDefault("jvm-opts", "-Xms512m -Xmx512m").trim().split("\\s+"));
+
+        Path databases = Path.of("target", "startup").toAbsolutePath();
+        deleteRecursively(databases);
+        Files.createDirectories(databases);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(200))
+                .build();
+
+        List<String> report = new ArrayList<>();
+        for (String service : services) {
+            Service target = switch (service.trim()) {
+                case "myRest" -> myRest(Path.of(options.getOrDefault("myrest-dir", "../myRest")), databases);
+                case "mySOAP" -> mySoap(Path.of(options.getOrDefault("mysoap-dir", "../mySOAP")), databases);
+                default -> throw new IllegalArgumentException("Unknown service: " + service);
+            };
+            Map<String, Long> medians = new HashMap<>();
+            for (String variant : variants) {
+                List<Long> millis = new ArrayList<>();
+                for (int run = 0; run <= runs; run++) {
+                    long elapsed = startOnce(client, target, variant.trim(), jvmOptions).toMillis();
+                    System.out.printf("%s %s %s: %d ms%n", target.name(), variant, run == 0 ? "(priming)" : "#" + run, elapsed);
+                    if (run > 0) {
+                        millis.add(elapsed);
+                    }
+                }
+                millis.sort(Comparator.naturalOrder());
+                long median = millis.get(millis.size() / 2);
+                medians.put(variant.trim(), median);
+                report.add(String.format(Locale.ROOT, "%-8s %-11s %5d %9d %9d %9d",
+                        target.name(), variant.trim(), millis.size(), millis.get(0), median, millis.get(millis.size() - 1)));
+            }
+            if (medians.containsKey("default") && medians.containsKey("fast-start")) {
+                report.add(String.format(Locale.ROOT, "%-8s fast-start median is %.1fx faster", target.name(),
+                        medians.get("default") / (double) medians.get("fast-start")));
+            }
+        }
+
+        System.out.println();
+        System.out.println("Time from launching java to the first successful request, ms");
+        System.out.printf("%-8s %-11s %5s %9s %9s %9s%n", "service", "variant", "runs", "min", "median", "max");
+        report.forEach(System.out::println);
+    }
+
+    private static Duration startOnce(HttpClient client, Service service, String variant, List<String> jvmOptions)
+            throws IOException, InterruptedException {
+        List<String> arguments = new ArrayList<>(service.arguments());
+        List<String> jvm = new ArrayList<>(jvmOptions);
+        Path workingDirectory = null;
+        Path jar;
+        switch (variant) {
+            case "default" -> {
+                jar = service.directory().resolve("target").resolve(service.jarName() + ".jar");
+                if (service.alwaysInitSchema() != null) {
+                    arguments.add(service.alwaysInitSchema());
+                }
+            }
+            case "fast-start" -> {
+                // Relative paths, as at the training run: otherwise the archive does not match the classpath
+                workingDirectory = service.directory().resolve("target").resolve("fast-start");
+                jar = Path.of(service.jarName() + "-fast-start.jar");
+                jvm.add("-XX:SharedArchiveFile=app.jsa");
+                jvm.add("-Xshare:on");   // Fail instead of quietly starting without the archive
+                jvm.add("-Dspring.aot.enabled=true");
+            }
+            default -> throw new IllegalArgumentException("Unknown variant: " + variant);
+        }
+        arguments.add("--spring.datasource.url=" + service.databaseUrl(variant));
+
+        try (ServiceLauncher launcher = ServiceLauncher.start(service.name() + "-" + variant, jar, workingDirectory,
+                jvm, arguments)) {
+            return launcher.awaitResponse(client, service.firstRequest(), TIMEOUT, POLL);
+        }
+    }
+
+    private record Service(String name, Path directory, String jarName, List<String> arguments,
+                           String alwaysInitSchema, String databaseUrlPattern, HttpRequest firstRequest) {
+
+        String databaseUrl(String variant) {
+            return databaseUrlPattern.formatted(variant);
+        }
+    }
+
+    private static Service myRest(Path directory, Path databases) {
+        return new Service("myRest", directory, "myRest-0.0.1-SNAPSHOT",
+                List.of("--server.port=18080", "--spring.profiles.active=h2"),
+                null,   // Flyway migrations: nothing runs again once applied, in both variants
+                "jdbc:h2:file:" + databases.resolve("myrest-%s")
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                HttpRequest.newBuilder(URI.create("http://localhost:18080/api/lines?limit=1"))
+                        .timeout(Duration.ofSeconds(10)).GET().build());
+    }
+
+    private static Service mySoap(Path directory, Path databases) {
+        return new Service("mySOAP", directory, "soap-air-quality-service-1.0.0",
+                List.of("--server.port=18081"),
+                "--airquality.sql-init.skip-unchanged=false",
+                "jdbc:h2:file:" + databases.resolve("mysoap-%s"),
+                SoapTraffic.request(URI.create("http://localhost:18081/ws"), "<tns:GetAllZonesRequest/>",
+                        Duration.ofSeconds(10)));
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
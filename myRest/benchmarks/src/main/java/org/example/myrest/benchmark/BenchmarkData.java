@@ -0,0 +1,57 @@
+package org.example.myrest.benchmark;
+
+import org.example.myrest.model.LineStatus;
+import org.example.myrest.model.LineType;
+import org.example.myrest.model.Schedule;
+import org.example.myrest.model.TransportLine;
+
+import java.time.LocalTime;
+import java.util.Random;
+
+/**
+ * Deterministic fixtures shared by the benchmarks: the same seed always yields the same lines,
+ * so results from different runs (and commits) are comparable.
+ */
+public final class BenchmarkData {
+
+    public static final long SEED = 42L;
+
+    // Service day used for generated departures: 05:00 to 23:00
+    private static final int FIRST_DEPARTURE = 5 * 3600;
+    private static final int SERVICE_SECONDS = 18 * 3600;
+
+    private BenchmarkData() {}
+
+    // A line with `schedules` trips at random minutes of the service day, ids starting at 1
+    public static TransportLine line(long id, int schedules, Random random) {
+        TransportLine line = new TransportLine("Line " + id, LineType.BUS, LineStatus.ACTIVE,
+                "Benchmark line " + id);
+        line.setId(id);
+        line.setVersion(0L);
+        for (int i = 0; i < schedules; i++) {
+            LocalTime departure = departure(random);
+            Schedule schedule = new Schedule();
+            schedule.setId(id * 100_000 + i + 1);
+            schedule.setStationFrom(station(random));
+            schedule.setStationTo(station(random));
+            schedule.setDepartureTime(departure);
+            schedule.setArrivalTime(departure.plusMinutes(5 + random.nextInt(40)));
+            schedule.setVersion(0L);
+            line.addSchedule(schedule);
+        }
+        return line;
+    }
+
+    public static LocalTime departure(Random random) {
+        return LocalTime.ofSecondOfDay(FIRST_DEPARTURE + random.nextInt(SERVICE_SECONDS / 60) * 60);
+    }
+
+    // Any second of the day, including outside service hours
+    public static LocalTime anyTime(Random random) {
+        return LocalTime.ofSecondOfDay(random.nextInt(24 * 3600));
+    }
+
+    public static String station(Random random) {
+        return "Station " + random.nextInt(200);
+    }
+}
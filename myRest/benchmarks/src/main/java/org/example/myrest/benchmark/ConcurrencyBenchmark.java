@@ -0,0 +1,106 @@
+package org.example.myrest.benchmark;
+
+import org.example.myrest.MyRestApplication;
+import org.example.myrest.model.TransportLine;
+import org.example.myrest.repository.TransportLineRepository;
+import org.example.myrest.service.StationDirectory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the request threading model: {@link #CLIENTS} client threads call
+ * GET /api/schedules/line/{id} (one transaction per request, no cache) on a server started in the
+ * same JVM, against H2 in PostgreSQL mode seeded like {@link RepositoryBenchmark}.
+ * <ul>
+ *   <li>threads=platform: the Tomcat pool (200 threads), as before; threads=virtual: a virtual thread per request</li>
+ *   <li>bulkhead=true: the default permits, 8 requests in the database at once (pool of 10 minus
+ *       headroom), the rest wait for a permit; bulkhead=false raises the limit out of reach, so requests queue on Hikari instead.
+ *       Both give up after 30s (Hikari's connection timeout), so only the queueing differs.</li>
+ * </ul>
+ * Throughput mode gives requests per second, SampleTime the latency percentiles (p0.99).
+ * Any response other than 200 fails the run, so a 503 from the bulkhead cannot pass for a fast request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(ConcurrencyBenchmark.CLIENTS)
+public class ConcurrencyBenchmark {
+
+    static final int CLIENTS = 64;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"true", "false"})
+    public boolean bulkhead;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUri;
+    private long[] lineIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = "virtual".equals(threads);
+        context = SpringApplication.run(MyRestApplication.class,
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:load;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                        + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--myrest.db.bulkhead.permits=" + (bulkhead ? 0 : 100_000),   // 0 = default
+                "--myrest.db.bulkhead.max-wait=30s");
+        RepositoryBenchmark.seed(context.getBean(JdbcTemplate.class));
+        context.getBean(StationDirectory.class).afterSingletonsInstantiated();
+        lineIds = context.getBean(TransportLineRepository.class).findAll().stream()
+                .mapToLong(TransportLine::getId).toArray();
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUri = "http://localhost:" + port + "/api/schedules/line/";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // A different, deterministic sequence of lines per client thread
+    @State(Scope.Thread)
+    public static class Cursor {
+        private Random random;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams threadParams) {
+            random = new Random(BenchmarkData.SEED + threadParams.getThreadIndex());
+        }
+    }
+
+    @Benchmark
+    public byte[] schedulesByLine(Cursor cursor) throws IOException, InterruptedException {
+        long lineId = lineIds[cursor.random.nextInt(lineIds.length)];
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(baseUri + lineId)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + ": " + new String(response.body()));
+        }
+        return response.body();
+    }
+}
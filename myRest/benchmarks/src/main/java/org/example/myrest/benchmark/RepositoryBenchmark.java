@@ -0,0 +1,146 @@
+package org.example.myrest.benchmark;
+
+import org.example.myrest.MyRestApplication;
+import org.example.myrest.model.LineSummary;
+import org.example.myrest.model.Schedule;
+import org.example.myrest.model.Station;
+import org.example.myrest.model.TransportLine;
+import org.example.myrest.repository.ScheduleRepository;
+import org.example.myrest.repository.StationRepository;
+import org.example.myrest.repository.TransportLineRepository;
+import org.example.myrest.service.StationDirectory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Time;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository queries against an embedded H2 database in PostgreSQL mode, seeded with
+ * {@link #LINES} lines of {@link #SCHEDULES_PER_LINE} schedules each. The application context is
+ * started without a web server, with the schema created by Hibernate as in development.
+ * Absolute numbers are not comparable with PostgreSQL; the point is catching regressions in the
+ * queries themselves (extra joins, N+1 fetches, lost index use).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepositoryBenchmark {
+
+    static final int LINES = 200;
+    static final int SCHEDULES_PER_LINE = 100;
+
+    private static final String[] ARGS = {
+            "--spring.main.web-application-type=none",
+            "--spring.main.banner-mode=off",
+            "--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                    + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN"
+    };
+
+    private ConfigurableApplicationContext context;
+    private ScheduleRepository scheduleRepository;
+    private TransportLineRepository lineRepository;
+    private long[] lineIds;
+    private long[] stationIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(MyRestApplication.class, ARGS);
+        scheduleRepository = context.getBean(ScheduleRepository.class);
+        lineRepository = context.getBean(TransportLineRepository.class);
+        seed(context.getBean(JdbcTemplate.class));
+        // Registers the seeded station names and links the rows to them, as on a restart
+        context.getBean(StationDirectory.class).afterSingletonsInstantiated();
+
+        lineIds = lineRepository.findAll().stream().mapToLong(TransportLine::getId).toArray();
+        stationIds = context.getBean(StationRepository.class).findAll().stream().mapToLong(Station::getId).toArray();
+    }
+
+    static void seed(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(BenchmarkData.SEED);
+        List<Object[]> lines = new ArrayList<>(LINES);
+        for (int i = 1; i <= LINES; i++) {
+            lines.add(new Object[]{"Line " + i, i % 2 == 0 ? "BUS" : "METRO", "ACTIVE", "Benchmark line " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO transport_line (name, line_type, line_status, description, version) "
+                + "VALUES (?, ?, ?, ?, 0)", lines);
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM transport_line ORDER BY id", Long.class);
+        List<Object[]> schedules = new ArrayList<>(SCHEDULES_PER_LINE);
+        for (Long lineId : ids) {
+            schedules.clear();
+            for (int i = 0; i < SCHEDULES_PER_LINE; i++) {
+                LocalTime departure = BenchmarkData.departure(random);
+                schedules.add(new Object[]{lineId, BenchmarkData.station(random), BenchmarkData.station(random),
+                        Time.valueOf(departure), Time.valueOf(departure.plusMinutes(20))});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO schedule (line_id, station_from, station_to, departure_time, "
+                    + "arrival_time, version) VALUES (?, ?, ?, ?, ?, 0)", schedules);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Each benchmark thread walks lines, stations and times in its own deterministic order
+    @State(Scope.Thread)
+    public static class Cursor {
+        private final Random random = new Random(BenchmarkData.SEED);
+
+        long line(RepositoryBenchmark state) {
+            return state.lineIds[random.nextInt(state.lineIds.length)];
+        }
+
+        long station(RepositoryBenchmark state) {
+            return state.stationIds[random.nextInt(state.stationIds.length)];
+        }
+
+        LocalTime time() {
+            return BenchmarkData.anyTime(random);
+        }
+    }
+
+    // The database path for next departures, replaced by the in-memory TimetableIndex
+    @Benchmark
+    public List<Schedule> departuresAfter(Cursor cursor) {
+        return scheduleRepository.findByTransportLineIdAndDepartureTimeAfterOrderByDepartureTimeAsc(
+                cursor.line(this), cursor.time());
+    }
+
+    @Benchmark
+    public List<Schedule> schedulesByLine(Cursor cursor) {
+        return scheduleRepository.findByTransportLineIdOrderByIdAsc(cursor.line(this));
+    }
+
+    @Benchmark
+    public List<Schedule> schedulesAtStation(Cursor cursor) {
+        return scheduleRepository.findByStationIdOrderByDepartureTime(cursor.station(this));
+    }
+
+    // GET /api/lines/{id} on a cache miss
+    @Benchmark
+    public Optional<TransportLine> lineWithSchedules(Cursor cursor) {
+        return lineRepository.findWithSchedulesById(cursor.line(this));
+    }
+
+    // One keyset page of GET /api/lines?limit=50
+    @Benchmark
+    public List<LineSummary> summaryPage(Cursor cursor) {
+        return lineRepository.findSummaryPage(cursor.line(this) - 1, Limit.of(50));
+    }
+}
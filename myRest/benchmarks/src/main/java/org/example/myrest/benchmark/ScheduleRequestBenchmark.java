@@ -0,0 +1,42 @@
+package org.example.myrest.benchmark;
+
+import org.example.myrest.controller.ScheduleController;
+import org.example.myrest.model.Schedule;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Request-to-entity conversion on POST /api/schedules; dominated by the two LocalTime.parse calls
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ScheduleRequestBenchmark {
+
+    private static final int REQUESTS = 1024;
+
+    private final ScheduleController.ScheduleCreateRequest[] requests =
+            new ScheduleController.ScheduleCreateRequest[REQUESTS];
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        for (int i = 0; i < REQUESTS; i++) {
+            ScheduleController.ScheduleCreateRequest request = new ScheduleController.ScheduleCreateRequest();
+            request.setLineId(1L + random.nextInt(100));
+            request.setStationFrom(BenchmarkData.station(random));
+            request.setStationTo(BenchmarkData.station(random));
+            LocalTime departure = BenchmarkData.departure(random);
+            request.setDepartureTime(departure.toString());
+            request.setArrivalTime(departure.plusMinutes(20).toString());
+            requests[i] = request;
+        }
+    }
+
+    @Benchmark
+    public Schedule toSchedule() {
+        return requests[cursor++ & (REQUESTS - 1)].toSchedule();
+    }
+}
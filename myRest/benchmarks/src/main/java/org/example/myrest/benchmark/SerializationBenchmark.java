@@ -0,0 +1,46 @@
+package org.example.myrest.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.myrest.model.TransportLine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a line with its schedules, as written by GET /api/lines/{id} and the
+ * expanded listings. The mapper is built the way Spring Boot builds the application's one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int schedulesPerLine;
+
+    private ObjectMapper objectMapper;
+    private TransportLine line;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        line = BenchmarkData.line(1, schedulesPerLine, new Random(BenchmarkData.SEED));
+        json = objectMapper.writeValueAsBytes(line);
+    }
+
+    @Benchmark
+    public byte[] writeLineWithSchedules() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(line);
+    }
+
+    // Request bodies of PUT /api/lines/{id} go the other way
+    @Benchmark
+    public TransportLine readLineWithSchedules() throws IOException {
+        return objectMapper.readValue(json, TransportLine.class);
+    }
+}
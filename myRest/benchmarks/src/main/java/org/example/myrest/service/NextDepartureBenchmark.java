@@ -0,0 +1,46 @@
+package org.example.myrest.service;
+
+import org.example.myrest.benchmark.BenchmarkData;
+import org.example.myrest.model.LineStatus;
+import org.example.myrest.model.TransportLine;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalTime;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory next-departure lookup behind GET /api/schedules/{id}/availability.
+ * Lives in the service package because timetables are built through the package-private factory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NextDepartureBenchmark {
+
+    // Power of two so the query cursor can wrap with a mask
+    private static final int QUERIES = 1024;
+
+    @Param({"20", "200", "2000"})
+    int departuresPerLine;
+
+    private TimetableIndex.LineTimetable timetable;
+    private final LocalTime[] queries = new LocalTime[QUERIES];
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        TransportLine line = BenchmarkData.line(1, departuresPerLine, random);
+        timetable = TimetableIndex.LineTimetable.of(line.getName(), LineStatus.ACTIVE, line.getSchedules());
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = BenchmarkData.anyTime(random);
+        }
+    }
+
+    @Benchmark
+    public Optional<TimetableIndex.Departure> nextDeparture() {
+        return timetable.nextDeparture(queries[cursor++ & (QUERIES - 1)]);
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.myrest.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Times every /api request per endpoint (method + route template, e.g. GET /api/schedules/line/{lineId})
+// and counts the requests in flight per method (the route is only known once Spring MVC has matched it).
+// p50/p99/p999 are switched on in application.yml (management.metrics.distribution.percentiles).
+// Streamed responses (async) are timed until the last byte is written; long-lived streams such as
+// /api/lines/stream therefore show up with their whole connection time, under their own uri.
+public class ApiMetricsFilter extends OncePerRequestFilter {
+
+    static final String REQUESTS = "myrest.api.requests";
+    static final String ACTIVE = "myrest.api.requests.active";
+
+    private static final Set<String> METHODS = Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS");
+
+    private final MeterRegistry registry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public ApiMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = METHODS.contains(request.getMethod()) ? request.getMethod() : "OTHER";
+        AtomicInteger active = inFlight.computeIfAbsent(method, this::registerActive);
+        active.incrementAndGet();
+        long start = System.nanoTime();
+        boolean failed = false;
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                async = true;
+                String uri = uri(request, response);
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(method, uri, response.getStatus(), start);
+                        active.decrementAndGet();
+                    }
+
+                    @Override public void onTimeout(AsyncEvent event) {}   // onComplete follows
+                    @Override public void onError(AsyncEvent event) {}     // onComplete follows
+                    @Override public void onStartAsync(AsyncEvent event) {}
+                });
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            failed = true;
+            throw e;
+        } finally {
+            if (!async) {
+                // An exception becomes a 500 only after this filter, in the container's error handling
+                record(method, uri(request, response), failed ? 500 : response.getStatus(), start);
+                active.decrementAndGet();
+            }
+        }
+    }
+
+    private void record(String method, String uri, int status, long startNanos) {
+        Timer.builder(REQUESTS)
+                .tag("method", method)
+                .tag("uri", uri)
+                .tag("status", Integer.toString(status))
+                .tag("outcome", Outcome.forStatus(status).name())
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private AtomicInteger registerActive(String method) {
+        AtomicInteger active = new AtomicInteger();
+        Gauge.builder(ACTIVE, active, AtomicInteger::get).tag("method", method).register(registry);
+        return active;
+    }
+
+    // The route template, never the raw path: one time series per endpoint, not per id
+    private static String uri(HttpServletRequest request, HttpServletResponse response) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            return pattern.toString();
+        }
+        return response.getStatus() == HttpServletResponse.SC_NOT_FOUND ? "NOT_FOUND" : "UNKNOWN";
+    }
+}
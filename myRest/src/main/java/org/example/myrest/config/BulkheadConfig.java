@@ -0,0 +1,48 @@
+package org.example.myrest.config;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+// Puts the DatabaseBulkhead in front of every transactional method and every repository.
+// Advice order, outermost first: cache (CacheConfig) -> bulkhead -> transaction, so a cache hit
+// needs no permit and a permit is held for the whole transaction (that is when the connection is).
+@Configuration(proxyBeanMethods = false)
+public class BulkheadConfig {
+
+    // Connections left outside the permits: a permit holder may still take a second connection
+    // (an after-commit listener, a nested transaction), and health checks take one without a permit
+    static final int POOL_HEADROOM = 2;
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static DatabaseBulkhead databaseBulkhead(
+            @Value("${myrest.db.bulkhead.permits:0}") int permits,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${myrest.db.bulkhead.max-wait:2s}") Duration maxWait) {
+        return new DatabaseBulkhead(permits > 0 ? permits : Math.max(1, poolSize - POOL_HEADROOM), maxWait);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor databaseBulkheadAdvisor(DatabaseBulkhead databaseBulkhead) {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Transactional.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(Transactional.class))
+                .union((ClassFilter) Repository.class::isAssignableFrom);
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, databaseBulkhead);
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 1);   // Between CacheConfig and the transaction advice
+        return advisor;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.myrest.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.example.myrest.service.ResourceVersions;
+import org.example.myrest.service.TransportLineService;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+
+// The cache advice runs outside the bulkhead and transaction advice, so a cache hit never waits for
+// a permit or opens a transaction (and never borrows a connection). Cache sizes and TTL are set under
+// spring.cache in application.yml.
+// Line caches only store what was loaded while their ResourceVersions counter stood still
+// (VersionGuardedCache): a line by its own counter, anything else by the global one.
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 2)
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CaffeineCacheManager cacheManager(CacheProperties properties, ResourceVersions versions) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                return new VersionGuardedCache(name, cache, TransportLineService.LINES_CACHE.equals(name)
+                        ? key -> versions.lineVersion((Long) key)
+                        : key -> versions.globalVersion());
+            }
+        };
+        String spec = properties.getCaffeine().getSpec();
+        if (StringUtils.hasText(spec)) {
+            cacheManager.setCacheSpecification(spec);
+        }
+        cacheManager.setCacheNames(properties.getCacheNames());
+        return cacheManager;
+    }
+}
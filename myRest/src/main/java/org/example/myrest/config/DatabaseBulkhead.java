@@ -0,0 +1,82 @@
+package org.example.myrest.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caps how many threads work with the database at once. With virtual threads the number of
+// requests in flight is unbounded; without a cap they would all queue on the connection pool and
+// time out together. Here they wait at most maxWait for a permit (fair, FIFO), then get a 503.
+// Re-entrant: nested calls on a thread that already holds a permit (a repository called from a
+// transactional service) pass through instead of waiting for a second permit. The permits only
+// bound connections if each holder uses one: a holder that opens a second (an after-commit
+// listener, a nested transaction) draws on the pool headroom, so permits default to fewer than the
+// pool size (BulkheadConfig).
+public class DatabaseBulkhead implements MethodInterceptor {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+    private final LongAdder rejected = new LongAdder();
+
+    public DatabaseBulkhead(int maxConcurrent, Duration maxWait) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("bulkhead permits must be at least 1");
+        }
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        int[] held = depth.get();
+        if (held[0] > 0) {
+            held[0]++;
+            try {
+                return invocation.proceed();
+            } finally {
+                held[0]--;
+            }
+        }
+
+        if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+            rejected.increment();
+            throw new BulkheadFullException("Database busy: " + maxConcurrent
+                    + " requests already in progress, try again later");
+        }
+        held[0] = 1;
+        try {
+            return invocation.proceed();
+        } finally {
+            depth.remove();   // Virtual threads are never reused; do not leave the entry behind
+            permits.release();
+        }
+    }
+
+    public int inUse() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int waiting() {
+        return permits.getQueueLength();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class BulkheadFullException extends RuntimeException {
+        public BulkheadFullException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.myrest.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Metrics scraped from GET /actuator/prometheus. Besides what Spring Boot already measures
+// (Hikari pool: hikaricp.connections.*, repositories: spring.data.repository.invocations,
+// caches, JVM) and datasource-micrometer's jdbc.query timer around every statement:
+// - myrest.api.requests / .active: latency and in-flight requests per /api endpoint (ApiMetricsFilter)
+// - myrest.db.bulkhead.*: permits in use, threads waiting, requests turned away (DatabaseBulkhead)
+// - myrest.db.replica.lag / myrest.db.connections.routed: with read replicas (ReplicaRoutingConfig)
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    @Bean
+    public FilterRegistrationBean<ApiMetricsFilter> apiMetricsFilter(MeterRegistry registry) {
+        FilterRegistrationBean<ApiMetricsFilter> registration = new FilterRegistrationBean<>(new ApiMetricsFilter(registry));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);   // Outside every other filter: the whole request is timed
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder databaseBulkheadMetrics(DatabaseBulkhead databaseBulkhead) {
+        return registry -> {
+            Gauge.builder("myrest.db.bulkhead.active", databaseBulkhead, DatabaseBulkhead::inUse)
+                    .description("Permits in use").register(registry);
+            Gauge.builder("myrest.db.bulkhead.waiting", databaseBulkhead, DatabaseBulkhead::waiting)
+                    .description("Threads waiting for a permit").register(registry);
+            FunctionCounter.builder("myrest.db.bulkhead.rejected", databaseBulkhead, DatabaseBulkhead::rejectedCount)
+                    .description("Requests answered 503 after max-wait").register(registry);
+        };
+    }
+}
@@ -0,0 +1,263 @@
+package org.example.myrest.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sends read-only transactions to replica pools and everything else to the primary.
+// A replica is used only while it is known to hold
+// - every commit older than max-lag (lag tolerance), and
+// - every write this instance committed (read-your-writes).
+// Every lag-check-interval the primary's WAL position is read first, then each replica's replay
+// position and the age of its last replayed commit. A replica whose replay position has reached the
+// primary's holds every commit up to that check; otherwise only those up to its last replayed commit.
+// Read-your-writes compares positions, not times: a check taken after a write records the primary's
+// position as the write position, and a replica qualifies once it has replayed up to it. Until then,
+// and from the write until that check, reads stay on the primary (usually one interval). The window
+// covers the whole instance, not only the writer: the caches, ETags (ResourceVersions) and in-memory
+// indexes reload right after a change and must not read a replica that is still behind. A replica
+// that cannot be reached stops qualifying after max-lag; a failed connection attempt falls back to
+// the primary.
+// With no replica every connection goes to the primary and no lag check runs.
+// A read-only transaction gets its connection while it begins (Hibernate prepares it read-only),
+// before Spring publishes the flag in TransactionSynchronizationManager; the transaction manager
+// (ReplicaRoutingConfig) passes it in for that moment through beginning()/begun().
+public class ReplicaRouting implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final String primaryPositionQuery;
+    private final String replicaPositionQuery;
+    private final long maxLagMillis;
+    private final Router router = new Router();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, LongAdder> routed = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService lagChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-lag-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ThreadLocal<Boolean> beginningReadOnly = new ThreadLocal<>();
+    // Writes committed by this instance; the last check covering them found the primary at writePosition
+    private final AtomicLong writes = new AtomicLong();
+    private volatile long coveredWrites;
+    private volatile long writePosition;
+
+    public ReplicaRouting(HikariDataSource primary, List<HikariDataSource> replicaPools,
+                          String primaryPositionQuery, String replicaPositionQuery,
+                          Duration maxLag, Duration lagCheckInterval) {
+        if (maxLag.compareTo(lagCheckInterval) <= 0) {
+            // Even an up-to-date replica looks one interval behind just before the next check
+            throw new IllegalArgumentException("myrest.db.replicas.max-lag (" + maxLag
+                    + ") must be longer than lag-check-interval (" + lagCheckInterval + ")");
+        }
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.primaryPositionQuery = primaryPositionQuery;
+        this.replicaPositionQuery = replicaPositionQuery;
+        this.maxLagMillis = maxLag.toMillis();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.name, replica.pool));
+        router.setTargetDataSources(targets);
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+
+        if (!replicas.isEmpty()) {
+            lagChecks.scheduleWithFixedDelay(this::checkLag, 0, lagCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    DataSource dataSource() {
+        return router;
+    }
+
+    void beginning(boolean readOnly) {
+        beginningReadOnly.set(readOnly);
+    }
+
+    void begun() {
+        beginningReadOnly.remove();
+    }
+
+    List<String> replicaNames() {
+        return replicas.stream().map(replica -> replica.name).toList();
+    }
+
+    // Seconds behind the primary at the last successful check; NaN before the first one
+    double lagSeconds(String replicaName) {
+        for (Replica replica : replicas) {
+            if (replica.name.equals(replicaName)) {
+                return replica.lagMillis < 0 ? Double.NaN : replica.lagMillis / 1000.0;
+            }
+        }
+        return Double.NaN;
+    }
+
+    long routedCount(String target) {
+        LongAdder count = routed.get(target);
+        return count == null ? 0 : count.sum();
+    }
+
+    @Override
+    public void close() {
+        lagChecks.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private void checkLag() {
+        long checkedAt = System.currentTimeMillis();
+        long writesBefore = writes.get();   // Committed before the primary's position is read
+        Long primaryPosition = null;
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(primaryPositionQuery)) {
+            if (rs.next()) {
+                primaryPosition = rs.getLong(1);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Writes since the last check stay unconfirmed: their reads stay on the primary
+        }
+        if (primaryPosition != null && writesBefore > coveredWrites) {
+            writePosition = primaryPosition;   // Before coveredWrites, which readers check first
+            coveredWrites = writesBefore;
+        }
+
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(replicaPositionQuery)) {
+                if (!rs.next()) {
+                    continue;
+                }
+                long position = rs.getLong(1);
+                boolean caughtUp = primaryPosition != null && position >= primaryPosition;
+                long lagMillis = caughtUp ? 0 : Math.max(0, Math.round(rs.getDouble(2) * 1000));
+                replica.position = position;
+                replica.lagMillis = lagMillis;
+                replica.replayedUpToMillis = checkedAt - lagMillis;
+            } catch (SQLException | RuntimeException e) {
+                // Keeps the last known position: the replica stops qualifying once that is older than max-lag
+            }
+        }
+    }
+
+    // Round robin over the replicas that hold everything a read may need to see; null = primary only
+    private Replica pickReplica() {
+        if (writes.get() > coveredWrites) {
+            return null;   // A write no check has located yet
+        }
+        long neededPosition = writePosition;
+        long neededMillis = System.currentTimeMillis() - maxLagMillis;
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.position >= neededPosition && replica.replayedUpToMillis >= neededMillis) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void count(String target) {
+        routed.computeIfAbsent(target, key -> new LongAdder()).increment();
+    }
+
+    private static final class Replica {
+        final String name;
+        final HikariDataSource pool;
+        volatile long replayedUpToMillis;   // Commits up to this time (local clock) are on the replica
+        volatile long position = -1;        // WAL replayed, comparable with the primary's position
+        volatile long lagMillis = -1;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+            this.name = pool.getPoolName();
+        }
+    }
+
+    private class Router extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (replicas.isEmpty()) {
+                return PRIMARY;
+            }
+            Boolean beginning = beginningReadOnly.get();
+            if (beginning != null ? beginning : TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                Replica replica = pickReplica();
+                return replica == null ? PRIMARY : replica.name;
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new WriteCommitted());
+            }
+            return PRIMARY;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Object key = determineCurrentLookupKey();
+            DataSource target = resolveTarget(key);
+            try {
+                Connection connection = target.getConnection();
+                count((String) key);
+                return connection;
+            } catch (SQLException e) {
+                if (target == primary) {
+                    throw e;
+                }
+                count(PRIMARY);
+                return primary.getConnection();
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();   // Pools have their own credentials
+        }
+
+        private DataSource resolveTarget(Object key) {
+            DataSource target = getResolvedDataSources().get(key);
+            return target != null ? target : primary;
+        }
+    }
+
+    // Runs first among the after-commit callbacks, so the event listeners that reload
+    // caches and indexes right after the change already read from the primary
+    private class WriteCommitted implements TransactionSynchronization, Ordered {
+
+        @Override
+        public void afterCommit() {
+            writes.incrementAndGet();
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.myrest.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read replicas (myrest.db.replicas in application.yml). Always registered, and replica URLs are
+// read when the context starts: the fast-start build fixes conditional beans at build time, so a
+// condition on the URLs would ignore the ones set at deploy time. Without URLs the router has no
+// replica and every connection comes from the primary pool.
+// Every pool, primary and replicas, takes spring.datasource.hikari; replicas default to the
+// primary's username and password.
+@Configuration(proxyBeanMethods = false)
+public class ReplicaRoutingConfig {
+
+    // WAL position of the primary, in bytes
+    static final String POSTGRES_PRIMARY_POSITION_QUERY = "SELECT pg_current_wal_lsn() - '0/0'::pg_lsn";
+
+    // WAL position the replica has replayed, in bytes, and seconds since its last replayed commit.
+    // Receive and replay positions alone cannot tell a caught-up replica from one that stopped
+    // receiving: the router compares the replay position with the primary's instead.
+    // On a non-standby server: its own position, 0 seconds
+    static final String POSTGRES_REPLICA_POSITION_QUERY =
+            "SELECT COALESCE(pg_last_wal_replay_lsn(), pg_current_wal_lsn()) - '0/0'::pg_lsn, "
+            + "COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)";
+
+    @Bean
+    public ReplicaRouting replicaRouting(DataSourceProperties properties, Environment environment,
+                                         ObjectProvider<MeterRegistry> meterRegistry,
+                                         @Value("${myrest.db.replicas.urls:}") List<String> urls,
+                                         @Value("${myrest.db.replicas.username:${spring.datasource.username:}}") String username,
+                                         @Value("${myrest.db.replicas.password:${spring.datasource.password:}}") String password,
+                                         @Value("${myrest.db.replicas.max-lag:5s}") Duration maxLag,
+                                         @Value("${myrest.db.replicas.lag-check-interval:1s}") Duration lagCheckInterval,
+                                         @Value("${myrest.db.replicas.primary-position-query:" + POSTGRES_PRIMARY_POSITION_QUERY + "}") String primaryPositionQuery,
+                                         @Value("${myrest.db.replicas.replica-position-query:" + POSTGRES_REPLICA_POSITION_QUERY + "}") String replicaPositionQuery) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        HikariDataSource primary = pool(properties, environment, registry, null);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            if (urls.get(i).isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = pool(properties, environment, registry, "replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRouting(primary, replicas, primaryPositionQuery, replicaPositionQuery, maxLag, lagCheckInterval);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRouting replicaRouting) {
+        return replicaRouting.dataSource();
+    }
+
+    // Spring Boot's JPA transaction manager, telling the router whether the transaction whose
+    // connection it is about to hand out is read-only
+    @Bean
+    public JpaTransactionManager transactionManager(ReplicaRouting replicaRouting,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager() {
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+                replicaRouting.beginning(definition.isReadOnly());
+                try {
+                    super.doBegin(transaction, definition);
+                } finally {
+                    replicaRouting.begun();
+                }
+            }
+        };
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+        return transactionManager;
+    }
+
+    // myrest.db.replica.lag: seconds behind the primary per replica (last check);
+    // myrest.db.connections.routed: connections handed out per target (primary, replica-N).
+    // Nothing without replicas
+    @Bean
+    public MeterBinder replicaRoutingMetrics(ReplicaRouting replicaRouting) {
+        return registry -> {
+            if (replicaRouting.replicaNames().isEmpty()) {
+                return;
+            }
+            List<String> targets = new ArrayList<>(replicaRouting.replicaNames());
+            for (String replica : replicaRouting.replicaNames()) {
+                Gauge.builder("myrest.db.replica.lag", replicaRouting, routing -> routing.lagSeconds(replica))
+                        .tag("replica", replica).baseUnit("seconds")
+                        .description("Replication lag at the last check").register(registry);
+            }
+            targets.add(ReplicaRouting.PRIMARY);
+            for (String target : targets) {
+                FunctionCounter.builder("myrest.db.connections.routed", replicaRouting, routing -> routing.routedCount(target))
+                        .tag("target", target)
+                        .description("Connections handed to transactions").register(registry);
+            }
+        };
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment,
+                                         MeterRegistry registry, String poolName) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        if (poolName != null) {
+            pool.setPoolName(poolName);
+        }
+        if (registry != null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));   // hikaricp.connections.* per pool
+        }
+        return pool;
+    }
+}
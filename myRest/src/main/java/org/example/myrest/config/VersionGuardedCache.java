@@ -0,0 +1,43 @@
+package org.example.myrest.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+import java.util.function.ToLongFunction;
+
+// A Caffeine cache that only stores a loaded value if nothing changed while it was loading.
+// The version of a key (ResourceVersions) is read before the load and again before the put: a reader
+// that loaded rows from before a commit sees the counter moved and skips the put, and one that checked
+// just before the bump is cleared by the eviction that follows it (LineCacheInvalidator runs after
+// ResourceVersions). Used by @Cacheable(sync = true), which loads through get(key, valueLoader).
+// Null results are not stored, as with unless = "#result == null".
+class VersionGuardedCache extends CaffeineCache {
+
+    private final ToLongFunction<Object> version;
+
+    VersionGuardedCache(String name, Cache<Object, Object> cache, ToLongFunction<Object> version) {
+        super(name, cache, false);
+        this.version = version;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        long before = version.applyAsLong(key);
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value != null && version.applyAsLong(key) == before) {
+            put(key, value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.myrest.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheStatsController {
+
+    private final CacheManager cacheManager;
+
+    public CacheStatsController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    // GET /api/cache/stats - Hit/miss/eviction counters per cache
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, CacheStatistics>> getStats() {
+        Map<String, CacheStatistics> stats = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                CacheStats s = cache.getNativeCache().stats();
+                stats.put(name, new CacheStatistics(cache.getNativeCache().estimatedSize(), s.hitCount(),
+                        s.missCount(), s.hitRate(), s.evictionCount()));
+            }
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    // DTOs
+    public record CacheStatistics(long size, long hits, long misses, double hitRate, long evictions) {}
+}
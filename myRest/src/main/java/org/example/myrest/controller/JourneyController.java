@@ -0,0 +1,61 @@
+package org.example.myrest.controller;
+
+import org.example.myrest.service.JourneyPlanner;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+@RestController
+@RequestMapping("/api/journeys")
+public class JourneyController {
+
+    private final JourneyPlanner planner;
+
+    public JourneyController(JourneyPlanner planner) {
+        this.planner = planner;
+    }
+
+    // GET /api/journeys?from=A&to=B&departAfter=08:30 - Earliest-arrival trip, possibly over several lines
+    @GetMapping
+    public ResponseEntity<?> planJourney(@RequestParam String from,
+                                         @RequestParam String to,
+                                         @RequestParam(required = false) String departAfter) {
+        LocalTime after = departAfter == null ? LocalTime.now() : LocalTime.parse(departAfter);
+        return planner.plan(from, to, after)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(
+                        HttpStatus.NOT_FOUND.value(),
+                        "No journey found from '" + from + "' to '" + to + "' after " + after)));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleBadRequest(IllegalArgumentException ex) {
+        ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(DateTimeParseException.class)
+    public ResponseEntity<ErrorResponse> handleBadTime(DateTimeParseException ex) {
+        ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(),
+                "departAfter must be formatted as HH:mm");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    public static class ErrorResponse {
+        private int status;
+        private String message;
+
+        public ErrorResponse(int status, String message) {
+            this.status = status;
+            this.message = message;
+        }
+
+        public int getStatus() { return status; }
+        public void setStatus(int status) { this.status = status; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
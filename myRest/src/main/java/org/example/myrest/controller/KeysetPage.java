@@ -0,0 +1,14 @@
+package org.example.myrest.controller;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset-paginated listing; pass nextCursor back as `after` to get the next page
+public record KeysetPage<T>(List<T> items, Long nextCursor) {
+
+    // A short page means the listing is exhausted, so no cursor is handed out
+    public static <T> KeysetPage<T> of(List<T> items, int limit, Function<T, Long> idOf) {
+        Long nextCursor = items.size() < limit ? null : idOf.apply(items.get(items.size() - 1));
+        return new KeysetPage<>(items, nextCursor);
+    }
+}
@@ -1,12 +1,21 @@
 package org.example.myrest.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.myrest.model.Schedule;
+import org.example.myrest.service.ResourceVersions;
+import org.example.myrest.service.ScheduleImportService;
 import org.example.myrest.service.ScheduleService;
+import org.example.myrest.service.TimetableIndex;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -14,16 +23,41 @@ import java.util.List;
 public class ScheduleController {
 
     private final ScheduleService service;
+    private final ScheduleImportService importService;
+    private final ResourceVersions versions;
+    private final TimetableIndex timetableIndex;
+    private final ObjectMapper objectMapper;
 
-    public ScheduleController(ScheduleService service) {
+    public ScheduleController(ScheduleService service, ScheduleImportService importService,
+                              ResourceVersions versions, TimetableIndex timetableIndex, ObjectMapper objectMapper) {
         this.service = service;
+        this.importService = importService;
+        this.versions = versions;
+        this.timetableIndex = timetableIndex;
+        this.objectMapper = objectMapper;
     }
 
-    // GET /api/schedules - Get all schedules
+    // GET /api/schedules - Get all schedules, streamed as a JSON array straight from a DB cursor
+    // Listings answer If-None-Match with 304 before touching the database
     @GetMapping
-    public ResponseEntity<List<Schedule>> getAllSchedules() {
-        List<Schedule> schedules = service.getAllSchedules();
-        return ResponseEntity.ok(schedules);
+    public ResponseEntity<StreamingResponseBody> getAllSchedules(WebRequest request) {
+        if (request.checkNotModified(versions.collectionTag("schedules", "all"))) {
+            return null;
+        }
+        return JsonArrayStream.of(objectMapper, service::forEachSchedule);
+    }
+
+    // GET /api/schedules?limit=100&after=42 - One keyset page, ordered by id
+    @GetMapping(params = "limit")
+    public ResponseEntity<KeysetPage<Schedule>> getSchedulePage(
+            @RequestParam int limit,
+            @RequestParam(required = false) Long after,
+            WebRequest request) {
+        if (request.checkNotModified(versions.collectionTag("schedules", "page"))) {
+            return null;
+        }
+        List<Schedule> schedules = service.getSchedulePage(after, limit);
+        return ResponseEntity.ok(KeysetPage.of(schedules, limit, Schedule::getId));
     }
 
     // GET /api/schedules/{id} - Get schedule by ID
@@ -36,7 +70,10 @@ public class ScheduleController {
 
     // GET /api/schedules/line/{lineId} - Get schedules for specific line
     @GetMapping("/line/{lineId}")
-    public ResponseEntity<List<Schedule>> getSchedulesByLine(@PathVariable Long lineId) {
+    public ResponseEntity<List<Schedule>> getSchedulesByLine(@PathVariable Long lineId, WebRequest request) {
+        if (request.checkNotModified(versions.lineTag("line-schedules", lineId))) {
+            return null;
+        }
         List<Schedule> schedules = service.getSchedulesByLineId(lineId);
         return ResponseEntity.ok(schedules);
     }
@@ -49,6 +86,18 @@ public class ScheduleController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    // POST /api/schedules/import - Bulk import from a JSON array of ScheduleCreateRequest
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ScheduleImportService.ImportReport> importJson(InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importJson(body));
+    }
+
+    // POST /api/schedules/import - Bulk import from CSV: lineId,stationFrom,stationTo,departureTime,arrivalTime
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ScheduleImportService.ImportReport> importCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importCsv(body));
+    }
+
     // DELETE /api/schedules/{id} - Delete schedule
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteSchedule(@PathVariable Long id) {
@@ -120,13 +169,10 @@ public class ScheduleController {
         public void setMessage(String message) { this.message = message; }
     }
 
-//    @GetMapping("/{id}/availability")
-//    public ResponseEntity<ScheduleService.ScheduleAvailability> checkAvailability(@PathVariable Long id) {
-//        // Inject ScheduleService into TransportLineController constructor
-//        ScheduleService.ScheduleAvailability availability = service.checkLineAvailability(id);
-//        return ResponseEntity.ok(availability);
-//    }
-
-
-
+    // GET /api/schedules/{id}/availability - Line status and next departure (id is the line id)
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<ScheduleService.ScheduleAvailability> checkAvailability(@PathVariable Long id) {
+        ScheduleService.ScheduleAvailability availability = timetableIndex.availability(id);
+        return ResponseEntity.ok(availability);
+    }
 }
\ No newline at end of file
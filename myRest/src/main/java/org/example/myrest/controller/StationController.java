@@ -0,0 +1,68 @@
+package org.example.myrest.controller;
+
+import org.example.myrest.model.Schedule;
+import org.example.myrest.service.ScheduleService;
+import org.example.myrest.service.StationDirectory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stations")
+public class StationController {
+
+    private final StationDirectory directory;
+    private final ScheduleService scheduleService;
+
+    public StationController(StationDirectory directory, ScheduleService scheduleService) {
+        this.directory = directory;
+        this.scheduleService = scheduleService;
+    }
+
+    // GET /api/stations - Every station, alphabetically
+    // GET /api/stations?q=cart&limit=10 - Autocomplete: prefix matches first, then substring matches
+    @GetMapping
+    public ResponseEntity<List<StationDirectory.NameMatch>> getStations(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (q == null) {
+            return ResponseEntity.ok(directory.getAllStations());
+        }
+        return ResponseEntity.ok(directory.searchStations(q, limit));
+    }
+
+    // GET /api/stations/{id}/schedules - Departures and arrivals at a station
+    @GetMapping("/{id}/schedules")
+    public ResponseEntity<List<Schedule>> getSchedulesAtStation(@PathVariable Long id) {
+        return ResponseEntity.ok(scheduleService.getSchedulesAtStation(id));
+    }
+
+    @ExceptionHandler(ScheduleService.ResourceNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleNotFound(ScheduleService.ResourceNotFoundException ex) {
+        ErrorResponse error = new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleBadRequest(IllegalArgumentException ex) {
+        ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    public static class ErrorResponse {
+        private int status;
+        private String message;
+
+        public ErrorResponse(int status, String message) {
+            this.status = status;
+            this.message = message;
+        }
+
+        public int getStatus() { return status; }
+        public void setStatus(int status) { this.status = status; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
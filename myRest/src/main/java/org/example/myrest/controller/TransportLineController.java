@@ -1,12 +1,22 @@
 package org.example.myrest.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.myrest.model.LineSummary;
 import org.example.myrest.model.LineType;
 import org.example.myrest.model.TransportLine;
+import org.example.myrest.service.LineEventBroadcaster;
+import org.example.myrest.service.ResourceVersions;
+import org.example.myrest.service.StationDirectory;
 import org.example.myrest.service.TransportLineService;
 import jakarta.validation.Valid;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 
 @RestController
@@ -14,26 +24,97 @@ import java.util.List;
 public class TransportLineController {
 
     private final TransportLineService service;
+    private final ResourceVersions versions;
+    private final LineEventBroadcaster broadcaster;
+    private final StationDirectory directory;
+    private final ObjectMapper objectMapper;
 
-    public TransportLineController(TransportLineService service) {
+    public TransportLineController(TransportLineService service, ResourceVersions versions,
+                                   LineEventBroadcaster broadcaster, StationDirectory directory,
+                                   ObjectMapper objectMapper) {
         this.service = service;
+        this.versions = versions;
+        this.broadcaster = broadcaster;
+        this.directory = directory;
+        this.objectMapper = objectMapper;
     }
 
+    // Line summaries (schedule count, first/last departure) streamed as a JSON array from one
+    // aggregate query; ?expand=schedules streams full lines with schedules instead.
+    // Every GET below answers If-None-Match with 304 before touching the database.
     @GetMapping
-    public ResponseEntity<List<TransportLine>> getAllLines() {
-        List<TransportLine> lines = service.getAllLines();
-        return ResponseEntity.ok(lines);
+    public ResponseEntity<StreamingResponseBody> getAllLines(@RequestParam(required = false) String expand,
+                                                             WebRequest request) {
+        boolean expanded = expandSchedules(expand);
+        if (request.checkNotModified(versions.collectionTag("lines", expanded ? "expanded" : "summary"))) {
+            return null;
+        }
+        if (expanded) {
+            return JsonArrayStream.of(objectMapper, service::forEachLineWithSchedules);
+        }
+        return JsonArrayStream.of(objectMapper, service::forEachLineSummary);
+    }
+
+    // ?limit=100&after=42[&expand=schedules] - one keyset page, ordered by id
+    @GetMapping(params = "limit")
+    public ResponseEntity<KeysetPage<?>> getLinePage(
+            @RequestParam int limit,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String expand,
+            WebRequest request) {
+        boolean expanded = expandSchedules(expand);
+        if (request.checkNotModified(versions.collectionTag("lines", expanded ? "expanded-page" : "summary-page"))) {
+            return null;
+        }
+        if (expanded) {
+            List<TransportLine> lines = service.getLinePageWithSchedules(after, limit);
+            return ResponseEntity.ok(KeysetPage.of(lines, limit, TransportLine::getId));
+        }
+        List<LineSummary> summaries = service.getLineSummaryPage(after, limit);
+        return ResponseEntity.ok(KeysetPage.of(summaries, limit, LineSummary::id));
+    }
+
+    private static boolean expandSchedules(String expand) {
+        if (expand == null) {
+            return false;
+        }
+        if (!"schedules".equals(expand)) {
+            throw new IllegalArgumentException("Unsupported expand value '" + expand + "' (only 'schedules')");
+        }
+        return true;
+    }
+
+    // Server-Sent Events: "line" (created/updated/deleted, with status transitions) and "schedules"
+    // (a line's schedules changed) events; "resync" means updates were dropped and the client should reload.
+    // EventSource clients resume automatically through the Last-Event-ID header.
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return broadcaster.subscribe(lastEventId);
+    }
+
+    // GET /api/lines/search?q=exp&limit=10 - Name autocomplete: prefix matches first, then substring matches
+    @GetMapping("/search")
+    public ResponseEntity<List<StationDirectory.NameMatch>> searchLines(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(directory.searchLines(q, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<TransportLine> getLineById(@PathVariable Long id) {
+    public ResponseEntity<TransportLine> getLineById(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(versions.lineTag("line", id))) {
+            return null;
+        }
         return service.getLineById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/type/{type}")
-    public ResponseEntity<List<TransportLine>> getLinesByType(@PathVariable LineType type) {
+    public ResponseEntity<List<TransportLine>> getLinesByType(@PathVariable LineType type, WebRequest request) {
+        if (request.checkNotModified(versions.collectionTag("lines", "type-" + type))) {
+            return null;
+        }
         List<TransportLine> lines = service.getLinesByType(type);
         return ResponseEntity.ok(lines);
     }
@@ -64,6 +145,13 @@ public class TransportLineController {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    // Raised when the version sent with an update no longer matches the stored one
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleConflict(OptimisticLockingFailureException ex) {
+        ErrorResponse error = new ErrorResponse(HttpStatus.CONFLICT.value(), ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleBadRequest(IllegalArgumentException ex) {
         ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage());
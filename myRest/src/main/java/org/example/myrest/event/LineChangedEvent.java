@@ -0,0 +1,34 @@
+package org.example.myrest.event;
+
+import org.example.myrest.model.LineStatus;
+import org.example.myrest.model.LineType;
+import org.example.myrest.model.TransportLine;
+
+// Published by TransportLineService once a line is written; listeners run after commit.
+// For updates the previous type and status are carried along so listeners can tell what moved.
+public record LineChangedEvent(ChangeType type, Long lineId, String name,
+                               LineType lineType, LineStatus lineStatus,
+                               LineType previousLineType, LineStatus previousLineStatus) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static LineChangedEvent created(TransportLine line) {
+        return new LineChangedEvent(ChangeType.CREATED, line.getId(), line.getName(),
+                line.getLineType(), line.getLineStatus(), null, null);
+    }
+
+    public static LineChangedEvent updated(TransportLine line, LineType previousLineType,
+                                           LineStatus previousLineStatus) {
+        return new LineChangedEvent(ChangeType.UPDATED, line.getId(), line.getName(),
+                line.getLineType(), line.getLineStatus(), previousLineType, previousLineStatus);
+    }
+
+    public static LineChangedEvent deleted(TransportLine line) {
+        return new LineChangedEvent(ChangeType.DELETED, line.getId(), line.getName(),
+                line.getLineType(), line.getLineStatus(), null, null);
+    }
+}
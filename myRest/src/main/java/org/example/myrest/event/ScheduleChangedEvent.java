@@ -0,0 +1,30 @@
+package org.example.myrest.event;
+
+import org.example.myrest.model.Schedule;
+
+import java.time.LocalTime;
+
+// Published by ScheduleService once a schedule row is written; listeners run after commit
+public record ScheduleChangedEvent(ChangeType type, Long scheduleId, Long lineId,
+                                   String stationFrom, String stationTo,
+                                   LocalTime departureTime, LocalTime arrivalTime) {
+
+    public enum ChangeType {
+        CREATED,
+        DELETED
+    }
+
+    public static ScheduleChangedEvent created(Schedule schedule) {
+        return of(ChangeType.CREATED, schedule);
+    }
+
+    public static ScheduleChangedEvent deleted(Schedule schedule) {
+        return of(ChangeType.DELETED, schedule);
+    }
+
+    private static ScheduleChangedEvent of(ChangeType type, Schedule schedule) {
+        return new ScheduleChangedEvent(type, schedule.getId(), schedule.getTransportLine().getId(),
+                schedule.getStationFrom(), schedule.getStationTo(),
+                schedule.getDepartureTime(), schedule.getArrivalTime());
+    }
+}
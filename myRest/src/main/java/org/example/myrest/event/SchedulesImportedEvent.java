@@ -0,0 +1,7 @@
+package org.example.myrest.event;
+
+import java.util.Set;
+
+// Published once a bulk import has finished; rows are written with plain JDBC, so listeners
+// only learn which lines gained schedules and must reload them
+public record SchedulesImportedEvent(Set<Long> lineIds, long importedCount) {}
@@ -0,0 +1,7 @@
+package org.example.myrest.model;
+
+import java.time.LocalTime;
+
+// Read-only view of a line built by an aggregate query; never touches TransportLine.schedules
+public record LineSummary(Long id, String name, LineType lineType, LineStatus lineStatus, String description,
+                          long scheduleCount, LocalTime firstDeparture, LocalTime lastDeparture) {}
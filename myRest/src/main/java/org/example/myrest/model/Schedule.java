@@ -1,10 +1,14 @@
 package org.example.myrest.model;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "schedule")
+@Table(name = "schedule", indexes = {
+        @Index(name = "idx_schedule_station_from_id", columnList = "station_from_id"),
+        @Index(name = "idx_schedule_station_to_id", columnList = "station_to_id")
+})
 public class Schedule {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,12 +25,27 @@ public class Schedule {
     @Column(name = "station_to", nullable = false)
     private String stationTo;
 
+    // Dictionary references for stationFrom/stationTo, used for indexed "schedules at station" lookups
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
+    @JoinColumn(name = "station_from_id")
+    private Station fromStation;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
+    @JoinColumn(name = "station_to_id")
+    private Station toStation;
+
     @Column(name = "departure_time", nullable = false)
     private LocalTime departureTime;
 
     @Column(name = "arrival_time", nullable = false)
     private LocalTime arrivalTime;
 
+    @Version
+    @Column(columnDefinition = "bigint default 0")  // Default also covers rows written by the bulk import
+    private Long version;
+
     // Constructors
     public Schedule() {}
 
@@ -54,9 +73,18 @@ public class Schedule {
     public String getStationTo() { return stationTo; }
     public void setStationTo(String stationTo) { this.stationTo = stationTo; }
 
+    public Station getFromStation() { return fromStation; }
+    public void setFromStation(Station fromStation) { this.fromStation = fromStation; }
+
+    public Station getToStation() { return toStation; }
+    public void setToStation(Station toStation) { this.toStation = toStation; }
+
     public LocalTime getDepartureTime() { return departureTime; }
     public void setDepartureTime(LocalTime departureTime) { this.departureTime = departureTime; }
 
     public LocalTime getArrivalTime() { return arrivalTime; }
     public void setArrivalTime(LocalTime arrivalTime) { this.arrivalTime = arrivalTime; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
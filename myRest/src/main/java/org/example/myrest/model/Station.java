@@ -0,0 +1,30 @@
+package org.example.myrest.model;
+
+import jakarta.persistence.*;
+
+// Station dictionary: each distinct station name is stored once and referenced by id from schedules
+@Entity
+@Table(name = "station")
+public class Station {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    // Constructors
+    public Station() {}
+
+    public Station(String name) {
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+}
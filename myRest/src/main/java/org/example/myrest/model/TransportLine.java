@@ -27,7 +27,12 @@ public class TransportLine {
     @Column(columnDefinition = "TEXT")  // For longer text
     private String description;
 
+    @Version
+    @Column(columnDefinition = "bigint default 0")  // Default fills rows that predate the column
+    private Long version;
+
     @JsonManagedReference
+    @OrderBy("id")  // Stable order so identical data always serializes identically (ETags)
     @OneToMany(mappedBy = "transportLine", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private List<Schedule> schedules = new ArrayList<>();  // Lowercase and initialized
 
@@ -68,6 +73,9 @@ public class TransportLine {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public List<Schedule> getSchedules() { return schedules; }
     public void setSchedules(List<Schedule> schedules) {  // Use List, not ArrayList
         this.schedules = schedules;
@@ -1,14 +1,20 @@
 package org.example.myrest.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.myrest.model.Schedule;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
@@ -16,16 +22,31 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
     // Find all schedules for a specific transport line
     List<Schedule> findByTransportLineId(Long lineId);
 
+    // Same, in a stable order for API responses
+    List<Schedule> findByTransportLineIdOrderByIdAsc(Long lineId);
+
     // Find schedules departing after a specific time for a line
     List<Schedule> findByTransportLineIdAndDepartureTimeAfterOrderByDepartureTimeAsc(
             Long lineId, LocalTime time);
 
-    // Find next departure for a line
+    // Find next departure for a line (one probe of idx_schedule_line_departure)
     @Query("SELECT s FROM Schedule s WHERE s.transportLine.id = :lineId " +
-            "AND s.departureTime > :currentTime ORDER BY s.departureTime ASC")
+            "AND s.departureTime > :currentTime ORDER BY s.departureTime ASC LIMIT 1")
     Optional<Schedule> findNextDeparture(@Param("lineId") Long lineId,
                                          @Param("currentTime") LocalTime currentTime);
 
     // Optional: Find schedules by station
     List<Schedule> findByStationFromOrStationTo(String stationFrom, String stationTo);
+
+    // Schedules touching a station through the dictionary foreign keys
+    @Query("SELECT s FROM Schedule s WHERE s.fromStation.id = :stationId OR s.toStation.id = :stationId " +
+            "ORDER BY s.departureTime ASC, s.id ASC")
+    List<Schedule> findByStationIdOrderByDepartureTime(@Param("stationId") Long stationId);
+
+    // Keyset page: the next `limit` schedules with an id greater than the cursor
+    List<Schedule> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Cursor-backed scan for streaming; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<Schedule> streamAllByOrderByIdAsc();
 }
\ No newline at end of file
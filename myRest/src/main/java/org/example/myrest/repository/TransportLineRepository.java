@@ -1,16 +1,61 @@
 package org.example.myrest.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.myrest.model.LineSummary;
 import org.example.myrest.model.LineType;
 import org.example.myrest.model.TransportLine;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface TransportLineRepository  extends JpaRepository<TransportLine, Long> {
     List<TransportLine> findByLineType(LineType lineType);
     List<TransportLine> findByNameContainingIgnoreCase(String name);
     boolean existsByName(String name);
+
+    // Same lookups with schedules fetched in the same query, for results that outlive the session
+    @EntityGraph(attributePaths = "schedules")
+    Optional<TransportLine> findWithSchedulesById(Long id);
+
+    @EntityGraph(attributePaths = "schedules")
+    List<TransportLine> findWithSchedulesByLineType(LineType lineType);
+
+    // Which of the given ids exist, in a single query (used to validate bulk imports)
+    @Query("SELECT l.id FROM TransportLine l WHERE l.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    String SUMMARY_SELECT = "SELECT new org.example.myrest.model.LineSummary(l.id, l.name, l.lineType, " +
+            "l.lineStatus, l.description, COUNT(s.id), MIN(s.departureTime), MAX(s.departureTime)) " +
+            "FROM TransportLine l LEFT JOIN l.schedules s ";
+    String SUMMARY_GROUP_BY = " GROUP BY l.id, l.name, l.lineType, l.lineStatus, l.description ORDER BY l.id";
+
+    // All line summaries in one aggregate query, read through a cursor; consume inside a transaction and close
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + SUMMARY_GROUP_BY)
+    Stream<LineSummary> streamSummaries();
+
+    // Keyset page of summaries: the next `limit` lines with an id greater than the cursor
+    @Query(SUMMARY_SELECT + "WHERE l.id > :afterId" + SUMMARY_GROUP_BY)
+    List<LineSummary> findSummaryPage(@Param("afterId") Long afterId, Limit limit);
+
+    // Keyset page of ids only; pair with findWithSchedulesByIdIn to page full lines without in-memory paging
+    @Query("SELECT l.id FROM TransportLine l WHERE l.id > :afterId ORDER BY l.id")
+    List<Long> findIdPage(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT DISTINCT l FROM TransportLine l LEFT JOIN FETCH l.schedules WHERE l.id IN :ids ORDER BY l.id")
+    List<TransportLine> findWithSchedulesByIdIn(@Param("ids") Collection<Long> ids);
 }
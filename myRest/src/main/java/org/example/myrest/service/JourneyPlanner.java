@@ -0,0 +1,295 @@
+package org.example.myrest.service;
+
+import org.example.myrest.event.LineChangedEvent;
+import org.example.myrest.event.ScheduleChangedEvent;
+import org.example.myrest.event.SchedulesImportedEvent;
+import org.example.myrest.model.Schedule;
+import org.example.myrest.repository.ScheduleRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Earliest-arrival journey planner using the Connection Scan Algorithm.
+ * Every schedule row is one connection; connections live in parallel primitive arrays sorted
+ * by departure time, with station names interned to int ids. A query is a single forward scan
+ * starting at the first connection departing at or after the requested time.
+ * The table is immutable and replaced copy-on-write when schedules change.
+ */
+@Component
+public class JourneyPlanner implements SmartInitializingSingleton {
+
+    private final ScheduleRepository scheduleRepository;
+    private final TimetableIndex timetableIndex;
+    private final TransactionTemplate readOnlyTx;
+
+    // Station dictionary; ids are never reused, so a snapshot can always resolve its ids
+    private final Map<String, Integer> stationIds = new ConcurrentHashMap<>();
+    private final Map<String, Integer> stationIdsByLowerName = new ConcurrentHashMap<>();
+    private final List<String> stationNames = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile ConnectionTable table = ConnectionTable.EMPTY;
+
+    public JourneyPlanner(ScheduleRepository scheduleRepository,
+                          TimetableIndex timetableIndex,
+                          PlatformTransactionManager transactionManager) {
+        this.scheduleRepository = scheduleRepository;
+        this.timetableIndex = timetableIndex;
+        // Same settings as TimetableIndex's: one snapshot, a transaction of its own
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        readOnlyTx.executeWithoutResult(status -> rebuild());
+    }
+
+    public synchronized void rebuild() {
+        List<Schedule> schedules = scheduleRepository.findAll();
+        schedules.sort((a, b) -> a.getDepartureTime().compareTo(b.getDepartureTime()));
+
+        int n = schedules.size();
+        ConnectionTable fresh = new ConnectionTable(new int[n], new int[n], new int[n], new int[n],
+                new long[n], new long[n]);
+        for (int i = 0; i < n; i++) {
+            Schedule schedule = schedules.get(i);
+            fresh.set(i, intern(schedule.getStationFrom()), intern(schedule.getStationTo()),
+                    schedule.getDepartureTime().toSecondOfDay(), schedule.getArrivalTime().toSecondOfDay(),
+                    schedule.getId(), schedule.getTransportLine().getId());
+        }
+        table = fresh;
+    }
+
+    /**
+     * Earliest arrival at {@code to} when leaving {@code from} no earlier than {@code departAfter}.
+     * Station names are matched case-insensitively. Journeys do not continue past midnight.
+     */
+    public Optional<Journey> plan(String from, String to, LocalTime departAfter) {
+        int source = stationId(from);
+        int target = stationId(to);
+        if (source == target) {
+            throw new IllegalArgumentException("Origin and destination are the same station");
+        }
+
+        ConnectionTable connections = table;
+        int stations = stationNames.size();
+        int[] earliest = new int[stations];
+        int[] inConnection = new int[stations];
+        Arrays.fill(earliest, Integer.MAX_VALUE);
+        Arrays.fill(inConnection, -1);
+        earliest[source] = departAfter.toSecondOfDay();
+
+        for (int c = connections.firstDepartingAt(earliest[source]); c < connections.size(); c++) {
+            int departure = connections.departures[c];
+            if (departure >= earliest[target]) {
+                break;  // Connections are sorted: nothing later can improve the arrival
+            }
+            if (earliest[connections.fromStations[c]] <= departure
+                    && connections.arrivals[c] < earliest[connections.toStations[c]]) {
+                earliest[connections.toStations[c]] = connections.arrivals[c];
+                inConnection[connections.toStations[c]] = c;
+            }
+        }
+
+        if (inConnection[target] < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(toJourney(connections, inConnection, source, target));
+    }
+
+    private Journey toJourney(ConnectionTable connections, int[] inConnection, int source, int target) {
+        List<Leg> legs = new ArrayList<>();
+        for (int station = target; station != source; ) {
+            int c = inConnection[station];
+            long lineId = connections.lineIds[c];
+            legs.add(new Leg(connections.scheduleIds[c], lineId,
+                    timetableIndex.getLine(lineId).map(TimetableIndex.LineTimetable::getLineName).orElse(null),
+                    stationNames.get(connections.fromStations[c]), stationNames.get(connections.toStations[c]),
+                    LocalTime.ofSecondOfDay(connections.departures[c]),
+                    LocalTime.ofSecondOfDay(connections.arrivals[c])));
+            station = connections.fromStations[c];
+        }
+        Collections.reverse(legs);
+
+        int transfers = 0;
+        for (int i = 1; i < legs.size(); i++) {
+            if (legs.get(i).lineId() != legs.get(i - 1).lineId()) {
+                transfers++;
+            }
+        }
+        return new Journey(legs.get(0).stationFrom(), legs.get(legs.size() - 1).stationTo(),
+                legs.get(0).departureTime(), legs.get(legs.size() - 1).arrivalTime(), transfers, legs);
+    }
+
+    private int stationId(String name) {
+        Integer id = name == null ? null : stationIdsByLowerName.get(name.trim().toLowerCase(Locale.ROOT));
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown station: " + name);
+        }
+        return id;
+    }
+
+    private synchronized int intern(String name) {
+        Integer id = stationIds.get(name);
+        if (id == null) {
+            id = stationNames.size();
+            stationNames.add(name);
+            stationIds.put(name, id);
+            stationIdsByLowerName.putIfAbsent(name.toLowerCase(Locale.ROOT), id);
+        }
+        return id;
+    }
+
+    @TransactionalEventListener
+    public synchronized void onScheduleChanged(ScheduleChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> table = table.with(intern(event.stationFrom()), intern(event.stationTo()),
+                    event.departureTime().toSecondOfDay(), event.arrivalTime().toSecondOfDay(),
+                    event.scheduleId(), event.lineId());
+            case DELETED -> table = table.without(event.scheduleId());
+        }
+    }
+
+    // Deleting a line cascades to its schedules
+    @TransactionalEventListener
+    public synchronized void onLineChanged(LineChangedEvent event) {
+        if (event.type() == LineChangedEvent.ChangeType.DELETED) {
+            table = table.withoutLine(event.lineId());
+        }
+    }
+
+    // Imports can touch any number of rows, so the table is rebuilt in one pass, in a read-only
+    // transaction like at startup (the event comes after the import's last commit, outside any)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchedulesImported(SchedulesImportedEvent event) {
+        readOnlyTx.executeWithoutResult(status -> rebuild());
+    }
+
+    // Parallel arrays ordered by departure time (seconds of day)
+    static final class ConnectionTable {
+        static final ConnectionTable EMPTY = new ConnectionTable(new int[0], new int[0], new int[0], new int[0],
+                new long[0], new long[0]);
+
+        final int[] fromStations;
+        final int[] toStations;
+        final int[] departures;
+        final int[] arrivals;
+        final long[] scheduleIds;
+        final long[] lineIds;
+
+        ConnectionTable(int[] fromStations, int[] toStations, int[] departures, int[] arrivals,
+                        long[] scheduleIds, long[] lineIds) {
+            this.fromStations = fromStations;
+            this.toStations = toStations;
+            this.departures = departures;
+            this.arrivals = arrivals;
+            this.scheduleIds = scheduleIds;
+            this.lineIds = lineIds;
+        }
+
+        int size() { return departures.length; }
+
+        private void set(int i, int from, int to, int departure, int arrival, long scheduleId, long lineId) {
+            fromStations[i] = from;
+            toStations[i] = to;
+            departures[i] = departure;
+            arrivals[i] = arrival;
+            scheduleIds[i] = scheduleId;
+            lineIds[i] = lineId;
+        }
+
+        // Binary search for the first connection departing at or after the given second of day
+        int firstDepartingAt(int seconds) {
+            int low = 0;
+            int high = departures.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (departures[mid] < seconds) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        ConnectionTable with(int from, int to, int departure, int arrival, long scheduleId, long lineId) {
+            int n = size();
+            int pos = firstDepartingAt(departure + 1);
+            ConnectionTable result = allocate(n + 1);
+            copy(this, 0, result, 0, pos);
+            copy(this, pos, result, pos + 1, n - pos);
+            result.set(pos, from, to, departure, arrival, scheduleId, lineId);
+            return result;
+        }
+
+        ConnectionTable without(long scheduleId) {
+            for (int i = 0; i < scheduleIds.length; i++) {
+                if (scheduleIds[i] == scheduleId) {
+                    int n = size();
+                    ConnectionTable result = allocate(n - 1);
+                    copy(this, 0, result, 0, i);
+                    copy(this, i + 1, result, i, n - i - 1);
+                    return result;
+                }
+            }
+            return this;
+        }
+
+        ConnectionTable withoutLine(long lineId) {
+            int kept = 0;
+            for (long id : lineIds) {
+                if (id != lineId) {
+                    kept++;
+                }
+            }
+            if (kept == size()) {
+                return this;
+            }
+            ConnectionTable result = allocate(kept);
+            int j = 0;
+            for (int i = 0; i < size(); i++) {
+                if (lineIds[i] != lineId) {
+                    copy(this, i, result, j++, 1);
+                }
+            }
+            return result;
+        }
+
+        private static ConnectionTable allocate(int n) {
+            return new ConnectionTable(new int[n], new int[n], new int[n], new int[n], new long[n], new long[n]);
+        }
+
+        private static void copy(ConnectionTable src, int srcPos, ConnectionTable dst, int dstPos, int length) {
+            System.arraycopy(src.fromStations, srcPos, dst.fromStations, dstPos, length);
+            System.arraycopy(src.toStations, srcPos, dst.toStations, dstPos, length);
+            System.arraycopy(src.departures, srcPos, dst.departures, dstPos, length);
+            System.arraycopy(src.arrivals, srcPos, dst.arrivals, dstPos, length);
+            System.arraycopy(src.scheduleIds, srcPos, dst.scheduleIds, dstPos, length);
+            System.arraycopy(src.lineIds, srcPos, dst.lineIds, dstPos, length);
+        }
+    }
+
+    // DTOs
+    public record Journey(String from, String to, LocalTime departureTime, LocalTime arrivalTime,
+                          int transfers, List<Leg> legs) {}
+
+    public record Leg(long scheduleId, long lineId, String lineName, String stationFrom, String stationTo,
+                      LocalTime departureTime, LocalTime arrivalTime) {}
+}
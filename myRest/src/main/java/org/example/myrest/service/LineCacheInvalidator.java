@@ -0,0 +1,62 @@
+package org.example.myrest.service;
+
+import org.example.myrest.event.LineChangedEvent;
+import org.example.myrest.event.ScheduleChangedEvent;
+import org.example.myrest.event.SchedulesImportedEvent;
+import org.example.myrest.model.LineType;
+import org.example.myrest.model.TransportLine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts exactly the cache entries a change affects, after commit. Eviction alone does not keep
+ * out stale data: a reader that loaded rows before the commit may put them back after this runs.
+ * The caches skip such puts (VersionGuardedCache): the ResourceVersions counters, bumped just
+ * before these listeners, show the change happened during the load.
+ * Cached lines embed their schedules, so schedule changes evict the owning line as well.
+ */
+@Component
+public class LineCacheInvalidator {
+
+    private final Cache lines;
+    private final Cache linesByType;
+
+    public LineCacheInvalidator(CacheManager cacheManager) {
+        this.lines = cacheManager.getCache(TransportLineService.LINES_CACHE);
+        this.linesByType = cacheManager.getCache(TransportLineService.LINES_BY_TYPE_CACHE);
+    }
+
+    @TransactionalEventListener
+    public void onLineChanged(LineChangedEvent event) {
+        lines.evict(event.lineId());
+        linesByType.evict(event.lineType());
+        if (event.previousLineType() != null && event.previousLineType() != event.lineType()) {
+            linesByType.evict(event.previousLineType());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        evictLine(event.lineId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchedulesImported(SchedulesImportedEvent event) {
+        event.lineIds().forEach(this::evictLine);
+    }
+
+    // The by-type entry holding the line is known only if the line itself is cached
+    private void evictLine(Long lineId) {
+        TransportLine cached = lines.get(lineId, TransportLine.class);
+        lines.evict(lineId);
+        if (cached != null) {
+            linesByType.evict(cached.getLineType());
+        } else {
+            for (LineType type : LineType.values()) {
+                linesByType.evict(type);
+            }
+        }
+    }
+}
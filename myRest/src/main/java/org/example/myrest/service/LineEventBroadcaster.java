@@ -0,0 +1,300 @@
+package org.example.myrest.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.annotation.PreDestroy;
+import org.example.myrest.event.LineChangedEvent;
+import org.example.myrest.event.ScheduleChangedEvent;
+import org.example.myrest.event.SchedulesImportedEvent;
+import org.example.myrest.model.LineStatus;
+import org.example.myrest.model.LineType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans out line and schedule changes to Server-Sent Events subscribers.
+ * <p>
+ * Every subscriber has a bounded buffer drained by a virtual thread of its own, so a client whose
+ * connection stalls blocks only its own sends, never the publisher or other clients. When a newer
+ * update for the same line (or, for schedule changes, the same schedule) arrives before the older
+ * one is sent, it replaces it (coalescing); if the buffer is still full the
+ * oldest update is dropped and the client is told to {@code resync}. The last updates are kept
+ * in a history ring so a reconnecting client can resume from its {@code Last-Event-ID}.
+ */
+@Component
+public class LineEventBroadcaster {
+
+    public static final String LINE_EVENT = "line";
+    public static final String SCHEDULES_EVENT = "schedules";
+    public static final String RESYNC_EVENT = "resync";
+
+    private static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    // Event ids are "<epoch>:<sequence>" so ids from a previous process are recognised as unknown
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36)
+            + Integer.toString(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE), 36);
+
+    private final int bufferSize;
+    private final int historySize;
+    private final ArrayDeque<LineUpdate> history = new ArrayDeque<>();
+    private long sequence;
+
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    // A thread per draining subscriber: a blocked write parks only that subscriber's thread
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("sse-sender-", 0).factory());
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("sse-heartbeat"));
+
+    public LineEventBroadcaster(@Value("${myrest.sse.buffer-size:256}") int bufferSize,
+                                @Value("${myrest.sse.history-size:1024}") int historySize) {
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // Replay and registration happen under the history lock so no update falls in between
+        synchronized (history) {
+            if (lastEventId != null) {
+                List<LineUpdate> missed = missedSince(lastEventId);
+                if (missed == null) {
+                    subscriber.resync();
+                } else {
+                    missed.forEach(subscriber::offer);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener
+    public void onLineChanged(LineChangedEvent event) {
+        publish(LINE_EVENT, new LineUpdate(null, event.type().name(), event.lineId(), event.name(),
+                event.lineType(), event.lineStatus(), event.previousLineStatus(), null, Instant.now()));
+    }
+
+    @TransactionalEventListener
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        publish(SCHEDULES_EVENT, new LineUpdate(null, event.type().name(), event.lineId(), null,
+                null, null, null, event.scheduleId(), Instant.now()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchedulesImported(SchedulesImportedEvent event) {
+        for (Long lineId : event.lineIds()) {
+            publish(SCHEDULES_EVENT, new LineUpdate(null, "IMPORTED", lineId, null,
+                    null, null, null, null, Instant.now()));
+        }
+    }
+
+    private void publish(String eventName, LineUpdate payload) {
+        synchronized (history) {
+            LineUpdate update = payload.withId(epoch + ":" + (++sequence), eventName);
+            history.addLast(update);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(update);
+            }
+        }
+    }
+
+    // Updates after the given id, or null when the id is unknown or already out of the history
+    private List<LineUpdate> missedSince(String lastEventId) {
+        int separator = lastEventId.lastIndexOf(':');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long oldest = sequence - history.size() + 1;
+        if (last > sequence || last < oldest - 1) {
+            return null;
+        }
+        List<LineUpdate> missed = new ArrayList<>();
+        long seq = oldest;
+        for (LineUpdate update : history) {
+            if (seq++ > last) {
+                missed.add(update);
+            }
+        }
+        return missed;
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final ArrayDeque<LineUpdate> buffer = new ArrayDeque<>();
+        private boolean resyncPending;
+        private boolean heartbeatPending;
+        private boolean draining;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(LineUpdate update) {
+            if (!coalesce(update)) {
+                if (buffer.size() >= bufferSize) {
+                    buffer.removeFirst();
+                    resyncPending = true;
+                }
+                buffer.addLast(update);
+            }
+            scheduleDrain();
+        }
+
+        synchronized void resync() {
+            resyncPending = true;
+            scheduleDrain();
+        }
+
+        synchronized void heartbeat() {
+            heartbeatPending = true;
+            scheduleDrain();
+        }
+
+        // A newer update of the same kind for the same line (and schedule) supersedes a queued one;
+        // changes to different schedules of a line are all kept
+        private boolean coalesce(LineUpdate update) {
+            for (Iterator<LineUpdate> it = buffer.iterator(); it.hasNext(); ) {
+                LineUpdate queued = it.next();
+                if (queued.event().equals(update.event()) && queued.lineId().equals(update.lineId())
+                        && Objects.equals(queued.scheduleId(), update.scheduleId())) {
+                    it.remove();
+                    buffer.addLast(update.coalescedWith(queued));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void scheduleDrain() {
+            if (!draining) {
+                draining = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                List<LineUpdate> batch;
+                boolean sendResync;
+                boolean sendHeartbeat;
+                synchronized (this) {
+                    if (buffer.isEmpty() && !resyncPending && !heartbeatPending) {
+                        draining = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(buffer);
+                    buffer.clear();
+                    sendResync = resyncPending;
+                    sendHeartbeat = heartbeatPending;
+                    resyncPending = false;
+                    heartbeatPending = false;
+                }
+                try {
+                    if (sendResync) {
+                        emitter.send(SseEmitter.event().name(RESYNC_EVENT)
+                                .data("Updates were dropped; reload /api/lines"));
+                    }
+                    for (LineUpdate update : batch) {
+                        emitter.send(SseEmitter.event().id(update.id()).name(update.event())
+                                .data(update, MediaType.APPLICATION_JSON));
+                    }
+                    if (sendHeartbeat && batch.isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(this);
+                    emitter.completeWithError(e);
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    // DTOs
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record LineUpdate(String id, String change, Long lineId, String name, LineType lineType,
+                             LineStatus lineStatus, LineStatus previousLineStatus, Long scheduleId,
+                             Instant at, @JsonIgnore String event, Integer coalesced) {
+
+        LineUpdate(String id, String change, Long lineId, String name, LineType lineType, LineStatus lineStatus,
+                   LineStatus previousLineStatus, Long scheduleId, Instant at) {
+            this(id, change, lineId, name, lineType, lineStatus, previousLineStatus, scheduleId, at, null, null);
+        }
+
+        LineUpdate withId(String id, String event) {
+            return new LineUpdate(id, change, lineId, name, lineType, lineStatus, previousLineStatus,
+                    scheduleId, at, event, null);
+        }
+
+        // Keeps the newest state but the oldest previous status, so the client still sees the transition
+        LineUpdate coalescedWith(LineUpdate older) {
+            LineStatus previous = older.previousLineStatus() != null ? older.previousLineStatus() : previousLineStatus;
+            int count = (older.coalesced() == null ? 1 : older.coalesced()) + 1;
+            return new LineUpdate(id, change, lineId, name, lineType, lineStatus, previous,
+                    scheduleId, at, event, count);
+        }
+    }
+}
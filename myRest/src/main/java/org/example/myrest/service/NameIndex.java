@@ -0,0 +1,123 @@
+package org.example.myrest.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable search index over (id, name) pairs.
+ * Names are kept lower-cased in a sorted array, so a prefix lookup is a binary search followed by
+ * a scan of the matches. Substring lookups use a trigram index: the candidates come from the
+ * shortest posting list among the query's trigrams and are then checked with a plain contains.
+ */
+final class NameIndex {
+
+    static final NameIndex EMPTY = build(Map.of());
+
+    private final long[] ids;
+    private final String[] names;
+    private final String[] normalized;  // Sorted ascending
+    private final Map<String, int[]> trigrams;
+
+    private NameIndex(long[] ids, String[] names, String[] normalized, Map<String, int[]> trigrams) {
+        this.ids = ids;
+        this.names = names;
+        this.normalized = normalized;
+        this.trigrams = trigrams;
+    }
+
+    static NameIndex build(Map<Long, String> entries) {
+        List<Map.Entry<Long, String>> sorted = new ArrayList<>(entries.entrySet());
+        sorted.sort(Map.Entry.comparingByValue((a, b) -> normalize(a).compareTo(normalize(b))));
+
+        int n = sorted.size();
+        long[] ids = new long[n];
+        String[] names = new String[n];
+        String[] normalized = new String[n];
+        Map<String, List<Integer>> postings = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            ids[i] = sorted.get(i).getKey();
+            names[i] = sorted.get(i).getValue();
+            normalized[i] = normalize(names[i]);
+            for (String trigram : trigramsOf(normalized[i])) {
+                postings.computeIfAbsent(trigram, t -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<String, int[]> trigrams = new HashMap<>(postings.size() * 2);
+        postings.forEach((trigram, list) -> trigrams.put(trigram, list.stream().mapToInt(Integer::intValue).toArray()));
+        return new NameIndex(ids, names, normalized, trigrams);
+    }
+
+    /**
+     * Prefix matches first (alphabetical), then, for queries of three characters or more,
+     * names that contain the query elsewhere.
+     */
+    List<StationDirectory.NameMatch> search(String query, int limit) {
+        String q = normalize(query);
+        Set<Integer> hits = new LinkedHashSet<>();
+        for (int i = lowerBound(q); i < normalized.length && hits.size() < limit && normalized[i].startsWith(q); i++) {
+            hits.add(i);
+        }
+        if (hits.size() < limit && q.length() >= 3) {
+            int[] candidates = null;
+            for (String trigram : trigramsOf(q)) {
+                int[] posting = trigrams.get(trigram);
+                if (posting == null) {
+                    candidates = new int[0];
+                    break;
+                }
+                if (candidates == null || posting.length < candidates.length) {
+                    candidates = posting;
+                }
+            }
+            for (int i = 0; candidates != null && i < candidates.length && hits.size() < limit; i++) {
+                if (normalized[candidates[i]].contains(q)) {
+                    hits.add(candidates[i]);
+                }
+            }
+        }
+
+        List<StationDirectory.NameMatch> matches = new ArrayList<>(hits.size());
+        for (int i : hits) {
+            matches.add(new StationDirectory.NameMatch(ids[i], names[i]));
+        }
+        return matches;
+    }
+
+    List<StationDirectory.NameMatch> all() {
+        List<StationDirectory.NameMatch> matches = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            matches.add(new StationDirectory.NameMatch(ids[i], names[i]));
+        }
+        return matches;
+    }
+
+    private int lowerBound(String q) {
+        int pos = Arrays.binarySearch(normalized, q);
+        if (pos >= 0) {
+            while (pos > 0 && normalized[pos - 1].equals(q)) {
+                pos--;
+            }
+            return pos;
+        }
+        return -pos - 1;
+    }
+
+    static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigramsOf(String s) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            result.add(s.substring(i, i + 3));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.myrest.service;
+
+import org.example.myrest.event.LineChangedEvent;
+import org.example.myrest.event.ScheduleChangedEvent;
+import org.example.myrest.event.SchedulesImportedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory change counters used to build ETags for line and schedule resources without
+ * querying or serializing them. Counters are bumped after commit by the change events:
+ * a global one for collection-wide listings and one per line for that line and its schedules.
+ * Each tag embeds a per-process epoch, so tags never survive a restart; counters only see writes
+ * made through this instance, which matches the single-instance deployment.
+ * The same counters guard the line caches (VersionGuardedCache), so they are bumped before the
+ * other after-commit listeners run, LineCacheInvalidator's evictions included.
+ */
+@Component
+public class ResourceVersions {
+
+    // After ReplicaRouting's write marker (highest precedence), before every unordered listener
+    static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 1;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36)
+            + Integer.toString(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE), 36);
+
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final Map<Long, AtomicLong> lineVersions = new ConcurrentHashMap<>();
+
+    // Any line or schedule change; the variant distinguishes representations of the same URL family
+    public String collectionTag(String resource, String variant) {
+        return "\"" + resource + "-" + epoch + "-" + globalVersion.get() + "-" + variant + "\"";
+    }
+
+    // Changes to one line or to any of its schedules
+    public String lineTag(String resource, Long lineId) {
+        return "\"" + resource + "-" + lineId + "-" + epoch + "-" + lineVersion(lineId) + "\"";
+    }
+
+    // Counters as they stand; a change moves them after it commits
+    public long globalVersion() {
+        return globalVersion.get();
+    }
+
+    public long lineVersion(Long lineId) {
+        AtomicLong version = lineVersions.get(lineId);
+        return version == null ? 0 : version.get();
+    }
+
+    @Order(ORDER)
+    @TransactionalEventListener
+    public void onLineChanged(LineChangedEvent event) {
+        bump(event.lineId());
+    }
+
+    @Order(ORDER)
+    @TransactionalEventListener
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        bump(event.lineId());
+    }
+
+    @Order(ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchedulesImported(SchedulesImportedEvent event) {
+        event.lineIds().forEach(this::bump);
+    }
+
+    private void bump(Long lineId) {
+        lineVersions.computeIfAbsent(lineId, id -> new AtomicLong()).incrementAndGet();
+        globalVersion.incrementAndGet();
+    }
+}
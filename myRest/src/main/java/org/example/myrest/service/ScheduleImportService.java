@@ -0,0 +1,289 @@
+package org.example.myrest.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.myrest.event.SchedulesImportedEvent;
+import org.example.myrest.repository.TransportLineRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk schedule import. Input is parsed as a stream and written in batches with JDBC batch
+ * inserts, one transaction per batch; lines are validated with one query per batch.
+ * Rows that fail validation are skipped and reported, they never abort the import.
+ */
+@Service
+public class ScheduleImportService {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO schedule (line_id, station_from, station_to, departure_time, arrival_time, " +
+            "station_from_id, station_to_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransportLineRepository lineRepository;
+    private final StationDirectory stationDirectory;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public ScheduleImportService(JdbcTemplate jdbcTemplate,
+                                 TransportLineRepository lineRepository,
+                                 StationDirectory stationDirectory,
+                                 PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectMapper objectMapper,
+                                 @Value("${myrest.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lineRepository = lineRepository;
+        this.stationDirectory = stationDirectory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    // Expects a JSON array of {lineId, stationFrom, stationTo, departureTime, arrivalTime}.
+    // Malformed JSON ends the import where it is: the rows before it are still imported and the
+    // report says at which row reading stopped
+    public ImportReport importJson(InputStream in) throws IOException {
+        Importer importer = new Importer();
+        long row = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of schedules");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                JsonNode node = objectMapper.readTree(parser);
+                row++;
+                if (!node.isObject()) {
+                    importer.reject(row, "Expected a JSON object");
+                    continue;
+                }
+                importer.add(row, text(node, "lineId"), text(node, "stationFrom"), text(node, "stationTo"),
+                        text(node, "departureTime"), text(node, "arrivalTime"));
+            }
+        } catch (JsonProcessingException e) {
+            importer.stop(row + 1, "Invalid JSON, nothing read from this row on: " + e.getOriginalMessage());
+        }
+        return importer.finish();
+    }
+
+    // Expects lineId,stationFrom,stationTo,departureTime,arrivalTime per line; a header row is optional
+    public ImportReport importCsv(InputStream in) throws IOException {
+        Importer importer = new Importer();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            long row = 0;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (row == 0 && line.regionMatches(true, 0, "lineId", 0, 6)) {
+                    continue;
+                }
+                row++;
+                List<String> fields = splitCsv(line);
+                if (fields.size() != 5) {
+                    importer.reject(row, "Expected 5 fields but found " + fields.size());
+                    continue;
+                }
+                importer.add(row, fields.get(0), fields.get(1), fields.get(2), fields.get(3), fields.get(4));
+            }
+        }
+        return importer.finish();
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    // Comma separated, with optional double quotes ("" escapes a quote inside a quoted field)
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(5);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+
+    // Accumulates validated rows and flushes them one batch at a time
+    private final class Importer {
+        private final long startNanos = System.nanoTime();
+        private final List<PendingRow> pending = new ArrayList<>(batchSize);
+        private final List<RowError> errors = new ArrayList<>();
+        private final Set<Long> touchedLines = new HashSet<>();
+        private long received;
+        private long imported;
+        private long rejected;
+
+        void add(long row, String lineId, String stationFrom, String stationTo,
+                 String departureTime, String arrivalTime) {
+            received++;
+            if (lineId == null || stationFrom == null || stationTo == null
+                    || departureTime == null || arrivalTime == null
+                    || stationFrom.isBlank() || stationTo.isBlank()) {
+                error(row, "All of lineId, stationFrom, stationTo, departureTime and arrivalTime are required");
+                return;
+            }
+            long parsedLineId;
+            LocalTime departure;
+            LocalTime arrival;
+            try {
+                parsedLineId = Long.parseLong(lineId.trim());
+                departure = LocalTime.parse(departureTime.trim());
+                arrival = LocalTime.parse(arrivalTime.trim());
+            } catch (NumberFormatException e) {
+                error(row, "Invalid lineId: " + lineId);
+                return;
+            } catch (DateTimeParseException e) {
+                error(row, "Invalid time (expected HH:mm): " + e.getParsedString());
+                return;
+            }
+            if (departure.isAfter(arrival)) {
+                error(row, "Departure time must be before arrival time");
+                return;
+            }
+            pending.add(new PendingRow(row, parsedLineId, stationFrom, stationTo, departure, arrival));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            received++;
+            error(row, message);
+        }
+
+        // Always reported, even past MAX_REPORTED_ERRORS: the client resends from this row
+        void stop(long row, String message) {
+            rejected++;
+            errors.add(new RowError(row, message));
+        }
+
+        private void error(long row, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, message));
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Set<Long> lineIds = new HashSet<>();
+            for (PendingRow row : pending) {
+                lineIds.add(row.lineId());
+            }
+            Set<Long> existing = lineRepository.findExistingIds(lineIds);
+
+            List<PendingRow> valid = new ArrayList<>(pending.size());
+            for (PendingRow row : pending) {
+                if (existing.contains(row.lineId())) {
+                    valid.add(row);
+                } else {
+                    error(row.row(), "TransportLine not found with id: " + row.lineId());
+                }
+            }
+            pending.clear();
+            if (valid.isEmpty()) {
+                return;
+            }
+            // Known names are map lookups; new ones are registered before the batch transaction starts
+            Map<String, Long> stationIds = new HashMap<>();
+            for (PendingRow row : valid) {
+                stationIds.computeIfAbsent(row.stationFrom(), stationDirectory::resolveId);
+                stationIds.computeIfAbsent(row.stationTo(), stationDirectory::resolveId);
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(INSERT_SQL, valid, valid.size(), (ps, row) -> {
+                            ps.setLong(1, row.lineId());
+                            ps.setString(2, row.stationFrom());
+                            ps.setString(3, row.stationTo());
+                            ps.setTime(4, Time.valueOf(row.departureTime()));
+                            ps.setTime(5, Time.valueOf(row.arrivalTime()));
+                            ps.setLong(6, stationIds.get(row.stationFrom()));
+                            ps.setLong(7, stationIds.get(row.stationTo()));
+                        }));
+                imported += valid.size();
+                for (PendingRow row : valid) {
+                    touchedLines.add(row.lineId());
+                }
+            } catch (DataAccessException e) {
+                String message = "Batch rejected: " + e.getMostSpecificCause().getMessage();
+                for (PendingRow row : valid) {
+                    error(row.row(), message);
+                }
+            }
+        }
+
+        ImportReport finish() {
+            flush();
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            double rowsPerSecond = elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+            if (!touchedLines.isEmpty()) {
+                eventPublisher.publishEvent(new SchedulesImportedEvent(Set.copyOf(touchedLines), imported));
+            }
+            return new ImportReport(received, imported, rejected, elapsedMillis, rowsPerSecond, errors);
+        }
+    }
+
+    private record PendingRow(long row, long lineId, String stationFrom, String stationTo,
+                              LocalTime departureTime, LocalTime arrivalTime) {}
+
+    // DTOs
+    public record ImportReport(long received, long imported, long rejected,
+                               long elapsedMillis, double rowsPerSecond, List<RowError> errors) {}
+
+    // Row numbers are 1-based and ignore a CSV header row
+    public record RowError(long row, String message) {}
+}
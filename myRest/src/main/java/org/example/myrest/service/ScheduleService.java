@@ -1,31 +1,63 @@
 package org.example.myrest.service;
 
+import jakarta.persistence.EntityManager;
+import org.example.myrest.event.ScheduleChangedEvent;
 import org.example.myrest.model.Schedule;
 import org.example.myrest.model.TransportLine;
 import org.example.myrest.repository.ScheduleRepository;
 import org.example.myrest.repository.TransportLineRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 public class ScheduleService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final ScheduleRepository scheduleRepository;
     private final TransportLineRepository lineRepository;
+    private final StationDirectory stationDirectory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     public ScheduleService(ScheduleRepository scheduleRepository,
-                           TransportLineRepository lineRepository) {
+                           TransportLineRepository lineRepository,
+                           StationDirectory stationDirectory,
+                           ApplicationEventPublisher eventPublisher,
+                           EntityManager entityManager) {
         this.scheduleRepository = scheduleRepository;
         this.lineRepository = lineRepository;
+        this.stationDirectory = stationDirectory;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
-    public List<Schedule> getAllSchedules() {
-        return scheduleRepository.findAll();
+    // Keyset pagination on id: pass the last id of the previous page as the cursor
+    public List<Schedule> getSchedulePage(Long afterId, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return scheduleRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, Limit.of(limit));
+    }
+
+    // Hands every schedule to the consumer in id order, detaching each one so the
+    // persistence context stays empty regardless of table size
+    public void forEachSchedule(Consumer<Schedule> action) {
+        try (Stream<Schedule> schedules = scheduleRepository.streamAllByOrderByIdAsc()) {
+            schedules.forEach(schedule -> {
+                action.accept(schedule);
+                entityManager.detach(schedule);
+            });
+        }
     }
 
     public Optional<Schedule> getScheduleById(Long id) {
@@ -37,7 +69,15 @@ public class ScheduleService {
         if (!lineRepository.existsById(lineId)) {
             throw new ResourceNotFoundException("TransportLine not found with id: " + lineId);
         }
-        return scheduleRepository.findByTransportLineId(lineId);
+        return scheduleRepository.findByTransportLineIdOrderByIdAsc(lineId);
+    }
+
+    // Departures and arrivals at a station, by departure time
+    public List<Schedule> getSchedulesAtStation(Long stationId) {
+        if (stationDirectory.getStationName(stationId).isEmpty()) {
+            throw new ResourceNotFoundException("Station not found with id: " + stationId);
+        }
+        return scheduleRepository.findByStationIdOrderByDepartureTime(stationId);
     }
 
     @Transactional
@@ -57,34 +97,21 @@ public class ScheduleService {
         }
 
         schedule.setTransportLine(line);
-        return scheduleRepository.save(schedule);
+        schedule.setFromStation(stationDirectory.resolve(schedule.getStationFrom()));
+        schedule.setToStation(stationDirectory.resolve(schedule.getStationTo()));
+        Schedule saved = scheduleRepository.save(schedule);
+        eventPublisher.publishEvent(ScheduleChangedEvent.created(saved));
+        return saved;
     }
 
     @Transactional
     public void deleteSchedule(Long id) {
-        if (!scheduleRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Schedule not found with id: " + id);
-        }
-        scheduleRepository.deleteById(id);
+        Schedule schedule = scheduleRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Schedule not found with id: " + id));
+        scheduleRepository.delete(schedule);
+        eventPublisher.publishEvent(ScheduleChangedEvent.deleted(schedule));
     }
 
-    // Bonus method for availability check
-//    public ScheduleAvailability checkLineAvailability(Long lineId) {
-//        TransportLine line = lineRepository.findById(lineId)
-//                .orElseThrow(() -> new ResourceNotFoundException("TransportLine not found with id: " + lineId));
-//
-//        LocalTime now = LocalTime.now();
-//        Optional<Schedule> nextDeparture = scheduleRepository.findNextDeparture(lineId, now);
-//
-//        return new ScheduleAvailability(
-//                line.getLineStatus().toString(),
-//                line.getName(),
-//                nextDeparture.map(Schedule::getDepartureTime).orElse(null),
-//                nextDeparture.map(Schedule::getStationFrom).orElse(null),
-//                nextDeparture.map(Schedule::getStationTo).orElse(null)
-//        );
-//    }
-
     // DTOs and Exceptions
     public static class ScheduleAvailability {
         private String status;
@@ -0,0 +1,170 @@
+package org.example.myrest.service;
+
+import org.example.myrest.event.LineChangedEvent;
+import org.example.myrest.model.Station;
+import org.example.myrest.model.TransportLine;
+import org.example.myrest.repository.StationRepository;
+import org.example.myrest.repository.TransportLineRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interned station dictionary (the {@code station} table mirrored in memory) plus name search
+ * indexes over stations and transport lines. Resolving a known station name is a hash lookup;
+ * only new names touch the database. Search indexes are rebuilt lazily after names change.
+ */
+@Component
+public class StationDirectory implements SmartInitializingSingleton {
+
+    public static final int MAX_SEARCH_RESULTS = 100;
+
+    private static final String INSERT_STATION_SQL = "INSERT INTO station (name) VALUES (?) ON CONFLICT DO NOTHING";
+    private static final String SELECT_STATION_SQL = "SELECT id FROM station WHERE name = ?";
+
+    private final StationRepository stationRepository;
+    private final TransportLineRepository lineRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+
+    private final Map<String, Long> stationIds = new ConcurrentHashMap<>();
+    private final Map<Long, String> stationNames = new ConcurrentHashMap<>();
+    private final Map<Long, String> lineNames = new ConcurrentHashMap<>();
+
+    private volatile NameIndex stationIndex = NameIndex.EMPTY;
+    private volatile NameIndex lineIndex = NameIndex.EMPTY;
+    private volatile boolean stationIndexStale;
+    private volatile boolean lineIndexStale;
+
+    public StationDirectory(StationRepository stationRepository,
+                            TransportLineRepository lineRepository,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager) {
+        this.stationRepository = stationRepository;
+        this.lineRepository = lineRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    // Names that predate the dictionary were registered once by the V4 migration
+    @Override
+    public void afterSingletonsInstantiated() {
+        tx.executeWithoutResult(status -> {
+            for (Station station : stationRepository.findAll()) {
+                register(station.getId(), station.getName());
+            }
+            for (TransportLine line : lineRepository.findAll()) {
+                lineNames.put(line.getId(), line.getName());
+            }
+        });
+        stationIndexStale = true;
+        lineIndexStale = true;
+    }
+
+    /**
+     * Id of the dictionary entry for this exact name, creating it if needed. Runs on the caller's
+     * transaction (auto-commit without one), so a new name needs no second connection and its row
+     * rolls back with the caller. A concurrent insert of the same name waits on the unique index,
+     * then finds the committed row. The in-memory entry is added once the row is committed.
+     */
+    public Long resolveId(String name) {
+        Long id = stationIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        jdbcTemplate.update(INSERT_STATION_SQL, name);
+        Long created = jdbcTemplate.queryForObject(SELECT_STATION_SQL, Long.class, name);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    register(created, name);
+                }
+            });
+        } else {
+            register(created, name);
+        }
+        return created;
+    }
+
+    // Managed reference for schedule foreign keys, without loading the row
+    public Station resolve(String name) {
+        return stationRepository.getReferenceById(resolveId(name));
+    }
+
+    public Optional<String> getStationName(Long id) {
+        return Optional.ofNullable(stationNames.get(id));
+    }
+
+    public List<NameMatch> searchStations(String query, int limit) {
+        checkSearch(query, limit);
+        return currentStationIndex().search(query, limit);
+    }
+
+    public List<NameMatch> getAllStations() {
+        return currentStationIndex().all();
+    }
+
+    public List<NameMatch> searchLines(String query, int limit) {
+        checkSearch(query, limit);
+        if (lineIndexStale) {
+            synchronized (this) {
+                if (lineIndexStale) {
+                    lineIndexStale = false;
+                    lineIndex = NameIndex.build(Map.copyOf(lineNames));
+                }
+            }
+        }
+        return lineIndex.search(query, limit);
+    }
+
+    @TransactionalEventListener
+    public void onLineChanged(LineChangedEvent event) {
+        if (event.type() == LineChangedEvent.ChangeType.DELETED) {
+            lineNames.remove(event.lineId());
+        } else {
+            lineNames.put(event.lineId(), event.name());
+        }
+        lineIndexStale = true;
+    }
+
+    private static void checkSearch(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("q must not be blank");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+    }
+
+    private NameIndex currentStationIndex() {
+        if (stationIndexStale) {
+            synchronized (this) {
+                if (stationIndexStale) {
+                    stationIndexStale = false;
+                    stationIndex = NameIndex.build(Map.copyOf(stationNames));
+                }
+            }
+        }
+        return stationIndex;
+    }
+
+    private void register(Long id, String name) {
+        stationIds.put(name, id);
+        stationNames.put(id, name);
+        stationIndexStale = true;
+    }
+
+    // DTOs
+    public record NameMatch(long id, String name) {}
+}
@@ -0,0 +1,261 @@
+package org.example.myrest.service;
+
+import org.example.myrest.event.LineChangedEvent;
+import org.example.myrest.event.ScheduleChangedEvent;
+import org.example.myrest.event.SchedulesImportedEvent;
+import org.example.myrest.model.LineStatus;
+import org.example.myrest.model.Schedule;
+import org.example.myrest.model.TransportLine;
+import org.example.myrest.repository.ScheduleRepository;
+import org.example.myrest.repository.TransportLineRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory timetable used to answer "next departure" queries without a database round trip.
+ * Each line keeps its departures as seconds-of-day in a sorted primitive array; lookups are a
+ * binary search. Line timetables are immutable and replaced copy-on-write when schedules change.
+ */
+@Component
+public class TimetableIndex implements SmartInitializingSingleton {
+
+    private final TransportLineRepository lineRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final TransactionTemplate readOnlyTx;
+
+    private final Map<Long, LineTimetable> lines = new ConcurrentHashMap<>();
+
+    public TimetableIndex(TransportLineRepository lineRepository,
+                          ScheduleRepository scheduleRepository,
+                          PlatformTransactionManager transactionManager) {
+        this.lineRepository = lineRepository;
+        this.scheduleRepository = scheduleRepository;
+        // One snapshot for every query (a line and its schedules agree even while an import commits);
+        // a transaction of its own even when a listener runs right after another one committed
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Load before the web server starts so no request can see a half-built index
+    @Override
+    public void afterSingletonsInstantiated() {
+        readOnlyTx.executeWithoutResult(status -> rebuild());
+    }
+
+    public void rebuild() {
+        Map<Long, List<Schedule>> byLine = new HashMap<>();
+        for (Schedule schedule : scheduleRepository.findAll()) {
+            byLine.computeIfAbsent(schedule.getTransportLine().getId(), id -> new ArrayList<>()).add(schedule);
+        }
+
+        Map<Long, LineTimetable> fresh = new HashMap<>();
+        for (TransportLine line : lineRepository.findAll()) {
+            fresh.put(line.getId(), LineTimetable.of(line.getName(), line.getLineStatus(),
+                    byLine.getOrDefault(line.getId(), List.of())));
+        }
+        lines.keySet().retainAll(fresh.keySet());
+        lines.putAll(fresh);
+    }
+
+    // Re-reads the given lines from the database, e.g. after a bulk import
+    public void reload(Collection<Long> lineIds) {
+        readOnlyTx.executeWithoutResult(status -> {
+            for (Long lineId : lineIds) {
+                lineRepository.findById(lineId).ifPresentOrElse(
+                        line -> lines.put(lineId, LineTimetable.of(line.getName(), line.getLineStatus(),
+                                scheduleRepository.findByTransportLineId(lineId))),
+                        () -> lines.remove(lineId));
+            }
+        });
+    }
+
+    public Optional<LineTimetable> getLine(Long lineId) {
+        return Optional.ofNullable(lines.get(lineId));
+    }
+
+    // Line status and next departure, from memory only. Not in ScheduleService: its class-level
+    // @Transactional would open a transaction and make the lookup wait for a bulkhead permit
+    public ScheduleService.ScheduleAvailability availability(Long lineId) {
+        LineTimetable line = getLine(lineId)
+                .orElseThrow(() -> new ScheduleService.ResourceNotFoundException("TransportLine not found with id: " + lineId));
+
+        Optional<Departure> nextDeparture = line.nextDeparture(LocalTime.now());
+
+        return new ScheduleService.ScheduleAvailability(
+                line.getStatus().toString(),
+                line.getLineName(),
+                nextDeparture.map(Departure::departureTime).orElse(null),
+                nextDeparture.map(Departure::stationFrom).orElse(null),
+                nextDeparture.map(Departure::stationTo).orElse(null)
+        );
+    }
+
+    @TransactionalEventListener
+    public void onLineChanged(LineChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> lines.putIfAbsent(event.lineId(),
+                    LineTimetable.of(event.name(), event.lineStatus(), List.of()));
+            case UPDATED -> lines.computeIfPresent(event.lineId(),
+                    (id, timetable) -> timetable.withLine(event.name(), event.lineStatus()));
+            case DELETED -> lines.remove(event.lineId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> lines.computeIfPresent(event.lineId(), (id, timetable) -> timetable.with(
+                    event.scheduleId(), event.departureTime(), event.stationFrom(), event.stationTo()));
+            case DELETED -> lines.computeIfPresent(event.lineId(),
+                    (id, timetable) -> timetable.without(event.scheduleId()));
+        }
+    }
+
+    // Published once every batch of the import has committed, outside any transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchedulesImported(SchedulesImportedEvent event) {
+        reload(event.lineIds());
+    }
+
+    // Immutable per-line snapshot; the four arrays are parallel and ordered by departure time
+    public static final class LineTimetable {
+        private final String lineName;
+        private final LineStatus status;
+        private final int[] departures;  // Seconds of day, ascending
+        private final long[] scheduleIds;
+        private final String[] stationsFrom;
+        private final String[] stationsTo;
+
+        private LineTimetable(String lineName, LineStatus status, int[] departures,
+                              long[] scheduleIds, String[] stationsFrom, String[] stationsTo) {
+            this.lineName = lineName;
+            this.status = status;
+            this.departures = departures;
+            this.scheduleIds = scheduleIds;
+            this.stationsFrom = stationsFrom;
+            this.stationsTo = stationsTo;
+        }
+
+        static LineTimetable of(String lineName, LineStatus status, List<Schedule> schedules) {
+            Schedule[] sorted = schedules.toArray(new Schedule[0]);
+            Arrays.sort(sorted, (a, b) -> a.getDepartureTime().compareTo(b.getDepartureTime()));
+
+            int n = sorted.length;
+            int[] departures = new int[n];
+            long[] ids = new long[n];
+            String[] from = new String[n];
+            String[] to = new String[n];
+            for (int i = 0; i < n; i++) {
+                departures[i] = sorted[i].getDepartureTime().toSecondOfDay();
+                ids[i] = sorted[i].getId();
+                from[i] = sorted[i].getStationFrom();
+                to[i] = sorted[i].getStationTo();
+            }
+            return new LineTimetable(lineName, status, departures, ids, from, to);
+        }
+
+        LineTimetable withLine(String lineName, LineStatus status) {
+            return new LineTimetable(lineName, status, departures, scheduleIds, stationsFrom, stationsTo);
+        }
+
+        LineTimetable with(long scheduleId, LocalTime departure, String from, String to) {
+            int seconds = departure.toSecondOfDay();
+            int pos = firstAfter(seconds);
+            int n = departures.length;
+
+            int[] newDepartures = new int[n + 1];
+            long[] newIds = new long[n + 1];
+            String[] newFrom = new String[n + 1];
+            String[] newTo = new String[n + 1];
+            insert(departures, newDepartures, pos, n);
+            insert(scheduleIds, newIds, pos, n);
+            insert(stationsFrom, newFrom, pos, n);
+            insert(stationsTo, newTo, pos, n);
+            newDepartures[pos] = seconds;
+            newIds[pos] = scheduleId;
+            newFrom[pos] = from;
+            newTo[pos] = to;
+            return new LineTimetable(lineName, status, newDepartures, newIds, newFrom, newTo);
+        }
+
+        LineTimetable without(long scheduleId) {
+            int pos = -1;
+            for (int i = 0; i < scheduleIds.length; i++) {
+                if (scheduleIds[i] == scheduleId) {
+                    pos = i;
+                    break;
+                }
+            }
+            if (pos < 0) {
+                return this;
+            }
+            int n = departures.length;
+            int[] newDepartures = new int[n - 1];
+            long[] newIds = new long[n - 1];
+            String[] newFrom = new String[n - 1];
+            String[] newTo = new String[n - 1];
+            remove(departures, newDepartures, pos, n);
+            remove(scheduleIds, newIds, pos, n);
+            remove(stationsFrom, newFrom, pos, n);
+            remove(stationsTo, newTo, pos, n);
+            return new LineTimetable(lineName, status, newDepartures, newIds, newFrom, newTo);
+        }
+
+        // Index of the first departure strictly after the given second of day (binary search)
+        private int firstAfter(int seconds) {
+            int low = 0;
+            int high = departures.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (departures[mid] <= seconds) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Same semantics as ScheduleRepository.findNextDeparture: strictly after, no wrap past midnight
+        public Optional<Departure> nextDeparture(LocalTime after) {
+            int pos = firstAfter(after.toSecondOfDay());
+            if (pos == departures.length) {
+                return Optional.empty();
+            }
+            return Optional.of(new Departure(scheduleIds[pos], LocalTime.ofSecondOfDay(departures[pos]),
+                    stationsFrom[pos], stationsTo[pos]));
+        }
+
+        public String getLineName() { return lineName; }
+        public LineStatus getStatus() { return status; }
+        public int size() { return departures.length; }
+
+        private static void insert(Object source, Object target, int pos, int n) {
+            System.arraycopy(source, 0, target, 0, pos);
+            System.arraycopy(source, pos, target, pos + 1, n - pos);
+        }
+
+        private static void remove(Object source, Object target, int pos, int n) {
+            System.arraycopy(source, 0, target, 0, pos);
+            System.arraycopy(source, pos + 1, target, pos, n - pos - 1);
+        }
+    }
+
+    public record Departure(long scheduleId, LocalTime departureTime, String stationFrom, String stationTo) {}
+}
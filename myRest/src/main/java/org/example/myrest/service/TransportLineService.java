@@ -1,34 +1,101 @@
 package org.example.myrest.service;
 
-
+import jakarta.persistence.EntityManager;
+import org.example.myrest.event.LineChangedEvent;
+import org.example.myrest.model.LineStatus;
+import org.example.myrest.model.LineSummary;
 import org.example.myrest.model.LineType;
 import org.example.myrest.model.TransportLine;
 import org.example.myrest.repository.TransportLineRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 public class TransportLineService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final int STREAM_CHUNK_SIZE = 500;
+
+    public static final String LINES_CACHE = "lines";
+    public static final String LINES_BY_TYPE_CACHE = "linesByType";
+
     private final TransportLineRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
-    public TransportLineService(TransportLineRepository repository) {
+    public TransportLineService(TransportLineRepository repository,
+                                ApplicationEventPublisher eventPublisher,
+                                EntityManager entityManager) {
         this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
     public List<TransportLine> getAllLines() {
         return repository.findAll();
     }
 
+    // Keyset pagination on id: pass the last id of the previous page as the cursor
+    public List<LineSummary> getLineSummaryPage(Long afterId, int limit) {
+        checkPageSize(limit);
+        return repository.findSummaryPage(afterId == null ? 0L : afterId, Limit.of(limit));
+    }
+
+    // Same page with schedules: one id query plus one join fetch, no N+1
+    public List<TransportLine> getLinePageWithSchedules(Long afterId, int limit) {
+        checkPageSize(limit);
+        List<Long> ids = repository.findIdPage(afterId == null ? 0L : afterId, Limit.of(limit));
+        return ids.isEmpty() ? List.of() : repository.findWithSchedulesByIdIn(ids);
+    }
+
+    // Hands every line summary to the consumer in id order, straight from the aggregate query cursor
+    public void forEachLineSummary(Consumer<LineSummary> action) {
+        try (Stream<LineSummary> summaries = repository.streamSummaries()) {
+            summaries.forEach(action);
+        }
+    }
+
+    // Hands every line with its schedules to the consumer in id order. Lines are fetched in
+    // chunks (one join fetch each) and the persistence context is cleared between chunks,
+    // so memory stays bounded by the chunk size rather than the table size.
+    public void forEachLineWithSchedules(Consumer<TransportLine> action) {
+        Long afterId = 0L;
+        List<TransportLine> chunk;
+        do {
+            chunk = getLinePageWithSchedules(afterId, STREAM_CHUNK_SIZE);
+            chunk.forEach(action);
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+            entityManager.clear();
+        } while (chunk.size() == STREAM_CHUNK_SIZE);
+    }
+
+    private static void checkPageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    // Cached lines are detached, so schedules are fetched up front; see LineCacheInvalidator.
+    // sync: loads go through the cache, which skips the put if the line changed meanwhile (CacheConfig)
+    @Cacheable(cacheNames = LINES_CACHE, sync = true)
     public Optional<TransportLine> getLineById(Long id) {
-        return repository.findById(id);
+        return repository.findWithSchedulesById(id);
     }
 
+    @Cacheable(cacheNames = LINES_BY_TYPE_CACHE, sync = true)
     public List<TransportLine> getLinesByType(LineType lineType) {
-        return repository.findByLineType(lineType);
+        return repository.findWithSchedulesByLineType(lineType);
     }
 
     @Transactional
@@ -36,28 +103,40 @@ public class TransportLineService {
         if (repository.existsByName(line.getName())) {
             throw new IllegalArgumentException("Line with name '" + line.getName() + "' already exists");
         }
-        return repository.save(line);
+        line.setVersion(null);  // Versions are assigned on insert
+        TransportLine saved = repository.save(line);
+        eventPublisher.publishEvent(LineChangedEvent.created(saved));
+        return saved;
     }
 
     @Transactional
     public TransportLine updateLine(Long id, TransportLine updatedLine) {
         return repository.findById(id)
                 .map(existingLine -> {
+                    // Optimistic check: a client that sends the version it read must still be current
+                    if (updatedLine.getVersion() != null && !updatedLine.getVersion().equals(existingLine.getVersion())) {
+                        throw new OptimisticLockingFailureException("TransportLine " + id + " was modified (version "
+                                + existingLine.getVersion() + ", request based on " + updatedLine.getVersion() + ")");
+                    }
+                    LineType previousType = existingLine.getLineType();
+                    LineStatus previousStatus = existingLine.getLineStatus();
                     existingLine.setName(updatedLine.getName());
                     existingLine.setLineType(updatedLine.getLineType());
                     existingLine.setLineStatus(updatedLine.getLineStatus());
                     existingLine.setDescription(updatedLine.getDescription());
-                    return repository.save(existingLine);
+                    TransportLine saved = repository.save(existingLine);
+                    eventPublisher.publishEvent(LineChangedEvent.updated(saved, previousType, previousStatus));
+                    return saved;
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("TransportLine not found with id: " + id));
     }
 
     @Transactional
     public void deleteLine(Long id) {
-        if (!repository.existsById(id)) {
-            throw new ResourceNotFoundException("TransportLine not found with id: " + id);
-        }
-        repository.deleteById(id);
+        TransportLine line = repository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("TransportLine not found with id: " + id));
+        repository.delete(line);
+        eventPublisher.publishEvent(LineChangedEvent.deleted(line));
     }
 
     public static class ResourceNotFoundException extends RuntimeException {
@@ -0,0 +1,22 @@
+-- Schema as Hibernate's ddl-auto=update created it before migrations were introduced, from the
+-- original entities. Databases that already have it are baselined at version 1
+-- (spring.flyway.baseline-on-migrate) and only get the later versions.
+
+create table transport_line (
+    id          bigint generated by default as identity,
+    description text,
+    line_status varchar(255) not null check (line_status in ('ACTIVE', 'DELAYED', 'CANCELLED', 'MAINTENANCE')),
+    line_type   varchar(255) not null check (line_type in ('BUS', 'METRO', 'TRAIN', 'TRAM')),
+    name        varchar(255) not null,
+    primary key (id)
+);
+
+create table schedule (
+    id             bigint generated by default as identity,
+    line_id        bigint not null references transport_line,
+    station_from   varchar(255) not null,
+    station_to     varchar(255) not null,
+    departure_time time(6) not null,
+    arrival_time   time(6) not null,
+    primary key (id)
+);
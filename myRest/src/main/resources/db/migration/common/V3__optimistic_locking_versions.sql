@@ -0,0 +1,5 @@
+-- @Version columns of TransportLine and Schedule (ETags, optimistic locking). Existing rows start at 0.
+-- "if not exists": a database baselined at version 1 may already have them, if ddl-auto=update
+-- created them before migrations were introduced.
+alter table transport_line add column if not exists version bigint default 0;
+alter table schedule add column if not exists version bigint default 0;
@@ -0,0 +1,25 @@
+-- Station dictionary (StationDirectory): each distinct station name once, referenced from schedules.
+-- "if not exists": as in V3, ddl-auto=update may have created these before migrations.
+create table if not exists station (
+    id   bigint generated by default as identity,
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+alter table schedule add column if not exists station_from_id bigint references station;
+alter table schedule add column if not exists station_to_id bigint references station;
+
+create index if not exists idx_schedule_station_from_id on schedule (station_from_id);
+create index if not exists idx_schedule_station_to_id on schedule (station_to_id);
+
+-- Registers the names of existing schedules and links the schedules to them. Done once here;
+-- new schedules get their ids when they are written.
+insert into station (name)
+select distinct n from (select station_from as n from schedule union select station_to from schedule) names
+where not exists (select 1 from station st where st.name = names.n);
+
+update schedule set station_from_id = (select st.id from station st where st.name = schedule.station_from)
+where station_from_id is null;
+
+update schedule set station_to_id = (select st.id from station st where st.name = schedule.station_to)
+where station_to_id is null;
@@ -0,0 +1,5 @@
+-- Same indexes as postgresql/V2 (see there); H2 has no INCLUDE, so id is a trailing key column.
+create index idx_schedule_line_departure on schedule (line_id, departure_time, id);
+create index idx_schedule_station_from on schedule (station_from);
+create index idx_schedule_station_to on schedule (station_to);
+create index idx_transport_line_name on transport_line (name);
@@ -0,0 +1,14 @@
+-- One index per way schedules are looked up (checked by RepositoryQueryPlanTests).
+
+-- Departures of a line in time order: findByTransportLineIdAndDepartureTimeAfterOrderByDepartureTimeAsc,
+-- findNextDeparture (a single probe), findByTransportLineId. INCLUDE (id) makes it covering for the
+-- line summaries (COUNT(id), MIN/MAX(departure_time) per line: index-only scan) and it is the
+-- index the line_id foreign key lacked (deleting a line no longer scans schedule).
+create index idx_schedule_line_departure on schedule (line_id, departure_time) include (id);
+
+-- findByStationFromOrStationTo: one index per side, combined with a BitmapOr
+create index idx_schedule_station_from on schedule (station_from);
+create index idx_schedule_station_to on schedule (station_to);
+
+-- Duplicate-name check on every line creation (existsByName)
+create index idx_transport_line_name on transport_line (name);
@@ -0,0 +1,180 @@
+package org.example.myrest.config;
+
+import org.example.myrest.model.LineStatus;
+import org.example.myrest.model.LineType;
+import org.example.myrest.model.TransportLine;
+import org.example.myrest.service.TransportLineService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Primary and replica are two in-memory H2 databases with the same schema. Nothing replicates between
+// them, so the data shows which one answered: "Replica only" exists on the replica alone. The WAL
+// positions and lag the router sees are whatever the primary_position and replica_lag tables say.
+@SpringBootTest(properties = {
+        "myrest.db.replicas.urls=" + ReplicaRoutingTests.REPLICA_URL,
+        "myrest.db.replicas.username=sa",
+        "myrest.db.replicas.password=",
+        "myrest.db.replicas.primary-position-query=SELECT position FROM primary_position",
+        "myrest.db.replicas.replica-position-query=SELECT position, seconds FROM replica_lag",
+        "myrest.db.replicas.max-lag=2s",
+        "myrest.db.replicas.lag-check-interval=100ms"
+})
+@ActiveProfiles("h2")
+class ReplicaRoutingTests {
+
+    static final String REPLICA_URL =
+            "jdbc:h2:mem:replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private TransportLineService lineService;
+
+    @Autowired
+    private JdbcTemplate primary;   // Outside a transaction: always the primary
+
+    @BeforeAll
+    static void createReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+        replica.execute("CREATE TABLE replica_lag (position BIGINT, seconds DOUBLE PRECISION)");
+        replica.update("INSERT INTO replica_lag VALUES (0, 0)");
+        replica.update("INSERT INTO transport_line (name, line_type, line_status, description, version) "
+                + "VALUES ('Replica only', 'BUS', 'ACTIVE', 'Stand-in', 0)");
+    }
+
+    // The primary's database only exists once the application context has started
+    @BeforeEach
+    void createPrimaryPosition() {
+        primary.execute("CREATE TABLE IF NOT EXISTS primary_position (position BIGINT)");
+        if (primary.queryForObject("SELECT count(*) FROM primary_position", Integer.class) == 0) {
+            primary.update("INSERT INTO primary_position VALUES (0)");
+        }
+    }
+
+    @AfterEach
+    void replicaCaughtUp() {
+        moveReplica(primaryPosition());
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndWritesToThePrimary() {
+        await("reads from the replica", () -> lineNames().contains("Replica only"));
+
+        lineService.createLine(new TransportLine("Written", LineType.METRO, LineStatus.ACTIVE, null));
+
+        assertThat(countByName(primary, "Written")).isEqualTo(1);
+        assertThat(countByName(replica, "Written")).isZero();
+    }
+
+    @Test
+    void readsRightAfterAWriteSeeIt() {
+        replica.update("UPDATE replica_lag SET seconds = 1");   // Within max-lag, so plain reads may use it
+        await("reads from the replica", () -> lineNames().contains("Replica only"));
+
+        lineService.createLine(new TransportLine("Just written", LineType.TRAM, LineStatus.ACTIVE, null));
+
+        // No check has located the write on the primary yet: reads stay there
+        assertThat(lineNames()).contains("Just written").doesNotContain("Replica only");
+        await("back on the replica once a check finds it past the write", () -> lineNames().contains("Replica only"));
+    }
+
+    @Test
+    void replicaReportingNoLagIsUsedOnlyOnceItHasReplayedTheWrite() {
+        long position = primaryPosition();   // Positions only move forward, whatever ran before
+        moveReplica(position + 100);
+        movePrimary(position + 100);
+        await("reads from the replica", () -> lineNames().contains("Replica only"));
+
+        // Another instance writes: the primary moves on, the replica has not received it yet. Only this
+        // instance's writes count for read-your-writes, so reads may stay on the replica.
+        movePrimary(position + 150);
+        sleep(300);
+        assertThat(lineNames()).contains("Replica only");
+
+        // This instance writes. The replica still reports no lag (everything it received is replayed),
+        // but it is behind the primary's position at the write
+        lineService.createLine(new TransportLine("Written at +150", LineType.BUS, LineStatus.ACTIVE, null));
+        sleep(300);   // Several checks
+        assertThat(lineNames()).contains("Written at +150").doesNotContain("Replica only");
+
+        moveReplica(position + 150);
+        await("back on the replica once it has replayed up to the write", () -> lineNames().contains("Replica only"));
+    }
+
+    @Test
+    void replicaFurtherBehindThanMaxLagIsSkipped() {
+        await("reads from the replica", () -> lineNames().contains("Replica only"));
+
+        // Behind the primary, last replayed commit 10 seconds ago
+        long position = primaryPosition();
+        movePrimary(position + 20);
+        replica.update("UPDATE replica_lag SET position = ?, seconds = 10", position + 10);
+        await("reads from the primary", () -> !lineNames().contains("Replica only"));
+
+        replica.update("UPDATE replica_lag SET seconds = 0");
+        await("reads from the replica again", () -> lineNames().contains("Replica only"));
+    }
+
+    private long primaryPosition() {
+        return primary.queryForObject("SELECT position FROM primary_position", Long.class);
+    }
+
+    private void movePrimary(long position) {
+        primary.update("UPDATE primary_position SET position = ?", position);
+    }
+
+    private static void moveReplica(long position) {
+        replica.update("UPDATE replica_lag SET position = ?, seconds = 0", position);
+    }
+
+    private List<String> lineNames() {
+        return lineService.getAllLines().stream().map(TransportLine::getName).toList();
+    }
+
+    private static int countByName(JdbcTemplate database, String name) {
+        return database.queryForObject("SELECT count(*) FROM transport_line WHERE name = ?", Integer.class, name);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted");
+        }
+    }
+
+    private static void await(String what, BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for " + what);
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted waiting for " + what);
+            }
+        }
+    }
+}
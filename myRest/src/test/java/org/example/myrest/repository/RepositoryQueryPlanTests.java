@@ -0,0 +1,212 @@
+package org.example.myrest.repository;
+
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.observation.boot.event.JdbcQueryExecutionEvent;
+import org.example.myrest.model.LineType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Runs every repository query against PostgreSQL with a realistic amount of data, then EXPLAINs the
+// exact SQL Hibernate sent (captured with its parameters through datasource-micrometer's JDBC events)
+// and fails on a sequential scan. A few queries read a large part of a table by design; they name
+// the tables they may scan, and why. Needs Docker (Testcontainers); skipped without it, except with
+// mvn -Prequire-docker test, where a missing Docker fails the build instead.
+@SpringBootTest(properties = {
+        "jdbc.event.enabled=true",                  // Publishes every statement with its parameters
+        "spring.jpa.hibernate.ddl-auto=validate",   // The entities must match what the migrations created
+        "spring.jpa.show-sql=false"
+})
+@Testcontainers
+@EnabledIf("dockerAvailableOrRequired")
+@RecordApplicationEvents
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryQueryPlanTests {
+
+    private static final int LINES = 2_000;
+    private static final int SCHEDULES_PER_LINE = 100;
+    private static final int STATIONS = 500;
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    @Autowired
+    private TransportLineRepository lineRepository;
+    @Autowired
+    private StationRepository stationRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ApplicationEvents events;
+
+    private long firstLineId;
+    private long firstStationId;
+
+    static boolean dockerAvailableOrRequired() {
+        return Boolean.getBoolean("myrest.tests.require-docker") || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    // 2,000 lines (1 in 100 a tram), 500 stations, 200,000 schedules inserted line by line, as imports
+    // do; then statistics for the planner
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO transport_line (name, line_type, line_status, description)
+                SELECT 'Line ' || i,
+                       CASE WHEN i % 100 = 0 THEN 'TRAM' ELSE (ARRAY['BUS', 'METRO', 'TRAIN'])[1 + i % 3] END,
+                       'ACTIVE', 'Seeded line ' || i
+                FROM generate_series(1, ?) i""", LINES);
+        jdbcTemplate.update("INSERT INTO station (name) SELECT 'Station ' || i FROM generate_series(0, ? - 1) i", STATIONS);
+        firstLineId = jdbcTemplate.queryForObject("SELECT min(id) FROM transport_line", Long.class);
+        firstStationId = jdbcTemplate.queryForObject("SELECT min(id) FROM station", Long.class);
+        jdbcTemplate.update("""
+                INSERT INTO schedule (line_id, station_from, station_to, station_from_id, station_to_id,
+                                      departure_time, arrival_time)
+                SELECT ? + g / ?,
+                       'Station ' || g % ?, 'Station ' || (g * 7 + 1) % ?,
+                       ? + g % ?, ? + (g * 7 + 1) % ?,
+                       time '00:00' + (g % ?) * interval '14 minutes',
+                       time '00:30' + (g % ?) * interval '14 minutes'
+                FROM generate_series(0, ? - 1) g""",
+                firstLineId, SCHEDULES_PER_LINE, STATIONS, STATIONS, firstStationId, STATIONS, firstStationId, STATIONS,
+                SCHEDULES_PER_LINE, SCHEDULES_PER_LINE, LINES * SCHEDULES_PER_LINE);
+        jdbcTemplate.execute("VACUUM ANALYZE");
+    }
+
+    Stream<Arguments> queries() {
+        LocalTime noon = LocalTime.NOON;
+        long line = firstLineId + LINES / 2;
+        List<Long> someLines = List.of(firstLineId + 3, firstLineId + 500, firstLineId + 1_500);
+        return Stream.of(
+                query("findByTransportLineId", () -> scheduleRepository.findByTransportLineId(line)),
+                query("findByTransportLineIdOrderByIdAsc", () -> scheduleRepository.findByTransportLineIdOrderByIdAsc(line)),
+                query("findByTransportLineIdAndDepartureTimeAfterOrderByDepartureTimeAsc",
+                        () -> scheduleRepository.findByTransportLineIdAndDepartureTimeAfterOrderByDepartureTimeAsc(line, noon)),
+                query("findNextDeparture", () -> scheduleRepository.findNextDeparture(line, noon)),
+                query("findByStationFromOrStationTo",
+                        () -> scheduleRepository.findByStationFromOrStationTo("Station 17", "Station 42")),
+                query("findByStationIdOrderByDepartureTime",
+                        () -> scheduleRepository.findByStationIdOrderByDepartureTime(firstStationId + 17)),
+                query("findByIdGreaterThanOrderByIdAsc",
+                        () -> scheduleRepository.findByIdGreaterThanOrderByIdAsc(100_000L, Limit.of(100))),
+                // Every schedule, in id order: reading the whole table is the point
+                query("streamAllByOrderByIdAsc", () -> transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<?> stream = scheduleRepository.streamAllByOrderByIdAsc()) {
+                        stream.limit(10).forEach(schedule -> { });
+                    }
+                }), "schedule"),
+
+                // line_type has four values: no index pays off on it, lines is the small table
+                query("findByLineType", () -> lineRepository.findByLineType(LineType.TRAM), "transport_line"),
+                // LIKE '%...%' cannot use a b-tree index
+                query("findByNameContainingIgnoreCase",
+                        () -> lineRepository.findByNameContainingIgnoreCase("ine 12"), "transport_line"),
+                query("existsByName", () -> lineRepository.existsByName("Line 1234")),
+                query("findWithSchedulesById", () -> lineRepository.findWithSchedulesById(line)),
+                query("findWithSchedulesByLineType",
+                        () -> lineRepository.findWithSchedulesByLineType(LineType.TRAM), "transport_line"),
+                query("findExistingIds", () -> lineRepository.findExistingIds(someLines)),
+                // Counts every schedule of every line: a full pass over both tables is the cheapest plan
+                query("streamSummaries", () -> transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<?> stream = lineRepository.streamSummaries()) {
+                        stream.limit(10).forEach(summary -> { });
+                    }
+                }), "transport_line", "schedule"),
+                query("findSummaryPage", () -> lineRepository.findSummaryPage(firstLineId + 1_000, Limit.of(100))),
+                query("findIdPage", () -> lineRepository.findIdPage(firstLineId + 1_000, Limit.of(100))),
+                query("findWithSchedulesByIdIn", () -> lineRepository.findWithSchedulesByIdIn(someLines)),
+
+                query("findByName", () -> stationRepository.findByName("Station 250")));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void queryDoesNotScanLargeTables(String name, Runnable query, Set<String> mayScan) {
+        events.clear();
+        query.run();
+        List<QueryInfo> statements = events.stream(JdbcQueryExecutionEvent.class)
+                .filter(JdbcQueryExecutionEvent::isAfter)
+                .flatMap(event -> event.getQueryInfoList().stream())
+                .filter(info -> info.getQuery().trim().toLowerCase().startsWith("select"))
+                .toList();
+        assertThat(statements).as("SQL sent by %s", name).isNotEmpty();
+
+        for (QueryInfo statement : statements) {
+            String plan = explain(statement);
+            Matcher scan = SEQ_SCAN.matcher(plan);
+            while (scan.find()) {
+                if (!mayScan.contains(scan.group(1))) {
+                    fail("%s scans %s sequentially:%n%s%n%s".formatted(name, scan.group(1), statement.getQuery(), plan));
+                }
+            }
+        }
+    }
+
+    private String explain(QueryInfo statement) {
+        return jdbcTemplate.execute("EXPLAIN " + statement.getQuery(), (PreparedStatement ps) -> {
+            if (!statement.getParametersList().isEmpty()) {
+                bind(ps, statement.getParametersList().get(0));
+            }
+            List<String> lines = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lines.add(rs.getString(1));
+                }
+            }
+            return String.join("\n", lines);
+        });
+    }
+
+    // Same parameters as Hibernate bound: args are (index, value) or, for setNull, (index, sqlType)
+    private static void bind(PreparedStatement ps, List<ParameterSetOperation> parameters) throws SQLException {
+        for (ParameterSetOperation parameter : parameters) {
+            Object[] args = parameter.getArgs();
+            int index = (Integer) args[0];
+            if (parameter.getMethod().getName().equals("setNull")) {
+                ps.setNull(index, (Integer) args[1]);
+            } else {
+                ps.setObject(index, args[1]);
+            }
+        }
+    }
+
+    private static Arguments query(String name, Runnable query, String... mayScan) {
+        return Arguments.of(name, query, Set.of(mayScan));
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.myrest.service;
+
+import org.example.myrest.event.ScheduleChangedEvent;
+import org.example.myrest.event.SchedulesImportedEvent;
+import org.example.myrest.model.Schedule;
+import org.example.myrest.model.TransportLine;
+import org.example.myrest.repository.ScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.example.myrest.service.TimetableIndexTests.line;
+import static org.example.myrest.service.TimetableIndexTests.schedule;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Connection Scan on a small network:
+//   M1: A -> B 08:00-08:10, B -> C 08:15-08:30
+//   B2: A -> C 07:50-08:40 (direct but slow), B -> D 08:12-08:20, D -> C 08:22-08:25
+//   N3: G -> H 23:40-23:55, H -> I 00:05-00:20 (the next morning's run)
+class JourneyPlannerTests {
+
+    private final ScheduleRepository scheduleRepository = mock(ScheduleRepository.class);
+    private final JourneyPlanner planner = new JourneyPlanner(scheduleRepository, mock(TimetableIndex.class),
+            mock(PlatformTransactionManager.class));
+
+    private final TransportLine metro = line(1L, "M1");
+    private final TransportLine bus = line(2L, "B2");
+    private final TransportLine night = line(3L, "N3");
+    private final List<Schedule> schedules = new ArrayList<>();
+
+    @BeforeEach
+    void loadNetwork() {
+        schedules.add(schedule(1L, metro, "A", "B", "08:00", "08:10"));
+        schedules.add(schedule(2L, metro, "B", "C", "08:15", "08:30"));
+        schedules.add(schedule(3L, bus, "A", "C", "07:50", "08:40"));
+        schedules.add(schedule(4L, bus, "B", "D", "08:12", "08:20"));
+        schedules.add(schedule(5L, bus, "D", "C", "08:22", "08:25"));
+        schedules.add(schedule(6L, night, "G", "H", "23:40", "23:55"));
+        schedules.add(schedule(7L, night, "H", "I", "00:05", "00:20"));
+        when(scheduleRepository.findAll()).thenReturn(schedules);
+        planner.rebuild();
+    }
+
+    @Test
+    void picksTheEarliestArrivalNotTheFewestLegs() {
+        JourneyPlanner.Journey journey = planner.plan("A", "C", LocalTime.of(7, 45)).orElseThrow();
+
+        // A-B on M1, change to B2 for B-D-C: 08:25, ahead of M1 through (08:30) and the direct bus (08:40)
+        assertThat(journey.legs()).extracting(JourneyPlanner.Leg::scheduleId).containsExactly(1L, 4L, 5L);
+        assertThat(journey.departureTime()).isEqualTo(LocalTime.of(8, 0));
+        assertThat(journey.arrivalTime()).isEqualTo(LocalTime.of(8, 25));
+        assertThat(journey.transfers()).isEqualTo(1);
+    }
+
+    @Test
+    void staysOnOneLineWhenTheConnectionIsMissed() {
+        // Leaving B at 08:13, the 08:12 bus is gone: M1 straight through, no transfer
+        JourneyPlanner.Journey journey = planner.plan("B", "C", LocalTime.of(8, 13)).orElseThrow();
+
+        assertThat(journey.legs()).extracting(JourneyPlanner.Leg::scheduleId).containsExactly(2L);
+        assertThat(journey.legs().get(0).lineId()).isEqualTo(1L);
+        assertThat(journey.transfers()).isZero();
+    }
+
+    @Test
+    void departureTimeIsInclusiveAndStationsCaseInsensitive() {
+        JourneyPlanner.Journey journey = planner.plan(" a ", "b", LocalTime.of(8, 0)).orElseThrow();
+
+        assertThat(journey.from()).isEqualTo("A");
+        assertThat(journey.to()).isEqualTo("B");
+        assertThat(journey.legs()).extracting(JourneyPlanner.Leg::scheduleId).containsExactly(1L);
+    }
+
+    @Test
+    void noRouteOnceTheLastConnectionHasLeft() {
+        assertThat(planner.plan("A", "C", LocalTime.of(8, 1))).isEmpty();
+        assertThat(planner.plan("C", "A", LocalTime.of(7, 0))).isEmpty();
+        assertThat(planner.plan("A", "G", LocalTime.of(7, 0))).isEmpty();
+    }
+
+    @Test
+    void journeysDoNotWrapPastMidnight() {
+        // G-H reaches H at 23:55; the 00:05 H-I run belongs to the next day
+        assertThat(planner.plan("G", "H", LocalTime.of(23, 30)).map(JourneyPlanner.Journey::arrivalTime))
+                .contains(LocalTime.of(23, 55));
+        assertThat(planner.plan("G", "I", LocalTime.of(23, 30))).isEmpty();
+        assertThat(planner.plan("A", "C", LocalTime.of(23, 0))).isEmpty();
+    }
+
+    @Test
+    void unknownOrIdenticalStationsAreRejected() {
+        assertThatThrownBy(() -> planner.plan("A", "Z", LocalTime.NOON))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Unknown station");
+        assertThatThrownBy(() -> planner.plan("A", "a", LocalTime.NOON))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void scheduleEventsUpdateTheTable() {
+        Schedule express = schedule(8L, metro, "A", "C", "08:01", "08:20");
+        planner.onScheduleChanged(ScheduleChangedEvent.created(express));
+        assertThat(planner.plan("A", "C", LocalTime.of(7, 45)).map(JourneyPlanner.Journey::arrivalTime))
+                .contains(LocalTime.of(8, 20));
+
+        planner.onScheduleChanged(ScheduleChangedEvent.deleted(express));
+        assertThat(planner.plan("A", "C", LocalTime.of(7, 45)).map(JourneyPlanner.Journey::arrivalTime))
+                .contains(LocalTime.of(8, 25));
+    }
+
+    @Test
+    void importRebuildsFromTheRepository() {
+        schedules.add(schedule(9L, bus, "C", "E", "09:00", "09:10"));
+
+        planner.onSchedulesImported(new SchedulesImportedEvent(Set.of(2L), 1));
+
+        assertThat(planner.plan("A", "E", LocalTime.of(7, 45)).orElseThrow().legs())
+                .extracting(JourneyPlanner.Leg::scheduleId).containsExactly(1L, 4L, 5L, 9L);
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.myrest.service;
+
+import org.example.myrest.event.LineChangedEvent;
+import org.example.myrest.event.ScheduleChangedEvent;
+import org.example.myrest.event.SchedulesImportedEvent;
+import org.example.myrest.model.LineStatus;
+import org.example.myrest.model.LineType;
+import org.example.myrest.model.Schedule;
+import org.example.myrest.model.TransportLine;
+import org.example.myrest.repository.ScheduleRepository;
+import org.example.myrest.repository.TransportLineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// The index on its own, fed from mocked repositories; events are delivered by calling the listeners
+class TimetableIndexTests {
+
+    private final TransportLineRepository lineRepository = mock(TransportLineRepository.class);
+    private final ScheduleRepository scheduleRepository = mock(ScheduleRepository.class);
+    private final TimetableIndex index = new TimetableIndex(lineRepository, scheduleRepository,
+            mock(PlatformTransactionManager.class));
+
+    private final TransportLine metro = line(1L, "M1");
+    private final TransportLine bus = line(2L, "B2");
+    private final List<Schedule> schedules = new ArrayList<>();
+
+    @BeforeEach
+    void loadIndex() {
+        schedules.add(schedule(10L, metro, "A", "B", "08:30", "08:45"));
+        schedules.add(schedule(11L, metro, "A", "B", "07:00", "07:15"));
+        schedules.add(schedule(12L, metro, "B", "C", "22:00", "22:20"));
+        when(lineRepository.findAll()).thenReturn(List.of(metro, bus));
+        when(scheduleRepository.findAll()).thenReturn(schedules);
+        index.rebuild();
+    }
+
+    @Test
+    void nextDepartureIsTheFirstStrictlyAfterTheGivenTime() {
+        TimetableIndex.LineTimetable timetable = index.getLine(1L).orElseThrow();
+
+        assertThat(timetable.size()).isEqualTo(3);
+        assertThat(timetable.nextDeparture(LocalTime.of(6, 0)).map(TimetableIndex.Departure::scheduleId)).contains(11L);
+        assertThat(timetable.nextDeparture(LocalTime.of(7, 0)).map(TimetableIndex.Departure::scheduleId)).contains(10L);
+        assertThat(timetable.nextDeparture(LocalTime.of(8, 31)).map(TimetableIndex.Departure::departureTime))
+                .contains(LocalTime.of(22, 0));
+    }
+
+    @Test
+    void noDepartureAfterTheLastOneOfTheDay() {
+        // No wrap past midnight: tomorrow's 07:00 is not the next departure
+        assertThat(index.getLine(1L).orElseThrow().nextDeparture(LocalTime.of(22, 0))).isEmpty();
+        assertThat(index.getLine(1L).orElseThrow().nextDeparture(LocalTime.of(23, 59, 59))).isEmpty();
+        assertThat(index.getLine(2L).orElseThrow().nextDeparture(LocalTime.MIDNIGHT)).isEmpty();
+        assertThat(index.getLine(3L)).isEmpty();
+    }
+
+    @Test
+    void scheduleEventsInsertInOrderAndRemove() {
+        index.onScheduleChanged(ScheduleChangedEvent.created(schedule(13L, metro, "C", "D", "07:30", "07:50")));
+
+        TimetableIndex.LineTimetable timetable = index.getLine(1L).orElseThrow();
+        assertThat(timetable.size()).isEqualTo(4);
+        TimetableIndex.Departure next = timetable.nextDeparture(LocalTime.of(7, 0)).orElseThrow();
+        assertThat(next.scheduleId()).isEqualTo(13L);
+        assertThat(next.stationFrom()).isEqualTo("C");
+        assertThat(next.stationTo()).isEqualTo("D");
+
+        index.onScheduleChanged(ScheduleChangedEvent.deleted(schedule(11L, metro, "A", "B", "07:00", "07:15")));
+        assertThat(index.getLine(1L).orElseThrow().nextDeparture(LocalTime.of(6, 0))
+                .map(TimetableIndex.Departure::scheduleId)).contains(13L);
+    }
+
+    @Test
+    void lineEventsUpdateNameAndStatusAndDropTheLine() {
+        metro.setName("M1 Express");
+        metro.setLineStatus(LineStatus.DELAYED);
+        index.onLineChanged(LineChangedEvent.updated(metro, LineType.METRO, LineStatus.ACTIVE));
+
+        TimetableIndex.LineTimetable timetable = index.getLine(1L).orElseThrow();
+        assertThat(timetable.getLineName()).isEqualTo("M1 Express");
+        assertThat(timetable.getStatus()).isEqualTo(LineStatus.DELAYED);
+        assertThat(timetable.size()).isEqualTo(3);
+
+        index.onLineChanged(LineChangedEvent.deleted(metro));
+        assertThat(index.getLine(1L)).isEmpty();
+    }
+
+    @Test
+    void importReloadsTheTouchedLinesOnly() {
+        when(lineRepository.findById(2L)).thenReturn(Optional.of(bus));
+        when(scheduleRepository.findByTransportLineId(2L)).thenReturn(List.of(
+                schedule(20L, bus, "X", "Y", "09:00", "09:30")));
+        when(lineRepository.findById(1L)).thenReturn(Optional.empty());   // Deleted meanwhile
+
+        index.onSchedulesImported(new SchedulesImportedEvent(Set.of(1L, 2L), 1));
+
+        assertThat(index.getLine(1L)).isEmpty();
+        assertThat(index.getLine(2L).orElseThrow().nextDeparture(LocalTime.of(8, 0))
+                .map(TimetableIndex.Departure::scheduleId)).contains(20L);
+    }
+
+    static TransportLine line(long id, String name) {
+        TransportLine line = new TransportLine(name, LineType.METRO, LineStatus.ACTIVE, null);
+        line.setId(id);
+        return line;
+    }
+
+    static Schedule schedule(long id, TransportLine line, String from, String to, String departure, String arrival) {
+        Schedule schedule = new Schedule(line, from, to, LocalTime.parse(departure), LocalTime.parse(arrival));
+        schedule.setId(id);
+        return schedule;
+    }
+}
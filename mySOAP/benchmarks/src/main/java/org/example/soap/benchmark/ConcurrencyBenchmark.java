@@ -0,0 +1,149 @@
+// benchmarks/src/main/java/org/example/soap/benchmark/ConcurrencyBenchmark.java
+package org.example.soap.benchmark;
+
+import org.example.soap.SoapAirQualityApplication;
+import org.example.soap.model.ZoneReading;
+import org.example.soap.service.ZoneSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LOAD TEST: THREADING MODEL + DATABASE BULKHEAD
+ * ═══════════════════════════════════════════════
+ *
+ * CLIENTS threads send GetReadingHistory (a 2-hour window = 120 readings, read from
+ * the database while the response is written) to a service started in the same JVM.
+ *
+ *   threads   platform → Tomcat's thread pool (200 threads), as before
+ *             virtual  → a virtual thread per request
+ *   bulkhead  true     → the default permits: at most 8 history queries at once
+ *                        (connection pool of 10 minus the headroom)
+ *             false    → limit out of reach: requests queue inside the connection pool
+ *
+ * Both give up after 30 s (the connection pool's own timeout), so only the queueing differs.
+ *
+ * WHAT TO READ IN THE RESULTS:
+ * ────────────────────────────
+ * - thrpt    → requests per millisecond
+ * - sample   → latency percentiles (p0.99 = p99)
+ * Any answer other than 200 fails the run: a fast "busy" fault never counts as a fast request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(ConcurrencyBenchmark.CLIENTS)
+public class ConcurrencyBenchmark {
+
+    static final int CLIENTS = 64;
+
+    private static final int READINGS_PER_ZONE = 24 * 60;   // One a minute, over the last day
+    private static final long SEED = 42L;
+
+    private static final String ENVELOPE =
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" " +
+            "xmlns:aq=\"http://example.com/air-quality-service\"><soapenv:Body>" +
+            "<aq:GetReadingHistoryRequest><aq:zoneName>%s</aq:zoneName>" +
+            "<aq:from>%s</aq:from><aq:to>%s</aq:to></aq:GetReadingHistoryRequest>" +
+            "</soapenv:Body></soapenv:Envelope>";
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"true", "false"})
+    public boolean bulkhead;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI uri;
+    private List<String> zones;
+    private Instant start;
+
+    @Setup(Level.Trial)
+    public void startService() {
+        boolean virtual = "virtual".equals(threads);
+        context = SpringApplication.run(SoapAirQualityApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--airquality.db.bulkhead.permits=" + (bulkhead ? 0 : 100_000),   // 0 = default
+                "--airquality.db.bulkhead.max-wait-ms=30000",
+                "--logging.level.root=WARN",
+                "--spring.main.banner-mode=off");
+        zones = context.getBean(ZoneSnapshot.class).get().all().stream().map(ZoneReading::zoneName).toList();
+        start = Instant.now().truncatedTo(ChronoUnit.MINUTES).minus(Duration.ofMinutes(READINGS_PER_ZONE));
+        addReadings(context.getBean(JdbcTemplate.class));
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        uri = URI.create("http://localhost:" + port + "/ws");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopService() {
+        context.close();
+    }
+
+    // A different, repeatable sequence of zones and windows per client thread
+    @State(Scope.Thread)
+    public static class Cursor {
+        private Random random;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams threadParams) {
+            random = new Random(SEED + threadParams.getThreadIndex());
+        }
+    }
+
+    @Benchmark
+    public byte[] readingHistory(Cursor cursor) throws IOException, InterruptedException {
+        String zone = zones.get(cursor.random.nextInt(zones.size()));
+        Instant from = start.plus(Duration.ofMinutes(cursor.random.nextInt(READINGS_PER_ZONE - 120)));
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "text/xml; charset=utf-8")
+                .POST(HttpRequest.BodyPublishers.ofString(ENVELOPE.formatted(zone, from, from.plus(Duration.ofHours(2)))))
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + ": " + new String(response.body()));
+        }
+        return response.body();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════════
+
+    private void addReadings(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(SEED);
+        for (String zone : zones) {
+            List<Object[]> rows = new ArrayList<>(READINGS_PER_ZONE);
+            for (int i = 0; i < READINGS_PER_ZONE; i++) {
+                int aqi = 20 + random.nextInt(200);
+                rows.add(new Object[]{zone, Timestamp.from(start.plus(Duration.ofMinutes(i))), aqi,
+                        aqi <= 100 ? "Moderate" : "Unhealthy",
+                        random.nextDouble() * 100, random.nextDouble() * 80, 400 + random.nextDouble() * 50,
+                        random.nextDouble() * 60});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO air_quality_readings " +
+                    "(zone_name, measured_at, aqi, status, pm10, no2, co2, o3) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+// benchmarks/src/main/java/org/example/soap/benchmark/SoapEndpointBenchmark.java
+package org.example.soap.benchmark;
+
+import org.example.soap.SoapAirQualityApplication;
+import org.example.soap.service.ZoneSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SOAP REQUESTS, END TO END
+ * ══════════════════════════
+ *
+ * Starts the whole service (on a random port, in-memory database) once per combination of
+ *
+ *   messageFactory     streaming | saaj     (airquality.ws.message-factory)
+ *   pooledMarshallers  true | false         (airquality.ws.pooled-marshallers)
+ *
+ * and sends real HTTP requests to /ws:
+ * - getAirQuality          → one zone, a small response
+ * - getAllZones            → GetAllZones: every zone (ZONES of them), served from the
+ *                            cached marshalled payload
+ * - getAirQualityBatchAll  → GetAirQualityBatch without zone names: every zone again,
+ *                            marshalled for each request
+ *
+ * WHAT TO READ IN THE RESULTS:
+ * ────────────────────────────
+ * - Score               → requests per second (one client thread; use -t to add more)
+ * - gc.alloc.rate.norm  → bytes allocated per request, client AND server (same JVM).
+ *                         The client part is the same in every configuration,
+ *                         so the differences come from the server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SoapEndpointBenchmark {
+
+    private static final int ZONES = 200;
+
+    private static final String ENVELOPE =
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" " +
+            "xmlns:aq=\"http://example.com/air-quality-service\">" +
+            "<soapenv:Header/><soapenv:Body>%s</soapenv:Body></soapenv:Envelope>";
+
+    @Param({"streaming", "saaj"})
+    public String messageFactory;
+
+    @Param({"true", "false"})
+    public boolean pooledMarshallers;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest getAirQuality;
+    private HttpRequest getAllZones;
+    private HttpRequest getAirQualityBatchAll;
+
+    @Setup(Level.Trial)
+    public void startService() {
+        context = SpringApplication.run(SoapAirQualityApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--airquality.ws.message-factory=" + messageFactory,
+                "--airquality.ws.pooled-marshallers=" + pooledMarshallers,
+                "--logging.level.root=WARN",
+                "--spring.main.banner-mode=off");
+        addZones(context);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        URI uri = URI.create("http://localhost:" + port + "/ws");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        getAirQuality = post(uri,
+                "<aq:GetAirQualityRequest><aq:zoneName>Tunis Center</aq:zoneName></aq:GetAirQualityRequest>");
+        getAllZones = post(uri, "<aq:GetAllZonesRequest/>");
+        getAirQualityBatchAll = post(uri, "<aq:GetAirQualityBatchRequest/>");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopService() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getAirQuality() throws IOException, InterruptedException {
+        return send(getAirQuality);
+    }
+
+    @Benchmark
+    public byte[] getAllZones() throws IOException, InterruptedException {
+        return send(getAllZones);
+    }
+
+    @Benchmark
+    public byte[] getAirQualityBatchAll() throws IOException, InterruptedException {
+        return send(getAirQualityBatchAll);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════════
+
+    private byte[] send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + ": " + new String(response.body()));
+        }
+        return response.body();
+    }
+
+    private static HttpRequest post(URI uri, String payload) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "text/xml; charset=utf-8")
+                .POST(HttpRequest.BodyPublishers.ofString(ENVELOPE.formatted(payload)))
+                .build();
+    }
+
+    // data.sql only has a handful of zones: add more so the batch response has some weight
+    private static void addZones(ConfigurableApplicationContext context) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= ZONES; i++) {
+            rows.add(new Object[]{"Benchmark Zone " + i, 20 + i % 250, 10.0 + i % 90, 5.0 + i % 70, 400.0 + i % 50, i % 60});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO air_quality_zones (zone_name, aqi, status, pm10, no2, co2, o3) " +
+                "VALUES (?, ?, 'Moderate', ?, ?, ?, ?)", rows);
+        context.getBean(ZoneSnapshot.class).refresh();
+    }
+}
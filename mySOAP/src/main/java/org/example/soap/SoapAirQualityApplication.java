@@ -3,6 +3,7 @@ package org.example.soap;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * MAIN APPLICATION CLASS
@@ -12,8 +13,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - @Configuration: This class can define @Bean methods
  * - @EnableAutoConfiguration: Spring configures things automatically
  * - @ComponentScan: Finds @Configuration, @Repository, @Endpoint in this package
+ *
+ * @EnableScheduling runs @Scheduled methods (e.g. the zone snapshot refresh).
  */
  @SpringBootApplication
+ @EnableScheduling
 public class SoapAirQualityApplication {
     public static void main(String[] args) {
         SpringApplication.run(SoapAirQualityApplication.class, args);
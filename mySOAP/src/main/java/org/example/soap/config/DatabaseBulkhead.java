@@ -0,0 +1,114 @@
+// src/main/java/org/example/soap/config/DatabaseBulkhead.java
+package org.example.soap.config;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DATABASE BULKHEAD
+ * ══════════════════
+ *
+ * Limits how many GetReadingHistory responses read the database AT THE SAME TIME
+ * (see DatabaseBulkheadConfig).
+ *
+ * WHY?
+ * ────
+ * With virtual threads (spring.threads.virtual.enabled=true) there is no thread pool
+ * limiting the number of requests in progress any more: 5 000 slow clients = 5 000 threads.
+ * The connection pool only has a handful of connections, so without a limit they would all
+ * queue inside the pool and time out together.
+ *
+ * Here a request waits for a PERMIT instead:
+ * - first come, first served (fair semaphore) → steady p99 under load
+ * - at most max-wait; after that it fails fast with DatabaseBusyException
+ *   (a Server fault for SOAP callers)
+ *
+ * The permit is held while the response is streamed from the query, after the endpoint
+ * has returned, so it is taken explicitly with acquire() and given back by Permit.close().
+ */
+public class DatabaseBulkhead {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long maxWaitMs;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public DatabaseBulkhead(int maxConcurrent, long maxWaitMs) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("airquality.db.bulkhead.permits must be at least 1");
+        }
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    /**
+     * Take a permit that stays taken until Permit.close() is called (on any thread).
+     *
+     * @throws DatabaseBusyException if no permit became free within max-wait
+     */
+    public Permit acquire() {
+        try {
+            acquirePermit();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted while waiting for the database");
+        }
+        return new Permit();
+    }
+
+    private void acquirePermit() throws InterruptedException {
+        if (!permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+            rejected.increment();
+            throw new DatabaseBusyException("Database busy: " + maxConcurrent +
+                    " requests already in progress. Please retry later.");
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // STATISTICS
+    // ═══════════════════════════════════════════════════════════════════
+
+    public int inUse() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int waiting() {
+        return permits.getQueueLength();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // INNER CLASSES
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * A permit held outside a method call. close() gives it back; calling it again does nothing.
+     */
+    public class Permit implements AutoCloseable {
+
+        private final AtomicBoolean open = new AtomicBoolean(true);
+
+        @Override
+        public void close() {
+            if (open.compareAndSet(true, false)) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * No permit within max-wait. Spring WS turns it into a Server fault with this message.
+     */
+    public static class DatabaseBusyException extends RuntimeException {
+        public DatabaseBusyException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+// src/main/java/org/example/soap/config/DatabaseBulkheadConfig.java
+package org.example.soap.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * THE DATABASE BULKHEAD: GetReadingHistory ONLY
+ * ══════════════════════════════════════════════
+ *
+ * GetReadingHistory is the only request that still reads the database: GetAirQuality,
+ * FindNearestZones and GetZoneAverages answer from memory, and readings are written by
+ * the ingestion writer. So it is the only caller of the bulkhead: it takes its permit
+ * itself (DatabaseBulkhead.acquire()), because its query runs while the response is
+ * written, after the endpoint has returned - too late to answer "busy" with a fault.
+ *
+ * Background work does NOT take a permit: the ingestion writer, the history compactor
+ * and the zone snapshot refresh (the only user of AirQualityRepository) each use at most
+ * one connection at a time. Behind the bulkhead, the refresh would only fail with
+ * "Database busy" while history streams hold every permit.
+ *
+ * PERMITS < POOL SIZE
+ * ───────────────────
+ * By default the permits leave POOL_HEADROOM connections of the pool free for that
+ * background work and the health checks: they must not find every connection held by
+ * history streams.
+ *
+ * THREADS: spring.threads.virtual.enabled=true runs every request on its own virtual thread.
+ */
+@Configuration(proxyBeanMethods = false)
+public class DatabaseBulkheadConfig {
+
+    static final int POOL_HEADROOM = 2;
+
+    @Bean
+    public DatabaseBulkhead databaseBulkhead(
+            @Value("${airquality.db.bulkhead.permits:0}") int permits,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${airquality.db.bulkhead.max-wait-ms:2000}") long maxWaitMs) {
+        // 0 = not set: the pool size minus the headroom
+        return new DatabaseBulkhead(permits > 0 ? permits : Math.max(1, poolSize - POOL_HEADROOM), maxWaitMs);
+    }
+}
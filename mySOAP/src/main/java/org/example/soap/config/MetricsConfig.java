@@ -0,0 +1,85 @@
+// src/main/java/org/example/soap/config/MetricsConfig.java
+package org.example.soap.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.soap.service.ReadingCompactor;
+import org.example.soap.service.ReadingIngestionService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * METRICS (scraped from GET /actuator/prometheus)
+ * ════════════════════════════════════════════════
+ *
+ * Measured by Spring Boot / libraries, nothing to do here:
+ * - hikaricp.connections.*   connection pool: active, idle, pending, acquire time
+ * - jdbc.query               time of every SQL statement (datasource-micrometer)
+ * - jvm.*, process.*         memory, GC, threads, CPU
+ *
+ * Ours:
+ * - airquality.soap.requests(.active)   per SOAP operation (SoapMetricsInterceptor)
+ * - airquality.db.bulkhead.*            permits in use, requests waiting / turned away
+ * - airquality.ingest.*                 queue depth and what the batch writer did
+ * - airquality.compaction.*             readings rolled up, rows deleted by retention
+ *
+ * The counters already existed in the classes below: they are only exposed here.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder databaseBulkheadMetrics(DatabaseBulkhead databaseBulkhead) {
+        return registry -> {
+            Gauge.builder("airquality.db.bulkhead.active", databaseBulkhead, DatabaseBulkhead::inUse)
+                    .description("Permits in use").register(registry);
+            Gauge.builder("airquality.db.bulkhead.waiting", databaseBulkhead, DatabaseBulkhead::waiting)
+                    .description("Requests waiting for a permit").register(registry);
+            counter(registry, "airquality.db.bulkhead.rejected", databaseBulkhead, DatabaseBulkhead::rejectedCount,
+                    "Requests answered \"Database busy\"");
+        };
+    }
+
+    @Bean
+    public MeterBinder ingestionMetrics(ReadingIngestionService ingestion) {
+        return registry -> {
+            Gauge.builder("airquality.ingest.queue.depth", ingestion, ReadingIngestionService::getQueueDepth)
+                    .description("Readings waiting to be written").register(registry);
+            counter(registry, "airquality.ingest.accepted", ingestion, ReadingIngestionService::getAccepted,
+                    "Readings queued");
+            counter(registry, "airquality.ingest.rejected", ingestion, ReadingIngestionService::getRejected,
+                    "Readings refused as invalid");
+            counter(registry, "airquality.ingest.throttled", ingestion, ReadingIngestionService::getThrottled,
+                    "Submissions stopped because the queue stayed full");
+            counter(registry, "airquality.ingest.written", ingestion, ReadingIngestionService::getWritten,
+                    "Readings stored");
+            counter(registry, "airquality.ingest.failed", ingestion, ReadingIngestionService::getFailed,
+                    "Readings refused by the database, or not written before shutdown");
+            counter(registry, "airquality.ingest.retries", ingestion, ReadingIngestionService::getRetries,
+                    "Writes tried again after a transient database error");
+            counter(registry, "airquality.ingest.batches", ingestion, ReadingIngestionService::getBatches,
+                    "Transactions committed by the writer");
+        };
+    }
+
+    @Bean
+    public MeterBinder compactionMetrics(ReadingCompactor compactor) {
+        return registry -> {
+            counter(registry, "airquality.compaction.rolled.up", compactor, ReadingCompactor::getRolledUp,
+                    "Readings added to the minute / hour / day averages");
+            counter(registry, "airquality.compaction.deleted.readings", compactor, ReadingCompactor::getDeletedReadings,
+                    "Raw readings deleted after their retention");
+            counter(registry, "airquality.compaction.deleted.rollups", compactor, ReadingCompactor::getDeletedRollups,
+                    "Averages deleted after their retention");
+        };
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, T source, ToDoubleFunction<T> count,
+                                    String description) {
+        FunctionCounter.builder(name, source, count).description(description).register(registry);
+    }
+}
@@ -0,0 +1,191 @@
+// src/main/java/org/example/soap/config/PooledJaxbPayloadMethodProcessor.java
+package org.example.soap.config;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import jakarta.xml.bind.annotation.XmlSchema;
+import org.springframework.core.MethodParameter;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.endpoint.adapter.method.MethodArgumentResolver;
+import org.springframework.ws.server.endpoint.adapter.method.MethodReturnValueHandler;
+import org.springframework.ws.server.endpoint.annotation.RequestPayload;
+import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
+import org.springframework.ws.stream.StreamingPayload;
+import org.springframework.ws.stream.StreamingWebServiceMessage;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Source;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JAXB (UN)MARSHALLING WITH REUSED MARSHALLERS
+ * ═════════════════════════════════════════════
+ *
+ * Replaces Spring WS's default handling of @RequestPayload / @ResponsePayload classes
+ * generated from air-quality.xsd (see WebServiceConfig).
+ *
+ * WHAT THE DEFAULT DOES PER REQUEST:
+ * ──────────────────────────────────
+ * - a new Unmarshaller for the request, a new Marshaller for the response
+ *   (each one allocates its own internal buffers and tables)
+ * - one JAXBContext PER CLASS, plus a JAXBIntrospector per response to find the element name
+ *
+ * WHAT THIS DOES INSTEAD:
+ * ───────────────────────
+ * - ONE JAXBContext for the whole generated package
+ * - Marshallers / Unmarshallers are BORROWED from a small pool and given back after use.
+ *   A thread holds one only while (un)marshalling, so the pool never grows beyond the
+ *   number of requests running at the same time (and keeps at most POOL_SIZE spares).
+ *   A pool rather than a ThreadLocal: it also works with virtual threads, which are
+ *   never reused, so a per-thread cache would never get a hit.
+ * - element names are read once per class from @XmlRootElement
+ */
+public class PooledJaxbPayloadMethodProcessor implements MethodArgumentResolver, MethodReturnValueHandler {
+
+    private static final int POOL_SIZE = 64;
+
+    private final JAXBContext jaxbContext;
+    private final Package generatedPackage;
+
+    private final BlockingQueue<Marshaller> marshallers = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final Map<Class<?>, QName> elementNames = new ConcurrentHashMap<>();
+
+    /**
+     * @param objectFactory the ObjectFactory generated by xjc; its package is the one handled
+     */
+    public PooledJaxbPayloadMethodProcessor(Class<?> objectFactory) {
+        try {
+            this.jaxbContext = JAXBContext.newInstance(objectFactory);
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Could not create the JAXB context for " + objectFactory.getPackageName(), e);
+        }
+        this.generatedPackage = objectFactory.getPackage();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // REQUEST: XML → Java object
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(RequestPayload.class) && isGenerated(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MessageContext messageContext, MethodParameter parameter) throws JAXBException {
+        Source payload = messageContext.getRequest().getPayloadSource();
+        if (payload == null) {
+            return null;
+        }
+        Unmarshaller unmarshaller = borrowUnmarshaller();
+        try {
+            return unmarshaller.unmarshal(payload);
+        } finally {
+            unmarshallers.offer(unmarshaller);   // Dropped if the pool is full
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // RESPONSE: Java object → XML
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return returnType.hasMethodAnnotation(ResponsePayload.class) && isGenerated(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(MessageContext messageContext, MethodParameter returnType, Object returnValue)
+            throws JAXBException {
+        if (returnValue == null) {
+            return;
+        }
+        WebServiceMessage response = messageContext.getResponse();
+        if (response instanceof StreamingWebServiceMessage streamingResponse) {
+            // Marshalled later, directly to the client
+            streamingResponse.setStreamingPayload(new JaxbPayload(elementName(returnValue.getClass()), returnValue));
+            return;
+        }
+        Marshaller marshaller = borrowMarshaller();
+        try {
+            marshaller.marshal(returnValue, response.getPayloadResult());
+        } finally {
+            marshallers.offer(marshaller);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════════
+
+    private boolean isGenerated(Class<?> type) {
+        return type.getPackage() == generatedPackage && type.isAnnotationPresent(XmlRootElement.class);
+    }
+
+    private QName elementName(Class<?> type) {
+        return elementNames.computeIfAbsent(type, t -> {
+            XmlRootElement root = t.getAnnotation(XmlRootElement.class);
+            String namespace = "##default".equals(root.namespace())
+                    ? t.getPackage().getAnnotation(XmlSchema.class).namespace()
+                    : root.namespace();
+            return new QName(namespace, root.name());
+        });
+    }
+
+    private Marshaller borrowMarshaller() throws JAXBException {
+        Marshaller marshaller = marshallers.poll();
+        if (marshaller == null) {
+            marshaller = jaxbContext.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);  // Part of a SOAP body, no <?xml ...?>
+        }
+        return marshaller;
+    }
+
+    private Unmarshaller borrowUnmarshaller() throws JAXBException {
+        Unmarshaller unmarshaller = unmarshallers.poll();
+        return unmarshaller != null ? unmarshaller : jaxbContext.createUnmarshaller();
+    }
+
+    /**
+     * A response object that is marshalled when the message is written.
+     */
+    private class JaxbPayload implements StreamingPayload {
+
+        private final QName name;
+        private final Object value;
+
+        JaxbPayload(QName name, Object value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public QName getName() {
+            return name;
+        }
+
+        @Override
+        public void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+            try {
+                Marshaller marshaller = borrowMarshaller();
+                try {
+                    marshaller.marshal(value, writer);
+                } finally {
+                    marshallers.offer(marshaller);
+                }
+            } catch (JAXBException e) {
+                throw new XMLStreamException("Could not marshal " + name + ": " + e.getMessage(), e);
+            }
+        }
+    }
+}
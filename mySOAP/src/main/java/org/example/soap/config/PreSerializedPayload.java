@@ -0,0 +1,81 @@
+// src/main/java/org/example/soap/config/PreSerializedPayload.java
+package org.example.soap.config;
+
+import org.springframework.ws.stream.StreamingPayload;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A payload that is ALREADY XML bytes (e.g. the cached GetAllZones response).
+ *
+ * A StreamingSoapMessage copies the bytes straight into the response: no parsing, no DOM.
+ * Anywhere else (e.g. a plain SAAJ message) they are replayed through writeTo(XMLStreamWriter).
+ *
+ * @param name  the payload's root element
+ * @param bytes a UTF-8 XML fragment (no XML declaration) - never modified
+ */
+public record PreSerializedPayload(QName name, byte[] bytes) implements StreamingPayload {
+
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newFactory();
+
+    @Override
+    public QName getName() {
+        return name;
+    }
+
+    // Fast path, used by StreamingSoapMessage
+    void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(bytes);
+    }
+
+    // Slow path: re-read the bytes and replay them as StAX events
+    @Override
+    public void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(bytes), "UTF-8");
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        writer.writeStartElement(prefix(reader.getPrefix()), reader.getLocalName(),
+                                uri(reader.getNamespaceURI()));
+                        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                            String prefix = reader.getNamespacePrefix(i);
+                            if (prefix == null || prefix.isEmpty()) {
+                                writer.writeDefaultNamespace(reader.getNamespaceURI(i));
+                            } else {
+                                writer.writeNamespace(prefix, reader.getNamespaceURI(i));
+                            }
+                        }
+                        for (int i = 0; i < reader.getAttributeCount(); i++) {
+                            writer.writeAttribute(prefix(reader.getAttributePrefix(i)),
+                                    uri(reader.getAttributeNamespace(i)),
+                                    reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                            writer.writeCharacters(reader.getText());
+                    case XMLStreamConstants.END_ELEMENT -> writer.writeEndElement();
+                    default -> { }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static String prefix(String prefix) {
+        return prefix == null ? "" : prefix;
+    }
+
+    private static String uri(String uri) {
+        return uri == null ? "" : uri;
+    }
+}
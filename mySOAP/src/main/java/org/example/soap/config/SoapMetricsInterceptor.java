@@ -0,0 +1,137 @@
+// src/main/java/org/example/soap/config/SoapMetricsInterceptor.java
+package org.example.soap.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.ws.FaultAwareWebServiceMessage;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.server.endpoint.MethodEndpoint;
+import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LATENCY + IN-FLIGHT REQUESTS PER SOAP OPERATION
+ * ════════════════════════════════════════════════
+ *
+ * Every SOAP request goes to the same URL (/ws), so an HTTP-level timer would lump
+ * GetAirQuality and a year of GetReadingHistory together. This interceptor runs
+ * around the endpoint method, where the operation is known, and records:
+ *
+ *   airquality.soap.requests          timer  per operation + outcome (SUCCESS / FAULT)
+ *   airquality.soap.requests.active   gauge  per operation: requests in progress
+ *
+ * Operation = the request element without "Request" (GetAirQuality, SubmitReadings...).
+ * p50/p99/p999 are switched on in application.properties (management.metrics.distribution).
+ *
+ * WHEN DOES THE CLOCK STOP?
+ * ─────────────────────────
+ * Normally when the endpoint has returned. A streamed response (GetReadingHistory)
+ * does its real work while it is written, after that: there the clock stops once the
+ * last byte is written (StreamingSoapMessage.whenWritten).
+ *
+ * Registered in WebServiceConfig.addInterceptors. That happens while Spring is still
+ * creating its BeanPostProcessors, so the MeterRegistry is only looked up at the first
+ * request: created earlier, it would miss Spring Boot's settings (percentiles...).
+ */
+public class SoapMetricsInterceptor implements EndpointInterceptor {
+
+    static final String REQUESTS = "airquality.soap.requests";
+    static final String ACTIVE = "airquality.soap.requests.active";
+
+    // Message context property holding the request's start time + in-flight counter
+    private static final String STARTED = SoapMetricsInterceptor.class.getName() + ".started";
+
+    private final ObjectProvider<MeterRegistry> registryProvider;
+    private volatile MeterRegistry registry;
+    private final Map<Method, String> operations = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public SoapMetricsInterceptor(ObjectProvider<MeterRegistry> registryProvider) {
+        this.registryProvider = registryProvider;
+    }
+
+    @Override
+    public boolean handleRequest(MessageContext messageContext, Object endpoint) {
+        String operation = operation(endpoint);
+        AtomicInteger active = inFlight.computeIfAbsent(operation, this::registerActive);
+        active.incrementAndGet();
+        messageContext.setProperty(STARTED, new Started(operation, active, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public boolean handleResponse(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public boolean handleFault(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(MessageContext messageContext, Object endpoint, Exception ex) {
+        if (!(messageContext.getProperty(STARTED) instanceof Started started)) {
+            return;
+        }
+        messageContext.removeProperty(STARTED);
+        WebServiceMessage response = messageContext.hasResponse() ? messageContext.getResponse() : null;
+        boolean fault = ex != null || (response instanceof FaultAwareWebServiceMessage message && message.hasFault());
+
+        if (!fault && response instanceof StreamingSoapMessage streaming && streaming.isStreaming()) {
+            streaming.whenWritten(() -> finish(started, false));
+        } else {
+            finish(started, fault);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════════
+
+    private void finish(Started started, boolean fault) {
+        Timer.builder(REQUESTS)
+                .tag("operation", started.operation())
+                .tag("outcome", fault ? "FAULT" : "SUCCESS")
+                .register(registry())
+                .record(System.nanoTime() - started.nanos(), TimeUnit.NANOSECONDS);
+        started.active().decrementAndGet();
+    }
+
+    private AtomicInteger registerActive(String operation) {
+        AtomicInteger active = new AtomicInteger();
+        Gauge.builder(ACTIVE, active, AtomicInteger::get).tag("operation", operation).register(registry());
+        return active;
+    }
+
+    private MeterRegistry registry() {
+        MeterRegistry current = registry;
+        if (current == null) {
+            current = registryProvider.getObject();
+            registry = current;
+        }
+        return current;
+    }
+
+    private String operation(Object endpoint) {
+        if (!(endpoint instanceof MethodEndpoint methodEndpoint)) {
+            return "UNKNOWN";
+        }
+        return operations.computeIfAbsent(methodEndpoint.getMethod(), method -> {
+            PayloadRoot payloadRoot = method.getAnnotation(PayloadRoot.class);
+            String name = payloadRoot != null ? payloadRoot.localPart() : method.getName();
+            return name.endsWith("Request") ? name.substring(0, name.length() - "Request".length()) : name;
+        });
+    }
+
+    private record Started(String operation, AtomicInteger active, long nanos) {}
+}
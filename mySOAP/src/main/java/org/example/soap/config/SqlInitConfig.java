@@ -0,0 +1,135 @@
+// src/main/java/org/example/soap/config/SqlInitConfig.java
+package org.example.soap.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * RUNS schema.sql + data.sql ONLY WHEN THEY CHANGED
+ * ══════════════════════════════════════════════════
+ *
+ * spring.sql.init.mode=always runs both scripts at every start: every CREATE ... IF NOT
+ * EXISTS, then data.sql merges the seed zones in (missing zones added, existing ones only
+ * get their description and coordinates back). On a database that already went through
+ * exactly these scripts that is all wasted startup time.
+ *
+ * So after the scripts have run, a checksum of their text is stored in sql_init_state.
+ * At the next start:
+ *
+ *   same checksum      → nothing runs
+ *   different / none   → both scripts run (edited scripts, new or in-memory database)
+ *
+ * Running the scripts again is harmless either way: data.sql never deletes a zone nor
+ * resets its current values. airquality.sql-init.skip-unchanged=false runs them every time.
+ *
+ * Replaces the initializer Spring Boot would create (it backs off when one exists):
+ * Hibernate still waits for it, and spring.sql.init.* still applies.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SqlInitConfig {
+
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(
+            DataSource dataSource,
+            SqlInitializationProperties properties,
+            @Value("${airquality.sql-init.skip-unchanged:true}") boolean skipUnchanged) {
+        if (!skipUnchanged) {
+            return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties);
+        }
+        return new ChecksumScriptDatabaseInitializer(dataSource, properties);
+    }
+
+    static class ChecksumScriptDatabaseInitializer extends SqlDataSourceScriptDatabaseInitializer {
+
+        private static final Logger log = LoggerFactory.getLogger(ChecksumScriptDatabaseInitializer.class);
+        private static final String STATE = "scripts";
+
+        private final JdbcTemplate jdbcTemplate;
+        private final SqlInitializationProperties properties;
+
+        ChecksumScriptDatabaseInitializer(DataSource dataSource, SqlInitializationProperties properties) {
+            super(dataSource, properties);
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.properties = properties;
+        }
+
+        @Override
+        public boolean initializeDatabase() {
+            String checksum = checksum();
+            if (checksum.equals(storedChecksum())) {
+                log.info("schema.sql and data.sql unchanged since they last ran: skipped");
+                return false;
+            }
+            boolean initialized = super.initializeDatabase();
+            if (initialized) {
+                jdbcTemplate.update("MERGE INTO sql_init_state (name, checksum) KEY (name) VALUES (?, ?)",
+                        STATE, checksum);
+            }
+            return initialized;
+        }
+
+        // ═══════════════════════════════════════════════════════════════════
+        // PRIVATE HELPER METHODS
+        // ═══════════════════════════════════════════════════════════════════
+
+        private String storedChecksum() {
+            try {
+                List<String> stored = jdbcTemplate.queryForList(
+                        "SELECT checksum FROM sql_init_state WHERE name = ?", String.class, STATE);
+                return stored.isEmpty() ? null : stored.get(0);
+            } catch (DataAccessException noTableYet) {
+                return null;   // New database: the scripts have never run
+            }
+        }
+
+        /**
+         * SHA-256 over every script Spring Boot would run, in order.
+         */
+        private String checksum() {
+            List<String> locations = new ArrayList<>();
+            locations.addAll(properties.getSchemaLocations() != null
+                    ? properties.getSchemaLocations() : List.of("classpath*:schema.sql"));
+            locations.addAll(properties.getDataLocations() != null
+                    ? properties.getDataLocations() : List.of("classpath*:data.sql"));
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+                for (String location : locations) {
+                    digest.update(location.getBytes());
+                    for (Resource script : resolver.getResources(location.replaceFirst("^optional:", ""))) {
+                        if (!script.exists()) {
+                            continue;
+                        }
+                        try (InputStream in = script.getInputStream()) {
+                            digest.update(in.readAllBytes());
+                        }
+                    }
+                }
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+// src/main/java/org/example/soap/config/StreamingPayloadReturnValueHandler.java
+package org.example.soap.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.endpoint.adapter.method.MethodReturnValueHandler;
+import org.springframework.ws.stream.StreamingPayload;
+import org.springframework.ws.stream.StreamingWebServiceMessage;
+
+/**
+ * Lets @Endpoint methods RETURN a StreamingPayload.
+ *
+ * - Streaming response message → the payload is written later, directly to the client
+ * - Any other message (plain SAAJ) → the payload is written into the body right away
+ *
+ * Registered in WebServiceConfig.addReturnValueHandlers().
+ */
+public class StreamingPayloadReturnValueHandler implements MethodReturnValueHandler {
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return StreamingPayload.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(MessageContext messageContext, MethodParameter returnType, Object returnValue) {
+        if (returnValue == null) {
+            return;
+        }
+        StreamingPayload payload = (StreamingPayload) returnValue;
+        WebServiceMessage response = messageContext.getResponse();
+        if (response instanceof StreamingWebServiceMessage streamingResponse) {
+            streamingResponse.setStreamingPayload(payload);
+        } else {
+            StreamingSoapMessage.writePayload(payload, response.getPayloadResult());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+// src/main/java/org/example/soap/config/StreamingSoapMessage.java
+package org.example.soap.config;
+
+import jakarta.xml.soap.MessageFactory;
+import jakarta.xml.soap.SOAPMessage;
+import org.springframework.ws.soap.SoapHeader;
+import org.springframework.ws.soap.saaj.SaajSoapMessage;
+import org.springframework.ws.stream.StreamingPayload;
+import org.springframework.ws.stream.StreamingWebServiceMessage;
+import org.springframework.ws.transport.TransportOutputStream;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * SOAP MESSAGE WITH A STREAMED BODY
+ * ══════════════════════════════════
+ *
+ * A normal SAAJ message keeps the WHOLE envelope as a DOM tree in memory:
+ * the payload is first built as a tree, and only then written to the client.
+ * For a response with 100 000 readings that is 100 000 × (a dozen DOM nodes).
+ *
+ * This message can instead be given a StreamingPayload: an object that knows how
+ * to WRITE its XML, but has not done so yet. Nothing is built up front;
+ * when the response is sent, writeTo() writes
+ *
+ *   <Envelope><Header/><Body>  ← written here
+ *       ...payload...          ← written by the payload, straight to the socket
+ *   </Body></Envelope>         ← written here
+ *
+ * so memory per request stays the same whatever the size of the payload.
+ *
+ * WHEN DOES IT FALL BACK TO THE NORMAL (DOM) WAY?
+ * ───────────────────────────────────────────────
+ * - No streaming payload was set (faults, Source return values, ...)
+ * - Something added SOAP headers to the response: the payload is built into the body once
+ * - A fault was added: the fault is sent, the payload is dropped (closed if AutoCloseable)
+ *
+ * LIMITATION: until it is sent, a streamed payload is NOT in the body, so an interceptor
+ * reading the response payload (validation, payload logging) sees an empty body.
+ * Switch to plain SAAJ (airquality.ws.message-factory=saaj) if you add one.
+ *
+ * NOTE: once streaming has started, the HTTP status (200) is already sent.
+ * An error in the middle of the payload can only cut the response short.
+ *
+ * whenWritten() runs code once the message has been written (e.g. SoapMetricsInterceptor
+ * stops its timer there: for a streamed payload the work happens while writing).
+ */
+public class StreamingSoapMessage extends SaajSoapMessage implements StreamingWebServiceMessage {
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    private StreamingPayload streamingPayload;
+    private Runnable whenWritten;
+
+    public StreamingSoapMessage(SOAPMessage soapMessage, boolean langAttributeOnSoap11FaultString,
+                                MessageFactory messageFactory) {
+        super(soapMessage, langAttributeOnSoap11FaultString, messageFactory);
+    }
+
+    @Override
+    public void setStreamingPayload(StreamingPayload payload) {
+        this.streamingPayload = payload;
+    }
+
+    /**
+     * true = the body will only be produced when the message is written.
+     */
+    public boolean isStreaming() {
+        return streamingPayload != null;
+    }
+
+    /**
+     * Run this once writeTo() has finished, successfully or not (one callback per message).
+     */
+    public void whenWritten(Runnable callback) {
+        this.whenWritten = callback;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // WRITING THE MESSAGE
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        try {
+            write(outputStream);
+        } finally {
+            if (whenWritten != null) {
+                Runnable callback = whenWritten;
+                whenWritten = null;
+                callback.run();
+            }
+        }
+    }
+
+    private void write(OutputStream outputStream) throws IOException {
+        if (streamingPayload == null || hasFault()) {
+            // A fault replaces the body, so the payload is dropped (and what it holds released)
+            if (streamingPayload instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    throw new IOException("Could not release the dropped payload: " + e.getMessage(), e);
+                }
+            }
+            super.writeTo(outputStream);
+            return;
+        }
+        if (hasHeaderElements()) {
+            materialize();
+            super.writeTo(outputStream);
+            return;
+        }
+
+        if (outputStream instanceof TransportOutputStream transportOutputStream) {
+            transportOutputStream.addHeader("Content-Type", getVersion().getContentType() + "; charset=utf-8");
+        }
+        String soapNamespace = getVersion().getEnvelopeNamespaceUri();
+        try {
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(outputStream, "UTF-8");
+            writer.setPrefix("SOAP-ENV", soapNamespace);
+            writer.writeStartElement("SOAP-ENV", "Envelope", soapNamespace);
+            writer.writeNamespace("SOAP-ENV", soapNamespace);
+            writer.writeEmptyElement("SOAP-ENV", "Header", soapNamespace);
+            writer.writeStartElement("SOAP-ENV", "Body", soapNamespace);
+
+            if (streamingPayload instanceof PreSerializedPayload preSerialized) {
+                // Ready-made bytes: close the <Body> tag, then copy them as they are
+                writer.writeCharacters("");
+                writer.flush();
+                preSerialized.writeTo(outputStream);
+            } else {
+                streamingPayload.writeTo(writer);
+            }
+
+            writer.writeEndElement();   // Body
+            writer.writeEndElement();   // Envelope
+            writer.writeEndDocument();
+            writer.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not stream the SOAP response: " + e.getMessage(), e);
+        }
+        outputStream.flush();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════════
+
+    // Build the streamed payload into the DOM body, like a normal SAAJ message
+    private void materialize() {
+        StreamingPayload payload = streamingPayload;
+        streamingPayload = null;
+        writePayload(payload, getPayloadResult());
+    }
+
+    private boolean hasHeaderElements() {
+        SoapHeader header = getSoapHeader();
+        return header != null && header.examineAllHeaderElements().hasNext();
+    }
+
+    /**
+     * Write a streaming payload into any Result (a DOM body, a byte stream...).
+     * Used when the message cannot be streamed.
+     */
+    static void writePayload(StreamingPayload payload, Result result) {
+        try {
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(result);
+            payload.writeTo(writer);
+            writer.flush();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Could not write the SOAP payload: " + e.getMessage(), e);
+        }
+    }
+}
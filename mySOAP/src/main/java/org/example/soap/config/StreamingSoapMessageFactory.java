@@ -0,0 +1,29 @@
+// src/main/java/org/example/soap/config/StreamingSoapMessageFactory.java
+package org.example.soap.config;
+
+import org.springframework.ws.soap.saaj.SaajSoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+
+/**
+ * SAAJ message factory whose NEW messages (= our responses) can stream their body.
+ *
+ * Incoming requests are still parsed by SAAJ as usual; only what we send changes.
+ * See StreamingSoapMessage.
+ */
+public class StreamingSoapMessageFactory extends SaajSoapMessageFactory {
+
+    // Same default as SaajSoapMessageFactory (the field there is private)
+    private boolean langAttributeOnSoap11FaultString = true;
+
+    @Override
+    public void setLangAttributeOnSoap11FaultString(boolean langAttributeOnSoap11FaultString) {
+        super.setLangAttributeOnSoap11FaultString(langAttributeOnSoap11FaultString);
+        this.langAttributeOnSoap11FaultString = langAttributeOnSoap11FaultString;
+    }
+
+    @Override
+    public SaajSoapMessage createWebServiceMessage() {
+        SaajSoapMessage message = super.createWebServiceMessage();
+        return new StreamingSoapMessage(message.getSaajMessage(), langAttributeOnSoap11FaultString, getMessageFactory());
+    }
+}
@@ -1,6 +1,11 @@
 // src/main/java/org/example/soap/config/WebServiceConfig.java
 package org.example.soap.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.soap.generated.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -8,11 +13,21 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.ws.config.annotation.EnableWs;
 import org.springframework.ws.config.annotation.WsConfigurerAdapter;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.server.endpoint.adapter.DefaultMethodEndpointAdapter;
+import org.springframework.ws.server.endpoint.adapter.method.MethodArgumentResolver;
+import org.springframework.ws.server.endpoint.adapter.method.MethodReturnValueHandler;
+import org.springframework.ws.soap.SoapMessageFactory;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
 import org.springframework.ws.transport.http.MessageDispatcherServlet;
 import org.springframework.ws.wsdl.wsdl11.DefaultWsdl11Definition;
 import org.springframework.xml.xsd.SimpleXsdSchema;
 import org.springframework.xml.xsd.XsdSchema;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 /**
  * SOAP WEB SERVICE CONFIGURATION
  * ═══════════════════════════════
@@ -24,11 +39,20 @@ import org.springframework.xml.xsd.XsdSchema;
  * 1. Servlet that receives SOAP requests
  * 2. WSDL generation from your XSD
  * 3. URL where the service is available
+ * 4. How messages are created and (un)marshalled (streaming / SAAJ, pooled JAXB)
+ * 5. Interceptors around every endpoint call (metrics)
  */
  @EnableWs  // Enables Spring Web Services
  @Configuration
 public class WebServiceConfig extends WsConfigurerAdapter {
 
+    // For SoapMetricsInterceptor; only looked up at the first request (see there why)
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public WebServiceConfig(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Register the SOAP message dispatcher servlet.
      * 
@@ -77,4 +101,81 @@ public class WebServiceConfig extends WsConfigurerAdapter {
     public XsdSchema airQualitySchema() {
         return new SimpleXsdSchema(new ClassPathResource("xsd/air-quality.xsd"));
     }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // MESSAGE FACTORY + JAXB
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * The factory that creates every SOAP message (request and response).
+     * 
+     * MessageDispatcherServlet picks up the bean named "messageFactory" by itself.
+     * Chosen with airquality.ws.message-factory:
+     * - streaming (default) → responses are written straight to the client,
+     *                         without building the SOAP body as a DOM tree first
+     * - saaj                → Spring WS default behaviour (whole message in memory)
+     */
+    @Bean(name = "messageFactory")
+    public SoapMessageFactory messageFactory(
+            @Value("${airquality.ws.message-factory:streaming}") String messageFactory) {
+        return switch (messageFactory.trim().toLowerCase(Locale.ROOT)) {
+            case "streaming" -> new StreamingSoapMessageFactory();
+            case "saaj" -> new SaajSoapMessageFactory();
+            default -> throw new IllegalArgumentException(
+                    "airquality.ws.message-factory must be 'streaming' or 'saaj', not '" + messageFactory + "'");
+        };
+    }
+
+    /**
+     * Puts PooledJaxbPayloadMethodProcessor IN FRONT of Spring WS's own JAXB handling,
+     * so the classes generated from our XSD use pooled (un)marshallers.
+     * 
+     * (Handlers added through addArgumentResolvers / addReturnValueHandlers come AFTER
+     * the built-in ones and would never be asked, hence the post-processor.)
+     * 
+     * static: a BeanPostProcessor must exist before the other beans are created.
+     * Turn off with airquality.ws.pooled-marshallers=false.
+     */
+    @Bean
+    public static BeanPostProcessor pooledJaxbPostProcessor(
+            @Value("${airquality.ws.pooled-marshallers:true}") boolean pooledMarshallers) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (pooledMarshallers && bean instanceof DefaultMethodEndpointAdapter adapter) {
+                    PooledJaxbPayloadMethodProcessor processor = new PooledJaxbPayloadMethodProcessor(ObjectFactory.class);
+
+                    List<MethodArgumentResolver> resolvers = new ArrayList<>(adapter.getMethodArgumentResolvers());
+                    resolvers.add(0, processor);
+                    adapter.setMethodArgumentResolvers(resolvers);
+
+                    List<MethodReturnValueHandler> handlers = new ArrayList<>(adapter.getMethodReturnValueHandlers());
+                    handlers.add(0, processor);
+                    adapter.setMethodReturnValueHandlers(handlers);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Allows endpoint methods to return a StreamingPayload
+     * (XML that is written when the response is sent, e.g. GetReadingHistory).
+     */
+    @Override
+    public void addReturnValueHandlers(List<MethodReturnValueHandler> returnValueHandlers) {
+        returnValueHandlers.add(new StreamingPayloadReturnValueHandler());
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // INTERCEPTORS
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Called around every endpoint method, whatever the operation.
+     */
+    @Override
+    public void addInterceptors(List<EndpointInterceptor> interceptors) {
+        interceptors.add(new SoapMetricsInterceptor(meterRegistry));
+    }
 }
\ No newline at end of file
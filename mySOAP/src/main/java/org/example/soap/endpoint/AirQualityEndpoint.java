@@ -2,10 +2,16 @@
 package org.example.soap.endpoint;
 
 import org.example.soap.generated.*;
+import org.example.soap.config.DatabaseBulkhead;
+import org.example.soap.config.PreSerializedPayload;
 import org.example.soap.service.AirQualityService;
+import org.example.soap.service.ReadingHistory;
+import org.example.soap.service.ReadingIngestionService;
+import org.springframework.ws.stream.StreamingPayload;
 import org.springframework.ws.server.endpoint.annotation.*;
 
-import java.util.List;
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.time.Instant;
 
 /**
  * SOAP ENDPOINT
@@ -34,8 +40,28 @@ public class AirQualityEndpoint {
     // Service handles business logic (injected by Spring)
     private final AirQualityService airQualityService;
 
-    public AirQualityEndpoint(AirQualityService airQualityService) {
+    // Ready-made XML for GetAllZones (see AllZonesPayloadCache)
+    private final AllZonesPayloadCache allZonesPayloadCache;
+
+    // Queues sensor readings for the batch writer
+    private final ReadingIngestionService ingestionService;
+
+    // Streams stored readings (GetReadingHistory)
+    private final ReadingHistory readingHistory;
+
+    // Limits how many history queries run at once
+    private final DatabaseBulkhead databaseBulkhead;
+
+    public AirQualityEndpoint(AirQualityService airQualityService,
+                              AllZonesPayloadCache allZonesPayloadCache,
+                              ReadingIngestionService ingestionService,
+                              ReadingHistory readingHistory,
+                              DatabaseBulkhead databaseBulkhead) {
         this.airQualityService = airQualityService;
+        this.allZonesPayloadCache = allZonesPayloadCache;
+        this.ingestionService = ingestionService;
+        this.readingHistory = readingHistory;
+        this.databaseBulkhead = databaseBulkhead;
     }
 
     // ═══════════════════════════════════════════════════════════════════
@@ -101,18 +127,173 @@ public class AirQualityEndpoint {
     /**
      * Handles: GetAllZonesRequest
      * Returns: GetAllZonesResponse with list of all zones
+     * 
+     * Returning ready-made XML instead of GetAllZonesResponse skips JAXB:
+     * the payload was marshalled once and is reused until the zone data changes.
+     * With streaming responses the bytes are copied straight to the client.
      */
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetAllZonesRequest")
     @ResponsePayload
-    public GetAllZonesResponse getAllZones( @RequestPayload GetAllZonesRequest request) {
-        
-        // Get all zones from service
-        List<AirQualityRecord> allRecords = airQualityService.getAllZones();
-        
-        // Build response
-        GetAllZonesResponse response = new GetAllZonesResponse();
-        response.getRecords().addAll(allRecords);  // Add all records to list
-        
+    public PreSerializedPayload getAllZones( @RequestPayload GetAllZonesRequest request) {
+        return allZonesPayloadCache.getPayload();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // OPERATION 4: Submit Sensor Readings
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Handles: SubmitReadingsRequest
+     * Returns: SubmitReadingsResponse (how many readings were accepted / rejected)
+     * 
+     * Readings are only QUEUED here; a background writer stores them in batches.
+     * If the queue stays full, a Server fault says from which reading to retry.
+     * (Gateways sending thousands of readings should prefer POST /api/readings.)
+     */
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "SubmitReadingsRequest")
+    @ResponsePayload
+    public SubmitReadingsResponse submitReadings( @RequestPayload SubmitReadingsRequest request) {
+
+        ReadingIngestionService.Submission submission = ingestionService.begin();
+        long index = 0;
+        for (AirQualityReading reading : request.getReadings()) {
+            index++;
+            boolean queued = submission.add(index, reading.getZoneName(), reading.getAqi(), reading.getStatus(),
+                    reading.getPm10(), reading.getNo2(), reading.getCo2(), reading.getO3(),
+                    toInstant(reading.getMeasuredAt()));
+            if (!queued) {
+                break;
+            }
+        }
+
+        ReadingIngestionService.SubmitResult result = submission.result();
+        if (result.isThrottled()) {
+            throw new ReadingIngestionService.IngestionOverloadedException(
+                    "Ingestion queue is full: readings from #" + result.notQueuedFrom() +
+                    " on were not accepted, retry them later (" + result.accepted() + " accepted)");
+        }
+
+        SubmitReadingsResponse response = new SubmitReadingsResponse();
+        response.setAccepted((int) result.accepted());
+        response.setRejected((int) result.rejected());
+        response.getErrors().addAll(result.errors());
+        return response;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // OPERATION 5: Rolling Averages of a Zone
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Handles: GetZoneAveragesRequest
+     * Returns: GetZoneAveragesResponse (1h / 8h / 24h averages)
+     * 
+     * Example SOAP Request:
+     * <GetZoneAveragesRequest xmlns="http://example.com/air-quality-service">
+     *     <zoneName>Tunis Center</zoneName>
+     * </GetZoneAveragesRequest>
+     */
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetZoneAveragesRequest")
+    @ResponsePayload
+    public GetZoneAveragesResponse getZoneAverages( @RequestPayload GetZoneAveragesRequest request) {
+
+        AirQualityService.ZoneAverages averages = airQualityService.getZoneAverages(request.getZoneName());
+
+        GetZoneAveragesResponse response = new GetZoneAveragesResponse();
+        response.setZoneName(averages.zoneName());
+        response.setAsOf(averages.asOf());
+        response.getWindows().addAll(averages.windows());
+        return response;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // OPERATION 6: Many Zones in One Call
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Handles: GetAirQualityBatchRequest
+     * Returns: GetAirQualityBatchResponse (records, optionally ranked / top-K)
+     * 
+     * Example SOAP Request (the 2 dirtiest of three zones):
+     * <GetAirQualityBatchRequest xmlns="http://example.com/air-quality-service">
+     *     <zoneNames>Ariana</zoneNames>
+     *     <zoneNames>Tunis Center</zoneNames>
+     *     <zoneNames>Sidi Bou Said</zoneNames>
+     *     <order>DIRTIEST_FIRST</order>
+     *     <limit>2</limit>
+     * </GetAirQualityBatchRequest>
+     */
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetAirQualityBatchRequest")
+    @ResponsePayload
+    public GetAirQualityBatchResponse getAirQualityBatch( @RequestPayload GetAirQualityBatchRequest request) {
+
+        AirQualityService.BatchResult result = airQualityService.getAirQualityBatch(
+                request.getZoneNames(), request.getOrder(), request.getLimit());
+
+        GetAirQualityBatchResponse response = new GetAirQualityBatchResponse();
+        response.getRecords().addAll(result.records());
+        response.getNotFound().addAll(result.notFound());
+        return response;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // OPERATION 7: Reading History of a Zone
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Handles: GetReadingHistoryRequest
+     * Returns: GetReadingHistoryResponse, STREAMED (see ReadingHistoryPayload)
+     * 
+     * The request is checked here, so a wrong zone or range is still a normal fault.
+     * The readings themselves are only read when the response is written.
+     * 
+     * Example SOAP Request (hourly averages of last week; older readings are averaged anyway):
+     * <GetReadingHistoryRequest xmlns="http://example.com/air-quality-service">
+     *     <zoneName>Ariana</zoneName>
+     *     <from>2024-01-08T00:00:00Z</from>
+     *     <resolution>HOUR</resolution>
+     * </GetReadingHistoryRequest>
+     */
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetReadingHistoryRequest")
+    @ResponsePayload
+    public StreamingPayload getReadingHistory( @RequestPayload GetReadingHistoryRequest request) {
+
+        AirQualityService.HistoryRange range = airQualityService.checkHistoryRange(
+                request.getZoneName(), toInstant(request.getFrom()), toInstant(request.getTo()),
+                request.getResolution());
+
+        // Taken now, so a busy database is still a normal fault (released once the rows are written)
+        return new ReadingHistoryPayload(readingHistory, range, databaseBulkhead.acquire());
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // OPERATION 8: Nearest Zones to a Location
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Handles: GetAirQualityByLocationRequest
+     * Returns: GetAirQualityByLocationResponse (nearest zones first, with their distance)
+     * 
+     * Example SOAP Request (the 2 zones closest to a phone in La Marsa):
+     * <GetAirQualityByLocationRequest xmlns="http://example.com/air-quality-service">
+     *     <latitude>36.878</latitude>
+     *     <longitude>10.324</longitude>
+     *     <count>2</count>
+     * </GetAirQualityByLocationRequest>
+     */
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetAirQualityByLocationRequest")
+    @ResponsePayload
+    public GetAirQualityByLocationResponse getAirQualityByLocation(
+            @RequestPayload GetAirQualityByLocationRequest request) {
+
+        GetAirQualityByLocationResponse response = new GetAirQualityByLocationResponse();
+        response.getZones().addAll(airQualityService.getAirQualityByLocation(
+                request.getLatitude(), request.getLongitude(), request.getCount(), request.getMaxDistanceKm()));
         return response;
     }
+
+    // xs:dateTime without a time zone is read as server local time
+    private static Instant toInstant(XMLGregorianCalendar calendar) {
+        return calendar == null ? null : calendar.toGregorianCalendar().toInstant();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+// src/main/java/org/example/soap/endpoint/AllZonesPayloadCache.java
+package org.example.soap.endpoint;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import org.example.soap.config.PreSerializedPayload;
+import org.example.soap.generated.GetAllZonesResponse;
+import org.example.soap.service.AirQualityService;
+import org.example.soap.service.ZoneSnapshot;
+import org.springframework.stereotype.Component;
+
+import javax.xml.namespace.QName;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * PRE-MARSHALLED GetAllZones RESPONSE
+ * ════════════════════════════════════
+ *
+ * GetAllZonesResponse only changes when the zone data changes, so the XML payload
+ * is marshalled ONCE and the bytes are reused by every call until then.
+ *
+ * HOW IS IT INVALIDATED?
+ * ──────────────────────
+ * The bytes are remembered together with the ZoneSnapshot they were built from.
+ * A new snapshot is only installed when the readings change, so:
+ *   - same snapshot      → reuse the bytes (no JAXB objects, no marshalling)
+ *   - different snapshot → marshal again and remember the new bytes
+ *
+ * Two threads may both rebuild right after a change; both produce the same bytes,
+ * so whichever wins is fine.
+ *
+ * The bytes are handed out as a PreSerializedPayload: with streaming responses
+ * (see StreamingSoapMessage) they are copied straight into the HTTP response.
+ */
+@Component
+public class AllZonesPayloadCache {
+
+    private static final QName RESPONSE_NAME =
+            new QName("http://example.com/air-quality-service", "GetAllZonesResponse");
+
+    private final AirQualityService airQualityService;
+    private final ZoneSnapshot zoneSnapshot;
+    private final JAXBContext jaxbContext;
+
+    private final AtomicReference<CachedPayload> cached = new AtomicReference<>();
+
+    public AllZonesPayloadCache(AirQualityService airQualityService, ZoneSnapshot zoneSnapshot)
+            throws JAXBException {
+        this.airQualityService = airQualityService;
+        this.zoneSnapshot = zoneSnapshot;
+        this.jaxbContext = JAXBContext.newInstance(GetAllZonesResponse.class);
+    }
+
+    /**
+     * The GetAllZonesResponse element, ready to be copied into the SOAP body.
+     */
+    public PreSerializedPayload getPayload() {
+        return new PreSerializedPayload(RESPONSE_NAME, getPayloadBytes());
+    }
+
+    byte[] getPayloadBytes() {
+        ZoneSnapshot.Snapshot snapshot = zoneSnapshot.get();
+        CachedPayload payload = cached.get();
+        if (payload == null || payload.snapshot() != snapshot) {
+            payload = new CachedPayload(snapshot, marshal(snapshot));
+            cached.set(payload);
+        }
+        return payload.bytes();
+    }
+
+    private byte[] marshal(ZoneSnapshot.Snapshot snapshot) {
+        GetAllZonesResponse response = new GetAllZonesResponse();
+        response.getRecords().addAll(airQualityService.getAllZones(snapshot));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        try {
+            // Marshallers are cheap but NOT thread-safe: one per rebuild
+            Marshaller marshaller = jaxbContext.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);  // No <?xml ...?> declaration
+            marshaller.marshal(response, out);
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Could not marshal GetAllZonesResponse", e);
+        }
+        return out.toByteArray();
+    }
+
+    private record CachedPayload(ZoneSnapshot.Snapshot snapshot, byte[] bytes) {}
+}
@@ -0,0 +1,109 @@
+// src/main/java/org/example/soap/endpoint/ReadingHistoryPayload.java
+package org.example.soap.endpoint;
+
+import org.example.soap.config.DatabaseBulkhead;
+import org.example.soap.model.SensorReading;
+import org.example.soap.service.AirQualityService;
+import org.example.soap.service.ReadingHistory;
+import org.springframework.ws.stream.StreamingPayload;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * GetReadingHistoryResponse, WRITTEN WHILE THE ROWS ARE READ
+ * ═══════════════════════════════════════════════════════════
+ *
+ * Nothing is queried when the endpoint returns this object. When the response
+ * is sent, writeTo() runs the query and writes each row as a <readings> element
+ * right away, so memory use does not depend on how many readings there are.
+ *
+ * The XML is written by hand, element by element, in the order of the
+ * AirQualityReading type in air-quality.xsd. Averaged readings (MINUTE / HOUR / DAY)
+ * are written the same way.
+ *
+ * It holds a database bulkhead permit, taken by the endpoint, until the last row
+ * is written (or until close(), if the response is dropped).
+ */
+class ReadingHistoryPayload implements StreamingPayload, AutoCloseable {
+
+    private static final String NAMESPACE_URI = "http://example.com/air-quality-service";
+
+    private final ReadingHistory readingHistory;
+    private final AirQualityService.HistoryRange range;
+    private final DatabaseBulkhead.Permit permit;
+
+    ReadingHistoryPayload(ReadingHistory readingHistory, AirQualityService.HistoryRange range,
+                          DatabaseBulkhead.Permit permit) {
+        this.readingHistory = readingHistory;
+        this.range = range;
+        this.permit = permit;
+    }
+
+    @Override
+    public QName getName() {
+        return new QName(NAMESPACE_URI, "GetReadingHistoryResponse");
+    }
+
+    @Override
+    public void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+        // Default namespace, like the JAXB responses
+        writer.writeStartElement("", "GetReadingHistoryResponse", NAMESPACE_URI);
+        writer.writeDefaultNamespace(NAMESPACE_URI);
+        element(writer, "zoneName", range.zoneName());
+        element(writer, "resolution", range.resolution().value());
+
+        try {
+            readingHistory.forEachReading(range.zoneName(), range.from(), range.to(), range.resolution(), reading -> {
+                try {
+                    writeReading(writer, reading);
+                } catch (XMLStreamException e) {
+                    throw new WriteFailedException(e);
+                }
+            });
+        } catch (WriteFailedException e) {
+            throw e.getCause();
+        } finally {
+            close();
+        }
+
+        writer.writeEndElement();
+    }
+
+    @Override
+    public void close() {
+        permit.close();
+    }
+
+    private static void writeReading(XMLStreamWriter writer, SensorReading reading) throws XMLStreamException {
+        writer.writeStartElement("", "readings", NAMESPACE_URI);
+        element(writer, "zoneName", reading.zoneName());
+        element(writer, "aqi", Integer.toString(reading.aqi()));
+        element(writer, "status", reading.status());
+        element(writer, "pm10", Double.toString(reading.pm10()));
+        element(writer, "no2", Double.toString(reading.no2()));
+        element(writer, "co2", Double.toString(reading.co2()));
+        element(writer, "o3", Double.toString(reading.o3()));
+        element(writer, "measuredAt", reading.measuredAt().toString());   // xs:dateTime in UTC
+        writer.writeEndElement();
+    }
+
+    private static void element(XMLStreamWriter writer, String name, String value) throws XMLStreamException {
+        writer.writeStartElement("", name, NAMESPACE_URI);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+
+    // Carries an XMLStreamException out of the row callback
+    private static class WriteFailedException extends RuntimeException {
+        WriteFailedException(XMLStreamException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized XMLStreamException getCause() {
+            return (XMLStreamException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+// src/main/java/org/example/soap/endpoint/ReadingIngestController.java
+package org.example.soap.endpoint;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.soap.service.ReadingIngestionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * BULK READING INGESTION (plain HTTP + JSON)
+ * ═══════════════════════════════════════════
+ *
+ * SOAP is fine for a few readings, but sensor gateways send thousands per second.
+ * This endpoint takes them as JSON without building a SOAP envelope / DOM:
+ *
+ *   POST /api/readings
+ *   Content-Type: application/json          → a JSON array of readings
+ *   Content-Type: application/x-ndjson      → one JSON reading per line
+ *
+ *   {"zoneName": "Ariana", "aqi": 80, "pm10": 30.5, "no2": 31, "co2": 412, "o3": 19,
+ *    "measuredAt": "2025-01-15T08:30:00Z", "status": "Fair"}      ← status, measuredAt optional
+ *
+ * The body is read as a STREAM, one reading at a time, straight into the ingestion queue.
+ *
+ * RESPONSES:
+ * ──────────
+ * 202 Accepted             → {"accepted": n, "rejected": m, "errors": [...]}
+ *                            If the JSON breaks part-way, the readings before the break are
+ *                            already queued: "unreadFrom" is the 1-based index of the first
+ *                            reading that was not read (send again from there, not from #1)
+ * 503 Service Unavailable  → the queue stayed full; "notQueuedFrom" is the 1-based index
+ *                            of the first reading to send again (Retry-After header set)
+ * 400 Bad Request          → the body does not even start as JSON (nothing was queued)
+ */
+@RestController
+@RequestMapping("/api/readings")
+public class ReadingIngestController {
+
+    private final ReadingIngestionService ingestionService;
+    private final ObjectMapper objectMapper;
+
+    public ReadingIngestController(ReadingIngestionService ingestionService, ObjectMapper objectMapper) {
+        this.ingestionService = ingestionService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping(consumes = {"application/json", "application/x-ndjson"})
+    public ResponseEntity<ReadingIngestionService.SubmitResult> submit(InputStream body) throws IOException {
+        ReadingIngestionService.Submission submission = ingestionService.begin();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken first = parser.nextToken();
+            // A JSON array, or (NDJSON) a sequence of top-level objects
+            boolean array = first == JsonToken.START_ARRAY;
+            JsonToken token = array ? parser.nextToken() : first;
+            long read = 0;
+            try {
+                while (token != null && token != JsonToken.END_ARRAY) {
+                    JsonNode node = objectMapper.readTree(parser);
+                    read++;
+                    if (!add(submission, read, node)) {
+                        break;
+                    }
+                    token = parser.nextToken();
+                }
+            } catch (JsonProcessingException e) {
+                // Earlier readings are queued: report them rather than fail the whole request
+                submission.stopReading(read + 1, "Invalid JSON, nothing read from here on: " + e.getOriginalMessage());
+            }
+        }
+
+        ReadingIngestionService.SubmitResult result = submission.result();
+        if (result.isThrottled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(result);
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+    }
+
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<Map<String, String>> handleBadJson(JsonProcessingException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", "Invalid JSON: " + ex.getOriginalMessage()));
+    }
+
+    private static boolean add(ReadingIngestionService.Submission submission, long index, JsonNode node) {
+        if (node == null || !node.isObject()) {
+            submission.reject(index, "Expected a JSON object");
+            return true;
+        }
+        Instant measuredAt;
+        try {
+            measuredAt = parseTime(text(node, "measuredAt"));
+        } catch (DateTimeParseException e) {
+            submission.reject(index, "measuredAt must be an ISO-8601 date-time: " + e.getParsedString());
+            return true;
+        }
+        JsonNode aqi = node.get("aqi");
+        return submission.add(index, text(node, "zoneName"),
+                aqi != null && aqi.canConvertToInt() && aqi.isIntegralNumber() ? aqi.intValue() : null,
+                text(node, "status"),
+                number(node, "pm10"), number(node, "no2"), number(node, "co2"), number(node, "o3"),
+                measuredAt);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static Double number(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && value.isNumber() ? value.doubleValue() : null;
+    }
+
+    // With an offset ("...Z", "...+01:00") or without (server local time)
+    private static Instant parseTime(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant();
+        }
+    }
+}
@@ -46,6 +46,10 @@ public class AirQualityEntity {
     @Column(length = 500)
     private String description;  // Extra: explains why this zone has this AQI
 
+    // Where the zone is (WGS84 degrees); null = not placed on the map yet
+    private Double latitude;
+    private Double longitude;
+
     // ═══════════════════════════════════════════════════════════════════
     // CONSTRUCTORS
     // ═══════════════════════════════════════════════════════════════════
@@ -99,6 +103,12 @@ public class AirQualityEntity {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
     @Override
     public String toString() {
         return "AirQualityEntity{"
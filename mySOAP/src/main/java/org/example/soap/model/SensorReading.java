@@ -0,0 +1,25 @@
+// src/main/java/org/example/soap/model/SensorReading.java
+package org.example.soap.model;
+
+import java.time.Instant;
+
+/**
+ * ONE SENSOR READING
+ * ═══════════════════
+ *
+ * What a sensor gateway sends us, after validation:
+ * - zoneName is the zone's canonical spelling (or the new zone's name)
+ * - status and measuredAt are always filled in
+ *
+ * Stored as one row of air_quality_readings (append-only history).
+ */
+public record SensorReading(
+    String zoneName,
+    int aqi,
+    String status,
+    double pm10,
+    double no2,
+    double co2,
+    double o3,
+    Instant measuredAt
+) {}
@@ -0,0 +1,38 @@
+// src/main/java/org/example/soap/model/ZoneReading.java
+package org.example.soap.model;
+
+/**
+ * IN-MEMORY ZONE READING
+ * ═══════════════════════
+ *
+ * An immutable copy of one row of air_quality_zones.
+ *
+ * WHY NOT KEEP THE ENTITY?
+ * ────────────────────────
+ * - JPA entities are mutable and tied to a persistence context
+ * - A record can be shared by many request threads at once, safely
+ *
+ * The service keeps these in ZoneSnapshot and builds the SOAP records from them.
+ * latitude / longitude are null for zones nobody has placed on the map yet.
+ */
+public record ZoneReading(
+    String zoneName,
+    int aqi,
+    String status,
+    double pm10,
+    double no2,
+    double co2,
+    double o3,
+    String description,
+    Double latitude,
+    Double longitude
+) {
+
+    public static ZoneReading from(AirQualityEntity entity) {
+        return new ZoneReading(
+            entity.getZoneName(), entity.getAqi(), entity.getStatus(),
+            entity.getPm10(), entity.getNo2(), entity.getCo2(), entity.getO3(),
+            entity.getDescription(), entity.getLatitude(), entity.getLongitude()
+        );
+    }
+}
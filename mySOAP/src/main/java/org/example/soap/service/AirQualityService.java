@@ -2,13 +2,23 @@
 package org.example.soap.service;
 
 import org.example.soap.generated.AirQualityRecord;
-import org.example.soap.model.AirQualityEntity;
-import org.example.soap.repository.AirQualityRepository;
+import org.example.soap.generated.NearbyZone;
+import org.example.soap.generated.Resolution;
+import org.example.soap.generated.WindowAverage;
+import org.example.soap.generated.ZoneOrder;
+import org.example.soap.model.ZoneReading;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * SERVICE LAYER
@@ -20,7 +30,7 @@ import java.util.stream.Collectors;
  * ───────────────────────
  * - "If AQI > 150, status is Unhealthy" → Business rule
  * - "Zone1 is cleaner if AQI is lower" → Business rule
- * - "Add current timestamp to records" → Business requirement
+ * - "Stamp records with the time the data was updated" → Business requirement
  * 
  * WHY SEPARATE FROM ENDPOINT?
  * ───────────────────────────
@@ -28,23 +38,44 @@ import java.util.stream.Collectors;
  * - Service handles WHAT the app actually does (business)
  * 
  * If you later add a REST API, you can reuse this Service!
+ *
+ * WHERE DOES THE DATA COME FROM?
+ * ──────────────────────────────
+ * Reads are served from ZoneSnapshot (an in-memory copy of the table),
+ * NOT from the database - see ZoneSnapshot for how it is kept up to date.
+ * Averages come from RollingAverages, which is also kept in memory.
  */
  @Service  // Tells Spring: "This is a service component, manage it for me"
 public class AirQualityService {
 
-    // Repository is INJECTED by Spring (Dependency Injection)
-    private final AirQualityRepository repository;
+    // Most zones one GetAirQualityByLocation may return
+    static final int MAX_NEARBY_ZONES = 100;
+
+    // Zone names suggested in a "zone not found" fault (there can be hundreds of zones)
+    private static final int SUGGESTED_ZONES = 10;
+
+    // Snapshot is INJECTED by Spring (Dependency Injection)
+    private final ZoneSnapshot zoneSnapshot;
+
+    // 1h / 8h / 24h averages per zone
+    private final RollingAverages rollingAverages;
+
+    // Which history resolution is still stored for a range
+    private final RetentionPolicy retentionPolicy;
 
     /**
      * CONSTRUCTOR INJECTION
      * ─────────────────────
-     * Spring sees this constructor needs AirQualityRepository,
+     * Spring sees this constructor needs ZoneSnapshot,
      * so it automatically provides one. You don't create it manually!
      * 
      * This is called "Dependency Injection" - a core Spring concept.
      */
-    public AirQualityService(AirQualityRepository repository) {
-        this.repository = repository;
+    public AirQualityService(ZoneSnapshot zoneSnapshot, RollingAverages rollingAverages,
+                             RetentionPolicy retentionPolicy) {
+        this.zoneSnapshot = zoneSnapshot;
+        this.rollingAverages = rollingAverages;
+        this.retentionPolicy = retentionPolicy;
     }
 
     // ═══════════════════════════════════════════════════════════════════
@@ -59,25 +90,30 @@ public class AirQualityService {
      * @throws ZoneNotFoundException if zone doesn't exist
      */
     public AirQualityRecord getAirQualityByZone(String zoneName) {
-        // 1. Query the database
-        AirQualityEntity entity = repository.findByZoneNameIgnoreCase(zoneName)
-                .orElseThrow(() -> new ZoneNotFoundException(
-                    "Zone not found: " + zoneName + 
-                    ". Available zones: Charguia 2, Tunis Center, Sidi Bou Said, Ariana"
-                ));
+        // 1. Look the zone up in memory (no database query)
+        ZoneSnapshot.Snapshot snapshot = zoneSnapshot.get();
+        ZoneReading reading = findZone(snapshot, zoneName);
 
-        // 2. Convert Entity → SOAP Record
-        return convertToRecord(entity);
+        // 2. Convert Reading → SOAP Record
+        return convertToRecord(reading, snapshot);
     }
 
     /**
      * Get all available zones.
      */
     public List<AirQualityRecord> getAllZones() {
-        return repository.findAll()
-                .stream()                           // Java Streams - process list
-                .map(this::convertToRecord)         // Convert each entity
-                .collect(Collectors.toList());      // Collect back to list
+        return getAllZones(zoneSnapshot.get());
+    }
+
+    /**
+     * Same, from a snapshot the caller already holds
+     * (used by the GetAllZones payload cache to tie the XML to one snapshot).
+     */
+    public List<AirQualityRecord> getAllZones(ZoneSnapshot.Snapshot snapshot) {
+        return snapshot.all()
+                .stream()                                            // Java Streams - process list
+                .map(reading -> convertToRecord(reading, snapshot))  // Convert each reading
+                .collect(Collectors.toList());                       // Collect back to list
     }
 
     /**
@@ -88,9 +124,10 @@ public class AirQualityService {
      * - Generate human-readable verdict
      */
     public ComparisonResult compareZones(String zoneName1, String zoneName2) {
-        // Get both zones (will throw if not found)
-        AirQualityRecord record1 = getAirQualityByZone(zoneName1);
-        AirQualityRecord record2 = getAirQualityByZone(zoneName2);
+        // Get both zones from the SAME snapshot (will throw if not found)
+        ZoneSnapshot.Snapshot snapshot = zoneSnapshot.get();
+        AirQualityRecord record1 = convertToRecord(findZone(snapshot, zoneName1), snapshot);
+        AirQualityRecord record2 = convertToRecord(findZone(snapshot, zoneName2), snapshot);
 
         // Business Logic: Compare AQI values
         String verdict;
@@ -107,34 +144,212 @@ public class AirQualityService {
         return new ComparisonResult(record1, record2, verdict);
     }
 
+    /**
+     * Look up many zones at once, optionally ranked by AQI and cut to the top K.
+     * 
+     * All zones come from ONE snapshot, so the ranking is consistent.
+     * Names are matched like GetAirQuality (case-insensitive); a zone asked for
+     * twice is returned once. Unknown names are reported, not thrown.
+     * 
+     * @param zoneNames zones to return; empty = all zones
+     * @param order     null = REQUEST (keep the requested order)
+     * @param limit     null = no limit
+     */
+    public BatchResult getAirQualityBatch(List<String> zoneNames, ZoneOrder order, Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        ZoneSnapshot.Snapshot snapshot = zoneSnapshot.get();
+
+        // 1. Resolve the names (one hash lookup each)
+        List<ZoneReading> readings;
+        List<String> notFound = new ArrayList<>();
+        if (zoneNames.isEmpty()) {
+            readings = snapshot.all();
+        } else {
+            Map<String, ZoneReading> found = new LinkedHashMap<>();
+            for (String zoneName : zoneNames) {
+                snapshot.find(zoneName).ifPresentOrElse(
+                    reading -> found.putIfAbsent(ZoneSnapshot.normalize(zoneName), reading),
+                    () -> notFound.add(zoneName));
+            }
+            readings = List.copyOf(found.values());
+        }
+
+        // 2. Business Logic: rank by AQI (ties by name, so the result is stable)
+        Comparator<ZoneReading> cleanestFirst = Comparator.comparingInt(ZoneReading::aqi)
+                .thenComparing(ZoneReading::zoneName);
+        Stream<ZoneReading> ranked = switch (order == null ? ZoneOrder.REQUEST : order) {
+            case REQUEST -> readings.stream();
+            case CLEANEST_FIRST -> readings.stream().sorted(cleanestFirst);
+            case DIRTIEST_FIRST -> readings.stream().sorted(cleanestFirst.reversed());
+        };
+
+        // 3. Top-K + convert Reading → SOAP Record
+        List<AirQualityRecord> records = ranked
+                .limit(limit == null ? Long.MAX_VALUE : limit)
+                .map(reading -> convertToRecord(reading, snapshot))
+                .collect(Collectors.toList());
+        return new BatchResult(records, notFound);
+    }
+
+    /**
+     * The zones closest to a point, nearest first ("air quality here").
+     * 
+     * Looked up in the snapshot's SpatialIndex: about log(n) steps, whatever the
+     * number of zones. Zones without coordinates are never returned.
+     * 
+     * @param count         null = 1 (the nearest zone only)
+     * @param maxDistanceKm null = no limit
+     */
+    public List<NearbyZone> getAirQualityByLocation(double latitude, double longitude,
+                                                    Integer count, Double maxDistanceKm) {
+        // 1. Validate input
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("latitude must be between -90 and 90, longitude between -180 and 180");
+        }
+        int k = count == null ? 1 : count;
+        if (k < 1 || k > MAX_NEARBY_ZONES) {
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_NEARBY_ZONES);
+        }
+        if (maxDistanceKm != null && !(maxDistanceKm > 0)) {
+            throw new IllegalArgumentException("maxDistanceKm must be greater than 0");
+        }
+
+        // 2. Search the index of the current snapshot
+        ZoneSnapshot.Snapshot snapshot = zoneSnapshot.get();
+        List<SpatialIndex.Neighbor> neighbors = snapshot.locations().nearest(latitude, longitude, k,
+                maxDistanceKm == null ? Double.POSITIVE_INFINITY : maxDistanceKm);
+
+        // 3. Convert Reading → SOAP Record
+        List<NearbyZone> zones = new ArrayList<>(neighbors.size());
+        for (SpatialIndex.Neighbor neighbor : neighbors) {
+            NearbyZone zone = new NearbyZone();
+            zone.setRecord(convertToRecord(neighbor.zone(), snapshot));
+            zone.setDistanceKm(Math.round(neighbor.distanceKm() * 1000) / 1000.0);   // Metre precision
+            zones.add(zone);
+        }
+        return zones;
+    }
+
+    /**
+     * Check a history request BEFORE its response starts streaming
+     * (afterwards, errors can no longer be reported as a SOAP fault).
+     * 
+     * Also picks the resolution (see RetentionPolicy): old readings only exist as averages.
+     * 
+     * @param to null = now
+     * @param resolution null = chosen from the range
+     * @throws ZoneNotFoundException if zone doesn't exist
+     */
+    public HistoryRange checkHistoryRange(String zoneName, Instant from, Instant to, Resolution resolution) {
+        ZoneReading reading = findZone(zoneSnapshot.get(), zoneName);
+        Instant now = Instant.now();
+        Instant end = to != null ? to : now;
+        if (from == null || !from.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        return new HistoryRange(reading.zoneName(), from, end,
+                retentionPolicy.resolutionFor(from, end, resolution, now));
+    }
+
+    /**
+     * Rolling averages of a zone over the last 1, 8 and 24 hours.
+     * 
+     * O(1): the sums are maintained as readings arrive (see RollingAverages),
+     * nothing is aggregated here.
+     * 
+     * @throws ZoneNotFoundException if zone doesn't exist
+     */
+    public ZoneAverages getZoneAverages(String zoneName) {
+        ZoneReading reading = findZone(zoneSnapshot.get(), zoneName);
+        Instant now = Instant.now();
+
+        List<WindowAverage> windows = new ArrayList<>();
+        for (RollingAverages.WindowAverage average : rollingAverages.averages(reading.zoneName(), now)) {
+            WindowAverage window = new WindowAverage();
+            window.setHours(average.hours());
+            window.setSamples(average.samples());
+            if (average.samples() > 0) {
+                window.setAqi(average.aqi());
+                window.setStatus(statusForAqi((int) Math.round(average.aqi())));
+                window.setPm10(average.pm10());
+                window.setNo2(average.no2());
+                window.setCo2(average.co2());
+                window.setO3(average.o3());
+            }
+            windows.add(window);
+        }
+        return new ZoneAverages(reading.zoneName(),
+                LocalDateTime.ofInstant(now, ZoneId.systemDefault()).toString(), windows);
+    }
+
+    /**
+     * Status label for an AQI value.
+     * 
+     * BUSINESS RULE: same categories as the seed data in data.sql
+     *   0-50 Good, 51-100 Fair, 101-125 Moderate,
+     *   126-150 Unhealthy for Sensitive Groups, 151-200 Unhealthy,
+     *   201-300 Very Unhealthy, above 300 Hazardous
+     */
+    public static String statusForAqi(int aqi) {
+        if (aqi <= 50) return "Good";
+        if (aqi <= 100) return "Fair";
+        if (aqi <= 125) return "Moderate";
+        if (aqi <= 150) return "Unhealthy for Sensitive Groups";
+        if (aqi <= 200) return "Unhealthy";
+        if (aqi <= 300) return "Very Unhealthy";
+        return "Hazardous";
+    }
+
     // ═══════════════════════════════════════════════════════════════════
     // PRIVATE HELPER METHODS
     // ═══════════════════════════════════════════════════════════════════
 
+    private ZoneReading findZone(ZoneSnapshot.Snapshot snapshot, String zoneName) {
+        return snapshot.find(zoneName)
+                .orElseThrow(() -> new ZoneNotFoundException(
+                    "Zone not found: " + zoneName + ". " + availableZones(snapshot)
+                ));
+    }
+
+    // The first few zone names; with more, point to the operations that do not need a name
+    private static String availableZones(ZoneSnapshot.Snapshot snapshot) {
+        List<String> names = snapshot.all().stream().map(ZoneReading::zoneName).toList();
+        if (names.size() <= SUGGESTED_ZONES) {
+            return "Available zones: " + String.join(", ", names);
+        }
+        return "Available zones include: " + String.join(", ", names.subList(0, SUGGESTED_ZONES)) +
+               " (" + names.size() + " in total; see GetAllZones, or GetAirQualityByLocation to find one by position)";
+    }
+
     /**
-     * Convert database Entity to SOAP Record.
+     * Convert in-memory Reading to SOAP Record.
      * 
      * WHY DO WE CONVERT?
      * ──────────────────
-     * - AirQualityEntity = Database representation (JPA annotations)
-     * - AirQualityRecord = SOAP representation (generated from XSD)
+     * - ZoneReading      = Immutable copy of a database row (shared by all requests)
+     * - AirQualityRecord = SOAP representation (generated from XSD, mutable)
      * 
      * They look similar but serve different purposes.
      * This separation is called "DTO pattern" (Data Transfer Object).
      */
-    private AirQualityRecord convertToRecord(AirQualityEntity entity) {
+    private AirQualityRecord convertToRecord(ZoneReading reading, ZoneSnapshot.Snapshot snapshot) {
         AirQualityRecord record = new AirQualityRecord();
         
-        record.setZoneName(entity.getZoneName());
-        record.setAqi(entity.getAqi());
-        record.setStatus(entity.getStatus());
-        record.setPm10(entity.getPm10());
-        record.setNo2(entity.getNo2());
-        record.setCo2(entity.getCo2());
-        record.setO3(entity.getO3());
+        record.setZoneName(reading.zoneName());
+        record.setAqi(reading.aqi());
+        record.setStatus(reading.status());
+        record.setPm10(reading.pm10());
+        record.setNo2(reading.no2());
+        record.setCo2(reading.co2());
+        record.setO3(reading.o3());
+        record.setLatitude(reading.latitude());
+        record.setLongitude(reading.longitude());
         
-        // Add current timestamp (business requirement: always show fresh time)
-        record.setTimestamp(LocalDateTime.now().toString());
+        // Timestamp = when this data was last updated (NOT the time of the request),
+        // so identical data always produces identical XML
+        record.setTimestamp(LocalDateTime.ofInstant(snapshot.updatedAt(), ZoneId.systemDefault()).toString());
         
         return record;
     }
@@ -153,6 +368,34 @@ public class AirQualityService {
         String verdict
     ) {}
 
+    /**
+     * Records of a batch lookup + the requested names that are not zones.
+     */
+    public record BatchResult(
+        List<AirQualityRecord> records,
+        List<String> notFound
+    ) {}
+
+    /**
+     * A checked history request: canonical zone name, from (inclusive), to (exclusive),
+     * and the resolution to read it at.
+     */
+    public record HistoryRange(
+        String zoneName,
+        Instant from,
+        Instant to,
+        Resolution resolution
+    ) {}
+
+    /**
+     * Averages of one zone; asOf is the server local time they were taken at.
+     */
+    public record ZoneAverages(
+        String zoneName,
+        String asOf,
+        List<WindowAverage> windows
+    ) {}
+
     /**
      * Custom exception for when a zone is not found.
      * Better than returning null - makes errors clear!
@@ -0,0 +1,237 @@
+// src/main/java/org/example/soap/service/ReadingCompactor.java
+package org.example.soap.service;
+
+import org.example.soap.generated.Resolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HISTORY COMPACTION (raw readings → minute / hour / day averages)
+ * ═════════════════════════════════════════════════════════════════
+ *
+ * A sensor sending a reading a minute fills 525 600 rows a year per zone.
+ * Nobody looks at a year reading by reading, so old readings are only kept as averages.
+ *
+ * EVERY interval-ms, IN THE BACKGROUND:
+ * ─────────────────────────────────────
+ * 1. ROLL UP: the readings not compacted yet (id > compaction_state.last_id), batch-size
+ *    at a time, are added to the sums of their minute, hour and day in air_quality_rollups.
+ *    The sums and last_id are updated in the SAME transaction, so a crash never adds a
+ *    reading twice. Sums (not averages) let a late reading simply join its bucket.
+ * 2. RETENTION: rows older than their retention (see RetentionPolicy) are deleted,
+ *    batch-size rows per transaction. A raw reading is only deleted once it is rolled up.
+ *
+ * WHY IT NEVER SLOWS DOWN REQUESTS:
+ * ─────────────────────────────────
+ * - It runs on the scheduler thread, never on a request thread
+ * - Short transactions (one batch each): no long locks on the readings table
+ * - At most max-batches-per-run batches of each kind per run: a big backlog
+ *   (first start after an upgrade) is worked off over several runs
+ *
+ * Relies on ids growing in commit order, which holds because readings are written
+ * by ONE thread (ReadingIngestionService). Readings inserted by hand from the H2
+ * console in a long open transaction could be skipped.
+ *
+ * The minute / hour / day averages lag behind the raw readings by up to interval-ms.
+ */
+@Component
+public class ReadingCompactor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadingCompactor.class);
+
+    private static final List<Resolution> ROLLED_UP = List.of(Resolution.MINUTE, Resolution.HOUR, Resolution.DAY);
+
+    private static final String LAST_ID_SQL =
+            "SELECT last_id FROM compaction_state WHERE name = 'readings'";
+
+    private static final String NEXT_READINGS_SQL =
+            "SELECT id, zone_name, measured_at, aqi, pm10, no2, co2, o3 FROM air_quality_readings " +
+            "WHERE id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+
+    // Adds to the bucket if it exists, creates it otherwise
+    private static final String MERGE_ROLLUP_SQL =
+            "MERGE INTO air_quality_rollups r " +
+            "USING (VALUES (CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(10)), CAST(? AS TIMESTAMP), " +
+            "CAST(? AS INT), CAST(? AS DOUBLE), CAST(? AS INT), " +
+            "CAST(? AS DOUBLE), CAST(? AS DOUBLE), CAST(? AS DOUBLE), CAST(? AS DOUBLE))) " +
+            "AS s (zone_name, resolution, bucket_start, samples, aqi_sum, aqi_max, pm10_sum, no2_sum, co2_sum, o3_sum) " +
+            "ON r.zone_name = s.zone_name AND r.resolution = s.resolution AND r.bucket_start = s.bucket_start " +
+            "WHEN MATCHED THEN UPDATE SET samples = r.samples + s.samples, aqi_sum = r.aqi_sum + s.aqi_sum, " +
+            "aqi_max = GREATEST(r.aqi_max, s.aqi_max), pm10_sum = r.pm10_sum + s.pm10_sum, " +
+            "no2_sum = r.no2_sum + s.no2_sum, co2_sum = r.co2_sum + s.co2_sum, o3_sum = r.o3_sum + s.o3_sum " +
+            "WHEN NOT MATCHED THEN INSERT VALUES (s.zone_name, s.resolution, s.bucket_start, s.samples, " +
+            "s.aqi_sum, s.aqi_max, s.pm10_sum, s.no2_sum, s.co2_sum, s.o3_sum)";
+
+    private static final String SAVE_LAST_ID_SQL =
+            "UPDATE compaction_state SET last_id = ? WHERE name = 'readings'";
+
+    // Only readings already rolled up (id <= last_id); oldest ids first
+    private static final String DELETE_RAW_SQL =
+            "DELETE FROM air_quality_readings WHERE id IN (SELECT id FROM air_quality_readings " +
+            "WHERE id <= ? AND measured_at < ? ORDER BY id FETCH FIRST ? ROWS ONLY)";
+
+    private static final String DELETE_ROLLUPS_SQL =
+            "DELETE FROM air_quality_rollups WHERE resolution = ? AND bucket_start < ? FETCH FIRST ? ROWS ONLY";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RetentionPolicy retentionPolicy;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    // Counters (read by monitoring)
+    private final AtomicLong rolledUp = new AtomicLong();
+    private final AtomicLong deletedReadings = new AtomicLong();
+    private final AtomicLong deletedRollups = new AtomicLong();
+
+    public ReadingCompactor(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            RetentionPolicy retentionPolicy,
+                            @Value("${airquality.compaction.batch-size:5000}") int batchSize,
+                            @Value("${airquality.compaction.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionPolicy = retentionPolicy;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    public long getRolledUp() { return rolledUp.get(); }
+    public long getDeletedReadings() { return deletedReadings.get(); }
+    public long getDeletedRollups() { return deletedRollups.get(); }
+
+    /**
+     * One compaction run: roll up, then enforce retention.
+     * An error is logged and the run retried next time (nothing is lost: last_id did not move).
+     */
+    @Scheduled(fixedDelayString = "${airquality.compaction.interval-ms:60000}",
+               initialDelayString = "${airquality.compaction.interval-ms:60000}")
+    public void compact() {
+        try {
+            int batches = 0;
+            while (batches < maxBatchesPerRun && rollUpBatch() == batchSize) {
+                batches++;
+            }
+            enforceRetention(Instant.now());
+        } catch (RuntimeException e) {
+            log.error("History compaction failed, retrying in the next run", e);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // STEP 1: ROLL UP
+    // ═══════════════════════════════════════════════════════════════════
+
+    // Rolls up the next batch in one transaction; returns how many readings it held
+    private int rollUpBatch() {
+        Integer count = transactionTemplate.execute(status -> {
+            long lastId = jdbcTemplate.queryForObject(LAST_ID_SQL, Long.class);
+
+            Map<BucketKey, Bucket> buckets = new HashMap<>();
+            long[] maxId = {lastId};
+            int[] readings = {0};
+            jdbcTemplate.query(NEXT_READINGS_SQL, rs -> {
+                String zoneName = rs.getString("zone_name");
+                Instant measuredAt = rs.getTimestamp("measured_at").toInstant();
+                int aqi = rs.getInt("aqi");
+                double pm10 = rs.getDouble("pm10");
+                double no2 = rs.getDouble("no2");
+                double co2 = rs.getDouble("co2");
+                double o3 = rs.getDouble("o3");
+                for (Resolution resolution : ROLLED_UP) {
+                    BucketKey key = new BucketKey(zoneName, resolution, ReadingHistory.bucketStart(resolution, measuredAt));
+                    buckets.computeIfAbsent(key, k -> new Bucket()).add(aqi, pm10, no2, co2, o3);
+                }
+                maxId[0] = Math.max(maxId[0], rs.getLong("id"));
+                readings[0]++;
+            }, lastId, batchSize);
+
+            if (readings[0] == 0) {
+                return 0;
+            }
+            List<Object[]> rows = new ArrayList<>(buckets.size());
+            buckets.forEach((key, bucket) -> rows.add(new Object[]{
+                    key.zoneName(), key.resolution().value(), Timestamp.from(key.bucketStart()),
+                    bucket.samples, bucket.aqiSum, bucket.aqiMax,
+                    bucket.pm10Sum, bucket.no2Sum, bucket.co2Sum, bucket.o3Sum}));
+            jdbcTemplate.batchUpdate(MERGE_ROLLUP_SQL, rows);
+            jdbcTemplate.update(SAVE_LAST_ID_SQL, maxId[0]);
+            return readings[0];
+        });
+        rolledUp.addAndGet(count);
+        return count;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // STEP 2: RETENTION
+    // ═══════════════════════════════════════════════════════════════════
+
+    private void enforceRetention(Instant now) {
+        long lastId = jdbcTemplate.queryForObject(LAST_ID_SQL, Long.class);
+        Timestamp rawCutoff = Timestamp.from(now.minus(retentionPolicy.retention(Resolution.RAW)));
+        deletedReadings.addAndGet(deleteInBatches(DELETE_RAW_SQL, lastId, rawCutoff));
+
+        for (Resolution resolution : ROLLED_UP) {
+            Duration retention = retentionPolicy.retention(resolution);
+            if (retention != null) {
+                Timestamp cutoff = Timestamp.from(now.minus(retention));
+                deletedRollups.addAndGet(deleteInBatches(DELETE_ROLLUPS_SQL, resolution.value(), cutoff));
+            }
+        }
+    }
+
+    // Deletes batchSize rows per statement (each its own transaction) until none are left
+    private long deleteInBatches(String sql, Object key, Timestamp cutoff) {
+        long deleted = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int rows = jdbcTemplate.update(sql, key, cutoff, batchSize);
+            deleted += rows;
+            if (rows < batchSize) {
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // INNER CLASSES
+    // ═══════════════════════════════════════════════════════════════════
+
+    private record BucketKey(String zoneName, Resolution resolution, Instant bucketStart) {}
+
+    // Sums of the readings of one batch that fall in the same bucket
+    private static final class Bucket {
+        int samples;
+        double aqiSum;
+        int aqiMax = Integer.MIN_VALUE;
+        double pm10Sum;
+        double no2Sum;
+        double co2Sum;
+        double o3Sum;
+
+        void add(int aqi, double pm10, double no2, double co2, double o3) {
+            samples++;
+            aqiSum += aqi;
+            aqiMax = Math.max(aqiMax, aqi);
+            pm10Sum += pm10;
+            no2Sum += no2;
+            co2Sum += co2;
+            o3Sum += o3;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+// src/main/java/org/example/soap/service/ReadingHistory.java
+package org.example.soap.service;
+
+import org.example.soap.generated.Resolution;
+import org.example.soap.model.SensorReading;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Consumer;
+
+/**
+ * READING HISTORY (air_quality_readings + air_quality_rollups)
+ * ═════════════════════════════════════════════════════════════
+ *
+ * Reads past readings of a zone ONE ROW AT A TIME and hands each one to a callback,
+ * so a year of readings never sits in memory as a List.
+ *
+ * RAW reads the readings as stored. MINUTE / HOUR / DAY read the sums kept by
+ * ReadingCompactor and turn each bucket into one averaged reading, dated at the
+ * start of its bucket (UTC).
+ *
+ * Used by GetReadingHistory, whose response is written while the rows are read.
+ */
+@Service
+public class ReadingHistory {
+
+    // Rows fetched per round trip to the database
+    private static final int FETCH_SIZE = 500;
+
+    private static final String HISTORY_SQL =
+            "SELECT zone_name, measured_at, aqi, status, pm10, no2, co2, o3 FROM air_quality_readings " +
+            "WHERE zone_name = ? AND measured_at >= ? AND measured_at < ? ORDER BY measured_at, id";
+
+    // The bucket holding "from" is included: its average covers "from"
+    private static final String ROLLUP_SQL =
+            "SELECT zone_name, bucket_start, samples, aqi_sum, pm10_sum, no2_sum, co2_sum, o3_sum " +
+            "FROM air_quality_rollups WHERE zone_name = ? AND resolution = ? " +
+            "AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReadingHistory(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Readings of a zone with from <= measuredAt < to, oldest first.
+     *
+     * @param zoneName the zone's canonical name (as stored)
+     */
+    public void forEachReading(String zoneName, Instant from, Instant to, Consumer<SensorReading> action) {
+        jdbcTemplate.query(HISTORY_SQL, rs -> {
+            action.accept(new SensorReading(
+                rs.getString("zone_name"),
+                rs.getInt("aqi"),
+                rs.getString("status"),
+                rs.getDouble("pm10"),
+                rs.getDouble("no2"),
+                rs.getDouble("co2"),
+                rs.getDouble("o3"),
+                rs.getTimestamp("measured_at").toInstant()
+            ));
+        }, zoneName, Timestamp.from(from), Timestamp.from(to));
+    }
+
+    /**
+     * Readings of a zone at a resolution, oldest first.
+     * MINUTE / HOUR / DAY: one average per bucket that overlaps [from, to).
+     */
+    public void forEachReading(String zoneName, Instant from, Instant to, Resolution resolution,
+                               Consumer<SensorReading> action) {
+        if (resolution == Resolution.RAW) {
+            forEachReading(zoneName, from, to, action);
+            return;
+        }
+        jdbcTemplate.query(ROLLUP_SQL, rs -> {
+            int samples = rs.getInt("samples");
+            int aqi = (int) Math.round(rs.getDouble("aqi_sum") / samples);
+            action.accept(new SensorReading(
+                rs.getString("zone_name"),
+                aqi,
+                AirQualityService.statusForAqi(aqi),
+                rs.getDouble("pm10_sum") / samples,
+                rs.getDouble("no2_sum") / samples,
+                rs.getDouble("co2_sum") / samples,
+                rs.getDouble("o3_sum") / samples,
+                rs.getTimestamp("bucket_start").toInstant()
+            ));
+        }, zoneName, resolution.value(), Timestamp.from(bucketStart(resolution, from)), Timestamp.from(to));
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // BUCKETS (shared with ReadingCompactor)
+    // ═══════════════════════════════════════════════════════════════════
+
+    static ChronoUnit bucketUnit(Resolution resolution) {
+        return switch (resolution) {
+            case MINUTE -> ChronoUnit.MINUTES;
+            case HOUR -> ChronoUnit.HOURS;
+            case DAY -> ChronoUnit.DAYS;
+            case RAW -> throw new IllegalArgumentException("RAW readings are not bucketed");
+        };
+    }
+
+    // Start of the minute / hour / day (UTC) that holds this instant
+    static Instant bucketStart(Resolution resolution, Instant instant) {
+        return instant.truncatedTo(bucketUnit(resolution));
+    }
+}
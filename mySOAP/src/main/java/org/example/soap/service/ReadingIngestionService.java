@@ -0,0 +1,499 @@
+// src/main/java/org/example/soap/service/ReadingIngestionService.java
+package org.example.soap.service;
+
+import org.example.soap.model.SensorReading;
+import org.example.soap.model.ZoneReading;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SENSOR READING INGESTION
+ * ═════════════════════════
+ *
+ * Takes readings from the SOAP operation and the bulk HTTP endpoint and stores them.
+ *
+ * HOW IT WORKS:
+ * ─────────────
+ *   request threads ──offer──▶ [ bounded queue ] ──drain──▶ ONE writer thread ──▶ database
+ *
+ * - Requests only validate and enqueue: they never wait for the database
+ * - The writer takes EVERYTHING waiting in the queue (up to batch-size) and writes it
+ *   in ONE transaction: one JDBC batch insert + one update per zone ("group commit").
+ *   The busier it gets, the bigger the batches, so throughput grows with load.
+ * - After each commit the zone snapshot gets the newest reading of every zone,
+ *   so GetAirQuality sees new data right away, and every reading is added to
+ *   the rolling averages (GetZoneAverages)
+ *
+ * BACKPRESSURE:
+ * ─────────────
+ * When the queue is full, a request waits at most max-wait-ms for room.
+ * If there is still none, the rest of the request is NOT queued and the caller
+ * is told to retry (SOAP fault / HTTP 503). Memory use stays bounded.
+ *
+ * DURABILITY:
+ * ───────────
+ * "Accepted" means queued. On a normal shutdown the queue is written out first;
+ * after a crash, readings still in the queue are lost.
+ *
+ * WHEN A WRITE FAILS:
+ * ───────────────────
+ * Readings were already acknowledged, so a failed batch is not simply dropped:
+ * - The database is unreachable or busy (connection, timeout, deadlock...):
+ *   the writer keeps the batch and tries again, waiting a little longer each
+ *   time (up to MAX_RETRY_DELAY_MS). Meanwhile the queue fills up and callers
+ *   get the usual backpressure. Only during shutdown is the batch given up.
+ * - The database refuses the data (constraint, value too long...): the batch is
+ *   written again one reading per transaction, so only the bad readings are lost
+ *   (counted in "failed", each one logged).
+ * Validation at submit time mirrors the column sizes, so the second case should
+ * not happen in practice.
+ */
+@Service
+public class ReadingIngestionService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadingIngestionService.class);
+
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    // Column sizes in schema.sql
+    private static final int MAX_ZONE_NAME_LENGTH = 100;
+    private static final int MAX_STATUS_LENGTH = 50;
+
+    // Gateway clocks may run a little ahead; a reading dated later would freeze its zone's
+    // current values (updated_at only moves forward) until the wall clock catches up
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(5);
+
+    private static final long FIRST_RETRY_DELAY_MS = 100;
+    private static final long MAX_RETRY_DELAY_MS = 5_000;
+
+    private static final String INSERT_READING_SQL =
+            "INSERT INTO air_quality_readings (zone_name, measured_at, aqi, status, pm10, no2, co2, o3) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Only move the current values forward: late (older) readings go to history only
+    // Zone names match whatever their case ("Foo" and "foo" are one zone, as in the
+    // snapshot): H2 compares case-sensitively, so both sides are lower-cased
+    private static final String UPDATE_ZONE_SQL =
+            "UPDATE air_quality_zones SET aqi = ?, status = ?, pm10 = ?, no2 = ?, co2 = ?, o3 = ?, updated_at = ? " +
+            "WHERE LOWER(zone_name) = LOWER(?) AND (updated_at IS NULL OR updated_at <= ?)";
+
+    private static final String INSERT_ZONE_SQL =
+            "INSERT INTO air_quality_zones (zone_name, aqi, status, pm10, no2, co2, o3, updated_at) " +
+            "SELECT ?, ?, ?, ?, ?, ?, ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM air_quality_zones WHERE LOWER(zone_name) = LOWER(?))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ZoneSnapshot zoneSnapshot;
+    private final RollingAverages rollingAverages;
+    private final BlockingQueue<SensorReading> queue;
+    private final int batchSize;
+    private final long maxWaitNanos;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    // Counters (read by monitoring)
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public ReadingIngestionService(JdbcTemplate jdbcTemplate,
+                                   ZoneSnapshot zoneSnapshot,
+                                   RollingAverages rollingAverages,
+                                   @Value("${airquality.ingest.queue-capacity:50000}") int queueCapacity,
+                                   @Value("${airquality.ingest.batch-size:1000}") int batchSize,
+                                   @Value("${airquality.ingest.max-wait-ms:200}") long maxWaitMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Plain JDBC transactions: a failed rollback then keeps the statement's own exception (see inTransaction)
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        this.zoneSnapshot = zoneSnapshot;
+        this.rollingAverages = rollingAverages;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PUBLIC METHODS (called by the SOAP endpoint and the HTTP controller)
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Start a submission: one per request.
+     * Readings are added one at a time, so a large HTTP body never has to be held in memory.
+     */
+    public Submission begin() {
+        return new Submission(System.nanoTime() + maxWaitNanos);
+    }
+
+    public int getQueueDepth() { return queue.size(); }
+    public long getAccepted() { return accepted.get(); }
+    public long getRejected() { return rejected.get(); }
+    public long getThrottled() { return throttled.get(); }
+    public long getWritten() { return written.get(); }
+    public long getFailed() { return failed.get(); }
+    public long getRetries() { return retries.get(); }
+    public long getBatches() { return batches.get(); }
+
+    /**
+     * Readings of one request. Not thread-safe: use it from the request thread only.
+     */
+    public final class Submission {
+        private final long deadlineNanos;
+        private final List<String> errors = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+        private Long notQueuedFrom;
+        private Long unreadFrom;
+
+        private Submission(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Validate and queue one reading. Fields may be null (they are checked here).
+         *
+         * @param index 1-based position in the request, used in error messages
+         * @return false when the queue is full: stop sending, the rest must be retried
+         */
+        public boolean add(long index, String zoneName, Integer aqi, String status,
+                           Double pm10, Double no2, Double co2, Double o3, Instant measuredAt) {
+            if (notQueuedFrom != null) {
+                return false;
+            }
+            String error = validate(zoneName, aqi, status, pm10, no2, co2, o3, measuredAt);
+            if (error != null) {
+                reject(index, error);
+                return true;
+            }
+
+            // Use the zone's existing spelling so "tunis center" updates "Tunis Center"
+            String zone = zoneSnapshot.get().find(zoneName)
+                    .map(ZoneReading::zoneName)
+                    .orElse(zoneName.trim());
+            SensorReading reading = new SensorReading(
+                zone, aqi,
+                status == null || status.isBlank() ? AirQualityService.statusForAqi(aqi) : status.trim(),
+                pm10, no2, co2, o3,
+                measuredAt != null ? measuredAt : Instant.now()
+            );
+
+            if (!enqueue(reading)) {
+                notQueuedFrom = index;
+                throttled.incrementAndGet();
+                return false;
+            }
+            accepted++;
+            ReadingIngestionService.this.accepted.incrementAndGet();
+            return true;
+        }
+
+        // For input that could not even be read as a reading (e.g. not a JSON object)
+        public void reject(long index, String message) {
+            rejected++;
+            ReadingIngestionService.this.rejected.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("#" + index + ": " + message);
+            }
+        }
+
+        // The rest of the request could not be read (e.g. broken JSON): nothing from index on was queued
+        public void stopReading(long index, String message) {
+            unreadFrom = index;
+            errors.add("#" + index + ": " + message);
+        }
+
+        public SubmitResult result() {
+            return new SubmitResult(accepted, rejected, List.copyOf(errors), notQueuedFrom, unreadFrom);
+        }
+
+        // Waits for room until the request's deadline; never blocks once the writer is stopped
+        private boolean enqueue(SensorReading reading) {
+            if (!running) {
+                return false;
+            }
+            try {
+                long remaining = deadlineNanos - System.nanoTime();
+                return remaining > 0
+                        ? queue.offer(reading, remaining, TimeUnit.NANOSECONDS)
+                        : queue.offer(reading);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private static String validate(String zoneName, Integer aqi, String status,
+                                   Double pm10, Double no2, Double co2, Double o3, Instant measuredAt) {
+        if (zoneName == null || zoneName.isBlank()) {
+            return "zoneName is required";
+        }
+        if (zoneName.trim().length() > MAX_ZONE_NAME_LENGTH) {
+            return "zoneName is longer than " + MAX_ZONE_NAME_LENGTH + " characters";
+        }
+        if (aqi == null || aqi < 0 || aqi > 500) {
+            return "aqi must be between 0 and 500";
+        }
+        if (status != null && status.trim().length() > MAX_STATUS_LENGTH) {
+            return "status is longer than " + MAX_STATUS_LENGTH + " characters";
+        }
+        for (Double value : new Double[]{pm10, no2, co2, o3}) {
+            if (value == null || value.isNaN() || value.isInfinite() || value < 0) {
+                return "pm10, no2, co2 and o3 are required and must be >= 0";
+            }
+        }
+        if (measuredAt != null && measuredAt.isAfter(Instant.now().plus(MAX_CLOCK_SKEW))) {
+            return "measuredAt is more than " + MAX_CLOCK_SKEW.toMinutes() + " minutes in the future";
+        }
+        return null;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // WRITER THREAD (group commit)
+    // ═══════════════════════════════════════════════════════════════════
+
+    private void runWriter() {
+        List<SensorReading> batch = new ArrayList<>(batchSize);
+        // Keep going after stop() until the queue is empty
+        while (running || !queue.isEmpty()) {
+            try {
+                SensorReading first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Reading writer failed on a batch of {}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<SensorReading> batch) throws InterruptedException {
+        try {
+            stored(batch, withRetries(batch));
+            return;
+        } catch (DataAccessException e) {
+            if (isTransient(e)) {
+                // Only while shutting down: the database is gone, nothing left to try
+                failed.addAndGet(batch.size());
+                log.error("Could not store {} readings before shutdown, they are dropped", batch.size(), e);
+                return;
+            }
+            log.warn("A batch of {} readings was refused, writing them one by one", batch.size(), e);
+        }
+
+        // One transaction per reading: only the ones the database refuses are lost
+        List<SensorReading> written = new ArrayList<>(batch.size());
+        List<SensorReading> applied = new ArrayList<>();
+        for (SensorReading reading : batch) {
+            try {
+                applied.addAll(withRetries(List.of(reading)));
+                written.add(reading);
+            } catch (DataAccessException e) {
+                failed.incrementAndGet();
+                log.error("Could not store reading {}, it is dropped", reading, e);
+            }
+        }
+        if (!written.isEmpty()) {
+            stored(written, applied);
+        }
+    }
+
+    // Writes the readings in one transaction, trying again as long as the failure is
+    // transient and the writer is running; anything else is thrown to the caller
+    private List<SensorReading> withRetries(List<SensorReading> readings) throws InterruptedException {
+        long delay = FIRST_RETRY_DELAY_MS;
+        while (true) {
+            try {
+                return inTransaction(readings);
+            } catch (DataAccessException e) {
+                if (!isTransient(e) || !running) {
+                    throw e;
+                }
+                retries.incrementAndGet();
+                log.warn("Could not store {} readings, retrying in {} ms: {}", readings.size(), delay, e.getMessage());
+                TimeUnit.MILLISECONDS.sleep(delay);
+                delay = Math.min(delay * 2, MAX_RETRY_DELAY_MS);
+            }
+        }
+    }
+
+    // The rollback after a failed statement can fail too (HikariCP closes the connection after a
+    // lock timeout): the statement's own exception is what tells whether to try again
+    private List<SensorReading> inTransaction(List<SensorReading> readings) {
+        try {
+            return transactionTemplate.execute(status -> insert(readings));
+        } catch (TransactionSystemException e) {
+            if (e.getApplicationException() instanceof DataAccessException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Worth trying again: the same statements may succeed once the database is back or less busy
+    private static boolean isTransient(DataAccessException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException;
+    }
+
+    // One JDBC batch insert + one update per zone; returns the readings that became a zone's current values
+    private List<SensorReading> insert(List<SensorReading> readings) {
+        jdbcTemplate.batchUpdate(INSERT_READING_SQL, readings, readings.size(), (ps, reading) -> {
+            ps.setString(1, reading.zoneName());
+            ps.setTimestamp(2, Timestamp.from(reading.measuredAt()));
+            ps.setInt(3, reading.aqi());
+            ps.setString(4, reading.status());
+            ps.setDouble(5, reading.pm10());
+            ps.setDouble(6, reading.no2());
+            ps.setDouble(7, reading.co2());
+            ps.setDouble(8, reading.o3());
+        });
+
+        // Newest reading per zone; on equal times the later one in the batch wins
+        Map<String, SensorReading> latest = new LinkedHashMap<>();
+        for (SensorReading reading : readings) {
+            latest.merge(ZoneSnapshot.normalize(reading.zoneName()), reading,
+                    (older, newer) -> newer.measuredAt().isBefore(older.measuredAt()) ? older : newer);
+        }
+        return updateZones(latest.values());
+    }
+
+    // After the commit: counters, rolling averages, zone snapshot
+    private void stored(List<SensorReading> readings, List<SensorReading> applied) {
+        written.addAndGet(readings.size());
+        batches.incrementAndGet();
+        rollingAverages.record(readings);
+        if (!applied.isEmpty()) {
+            zoneSnapshot.applyReadings(applied);
+        }
+    }
+
+    // Returns the readings that became a zone's current values
+    private List<SensorReading> updateZones(Iterable<SensorReading> latest) {
+        List<SensorReading> applied = new ArrayList<>();
+        for (SensorReading reading : latest) {
+            Timestamp measuredAt = Timestamp.from(reading.measuredAt());
+            int updated = jdbcTemplate.update(UPDATE_ZONE_SQL,
+                    reading.aqi(), reading.status(), reading.pm10(), reading.no2(), reading.co2(), reading.o3(),
+                    measuredAt, reading.zoneName(), measuredAt);
+            if (updated == 0) {
+                // Either a new zone, or the zone already has newer values
+                updated = jdbcTemplate.update(INSERT_ZONE_SQL,
+                        reading.zoneName(), reading.aqi(), reading.status(),
+                        reading.pm10(), reading.no2(), reading.co2(), reading.o3(),
+                        measuredAt, reading.zoneName());
+            }
+            if (updated > 0) {
+                applied.add(reading);
+            }
+        }
+        return applied;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // LIFECYCLE
+    // ═══════════════════════════════════════════════════════════════════
+    // Phase below the web server's: started before it accepts requests,
+    // stopped (and flushed) only after it has stopped taking new ones.
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "reading-writer");
+        writer.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        // No interrupt: an interrupted H2 file write closes the database.
+        // The writer notices within its 100 ms poll and drains the queue first.
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Shutting down with {} readings still queued", queue.size());
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // INNER CLASSES
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * @param notQueuedFrom 1-based index of the first reading that was NOT queued because
+     *                      the queue was full (null if everything was handled)
+     * @param unreadFrom    1-based index where the body stopped being readable; the readings
+     *                      before it are queued, none from it on (null if all was read)
+     */
+    public record SubmitResult(long accepted, long rejected, List<String> errors, Long notQueuedFrom,
+                               Long unreadFrom) {
+
+        public boolean isThrottled() {
+            return notQueuedFrom != null;
+        }
+    }
+
+    /**
+     * Thrown to SOAP callers when the queue stayed full.
+     * Spring WS turns it into a Server fault with this message.
+     */
+    public static class IngestionOverloadedException extends RuntimeException {
+        public IngestionOverloadedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+// src/main/java/org/example/soap/service/RetentionPolicy.java
+package org.example.soap.service;
+
+import org.example.soap.generated.Resolution;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * HOW LONG EACH RESOLUTION OF HISTORY IS KEPT
+ * ════════════════════════════════════════════
+ *
+ *   RAW     every reading                 airquality.retention.raw-days      (default 7)
+ *   MINUTE  one average per zone/minute   airquality.retention.minute-days   (default 30)
+ *   HOUR    one average per zone/hour     airquality.retention.hour-days     (default 365)
+ *   DAY     one average per zone/day      forever
+ *
+ * ReadingCompactor deletes what is older; GetReadingHistory uses this to pick
+ * a resolution that still has data for the requested range.
+ *
+ * WHICH RESOLUTION FOR A HISTORY REQUEST?
+ * ───────────────────────────────────────
+ * The finest one that is still stored for "from" and gives at most max-points
+ * readings: a year of readings comes back as 365 daily averages, not 500 000 rows,
+ * and the last hour still comes back reading by reading.
+ * RAW counts as one reading a minute (what most sensors send); when RAW is too much,
+ * MINUTE is too, so the next step is HOUR.
+ */
+@Component
+public class RetentionPolicy {
+
+    // Finest first
+    private static final List<Resolution> RESOLUTIONS =
+            List.of(Resolution.RAW, Resolution.MINUTE, Resolution.HOUR, Resolution.DAY);
+
+    private final Duration rawRetention;
+    private final Duration minuteRetention;
+    private final Duration hourRetention;
+    private final long maxPoints;
+
+    public RetentionPolicy(@Value("${airquality.retention.raw-days:7}") int rawDays,
+                           @Value("${airquality.retention.minute-days:30}") int minuteDays,
+                           @Value("${airquality.retention.hour-days:365}") int hourDays,
+                           @Value("${airquality.history.max-points:1500}") int maxPoints) {
+        // The 24h rolling averages are reloaded from the raw readings at startup
+        if (rawDays < 1) {
+            throw new IllegalArgumentException("airquality.retention.raw-days must be at least 1");
+        }
+        if (minuteDays < rawDays || hourDays < minuteDays) {
+            throw new IllegalArgumentException("retention must not get shorter for coarser resolutions: "
+                    + "raw-days <= minute-days <= hour-days");
+        }
+        if (maxPoints < 1) {
+            throw new IllegalArgumentException("airquality.history.max-points must be at least 1");
+        }
+        this.rawRetention = Duration.ofDays(rawDays);
+        this.minuteRetention = Duration.ofDays(minuteDays);
+        this.hourRetention = Duration.ofDays(hourDays);
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * How long a resolution is kept; null = forever.
+     */
+    public Duration retention(Resolution resolution) {
+        return switch (resolution) {
+            case RAW -> rawRetention;
+            case MINUTE -> minuteRetention;
+            case HOUR -> hourRetention;
+            case DAY -> null;
+        };
+    }
+
+    /**
+     * The resolution to answer a history request with.
+     *
+     * @param requested null = choose from the range; otherwise used if still stored
+     *                  for "from", else the next coarser resolution that is
+     */
+    public Resolution resolutionFor(Instant from, Instant to, Resolution requested, Instant now) {
+        int first = requested == null ? 0 : RESOLUTIONS.indexOf(requested);
+        for (Resolution resolution : RESOLUTIONS.subList(first, RESOLUTIONS.size())) {
+            if (!covers(resolution, from, now)) {
+                continue;
+            }
+            if (requested == null && resolution != Resolution.DAY && points(resolution, from, to) > maxPoints) {
+                continue;
+            }
+            return resolution;
+        }
+        return Resolution.DAY;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════════
+
+    private boolean covers(Resolution resolution, Instant from, Instant now) {
+        Duration retention = retention(resolution);
+        return retention == null || !from.isBefore(now.minus(retention));
+    }
+
+    // Readings a range gives at this resolution (RAW: about one a minute)
+    private static long points(Resolution resolution, Instant from, Instant to) {
+        ChronoUnit unit = resolution == Resolution.RAW ? ChronoUnit.MINUTES : ReadingHistory.bucketUnit(resolution);
+        return unit.between(from, to) + 1;
+    }
+}
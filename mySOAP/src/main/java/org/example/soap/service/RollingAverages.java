@@ -0,0 +1,256 @@
+// src/main/java/org/example/soap/service/RollingAverages.java
+package org.example.soap.service;
+
+import org.example.soap.model.SensorReading;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ROLLING AVERAGES (1 hour / 8 hours / 24 hours)
+ * ═══════════════════════════════════════════════
+ *
+ * Average AQI and pollutant values of every zone over the last 1, 8 and 24 hours,
+ * kept up to date as readings arrive - no SQL AVG(...) per request.
+ *
+ * HOW IT WORKS:
+ * ─────────────
+ * Each zone has a RING of 1440 one-minute buckets (= 24 hours).
+ * A bucket holds the COUNT and the SUMS of the readings measured in that minute.
+ *
+ *   minute:   ... 10:57  10:58  10:59  11:00  ← head (newest minute)
+ *   bucket:   ... [3,Σ]  [0]    [2,Σ]  [4,Σ]
+ *
+ * Next to the ring, every window keeps its own running total (count + sums):
+ * - A new reading is added to its bucket AND to the totals of the windows it falls in
+ * - When the head moves forward one minute, the bucket that just left a window
+ *   is subtracted from that window's total
+ *
+ * So a query is "total / count" → O(1), whatever the number of readings.
+ * Moving the head costs one step per elapsed minute (at most 1440), shared by all queries.
+ *
+ * WHERE DO READINGS COME FROM?
+ * ────────────────────────────
+ * - At startup: the last 24 hours of air_quality_readings
+ * - Then: every batch the ingestion writer commits (late readings included,
+ *   as long as they are less than 24 hours old)
+ *
+ * A reading dated more than MAX_AHEAD_MINUTES after "now" is NOT counted: the head
+ * follows the newest minute, so one far-future reading would empty every window and
+ * make all real readings look older than 24 hours.
+ *
+ * MEMORY: about 100 KB per zone (1440 buckets × 7 numbers).
+ */
+@Component
+public class RollingAverages implements SmartInitializingSingleton {
+
+    // The windows served by GetZoneAverages, in hours
+    private static final int[] WINDOW_HOURS = {1, 8, 24};
+
+    private static final int BUCKETS = 24 * 60;   // One per minute, covers the largest window
+    private static final int VALUES = 5;          // aqi, pm10, no2, co2, o3
+
+    // Clock skew tolerated for a sensor ahead of us (the ingestion rejects more than that)
+    static final long MAX_AHEAD_MINUTES = 5;
+
+    private static final String LOAD_SQL =
+            "SELECT zone_name, measured_at, aqi, pm10, no2, co2, o3 FROM air_quality_readings " +
+            "WHERE measured_at >= ? ORDER BY measured_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // normalized zone name → that zone's buckets
+    private final Map<String, ZoneWindows> zones = new ConcurrentHashMap<>();
+
+    public RollingAverages(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Rebuild the buckets from the readings table (runs once, at startup).
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        Instant now = Instant.now();
+        Timestamp since = Timestamp.from(now.minus(Duration.ofHours(BUCKETS / 60)));
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            add(rs.getString("zone_name"), rs.getTimestamp("measured_at").toInstant(),
+                rs.getInt("aqi"), rs.getDouble("pm10"), rs.getDouble("no2"),
+                rs.getDouble("co2"), rs.getDouble("o3"), minuteOf(now));
+        }, since);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PUBLIC METHODS
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Count readings that were just stored (called by the ingestion writer after commit).
+     */
+    public void record(Collection<SensorReading> readings) {
+        record(readings, Instant.now());
+    }
+
+    // "now" given by the caller (tests)
+    void record(Collection<SensorReading> readings, Instant now) {
+        for (SensorReading r : readings) {
+            add(r.zoneName(), r.measuredAt(), r.aqi(), r.pm10(), r.no2(), r.co2(), r.o3(), minuteOf(now));
+        }
+    }
+
+    /**
+     * Averages of one zone for every window in WINDOW_HOURS, as of "now".
+     * A window without readings has samples = 0 (and no averages).
+     */
+    public List<WindowAverage> averages(String zoneName, Instant now) {
+        ZoneWindows windows = zones.get(ZoneSnapshot.normalize(zoneName));
+        if (windows == null) {
+            List<WindowAverage> empty = new ArrayList<>(WINDOW_HOURS.length);
+            for (int hours : WINDOW_HOURS) {
+                empty.add(new WindowAverage(hours, 0, 0, 0, 0, 0, 0));
+            }
+            return empty;
+        }
+        return windows.averages(minuteOf(now));
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════════
+
+    private void add(String zoneName, Instant measuredAt,
+                     double aqi, double pm10, double no2, double co2, double o3, long nowMinute) {
+        if (minuteOf(measuredAt) > nowMinute + MAX_AHEAD_MINUTES) {
+            return;   // Sensor clock far ahead: counting it would move the head past every real reading
+        }
+        zones.computeIfAbsent(ZoneSnapshot.normalize(zoneName), z -> new ZoneWindows())
+             .add(minuteOf(measuredAt), new double[]{aqi, pm10, no2, co2, o3});
+    }
+
+    private static long minuteOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 60);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // ONE ZONE'S RING OF BUCKETS
+    // ═══════════════════════════════════════════════════════════════════
+    // Guarded by its own lock: zones never wait for each other.
+
+    private static final class ZoneWindows {
+
+        // Bucket i holds minute stamp[i] (or nothing if stamp[i] is not in the last 24 hours)
+        private final long[] stamp = new long[BUCKETS];
+        private final int[] count = new int[BUCKETS];
+        private final double[][] sums = new double[BUCKETS][VALUES];
+
+        // Running totals per window (same order as WINDOW_HOURS)
+        private final int[] windowCount = new int[WINDOW_HOURS.length];
+        private final double[][] windowSums = new double[WINDOW_HOURS.length][VALUES];
+
+        private long head = Long.MIN_VALUE;   // Newest minute seen so far
+
+        ZoneWindows() {
+            Arrays.fill(stamp, Long.MIN_VALUE);
+        }
+
+        synchronized void add(long minute, double[] values) {
+            advance(minute);
+            if (minute <= head - BUCKETS) {
+                return;   // Older than the largest window
+            }
+            int slot = slot(minute);
+            if (stamp[slot] != minute) {
+                stamp[slot] = minute;
+                count[slot] = 0;
+                Arrays.fill(sums[slot], 0);
+            }
+            count[slot]++;
+            addTo(sums[slot], values, 1);
+
+            for (int w = 0; w < WINDOW_HOURS.length; w++) {
+                if (minute > head - WINDOW_HOURS[w] * 60L) {
+                    windowCount[w]++;
+                    addTo(windowSums[w], values, 1);
+                }
+            }
+        }
+
+        synchronized List<WindowAverage> averages(long now) {
+            advance(now);
+            List<WindowAverage> result = new ArrayList<>(WINDOW_HOURS.length);
+            for (int w = 0; w < WINDOW_HOURS.length; w++) {
+                int n = windowCount[w];
+                double[] s = windowSums[w];
+                result.add(n == 0
+                        ? new WindowAverage(WINDOW_HOURS[w], 0, 0, 0, 0, 0, 0)
+                        : new WindowAverage(WINDOW_HOURS[w], n, s[0] / n, s[1] / n, s[2] / n, s[3] / n, s[4] / n));
+            }
+            return result;
+        }
+
+        /**
+         * Move the head forward to "to", subtracting every bucket that leaves a window.
+         * Never moves backwards: a reading up to MAX_AHEAD_MINUTES ahead moves the head
+         * (and every window) that much early, which is why readings further ahead are
+         * never passed in - a head 24 hours early would drop every real reading.
+         */
+        private void advance(long to) {
+            if (to <= head) {
+                return;
+            }
+            if (head == Long.MIN_VALUE || to - head >= BUCKETS) {
+                // First reading, or nothing left inside any window: start clean
+                Arrays.fill(windowCount, 0);
+                for (double[] s : windowSums) {
+                    Arrays.fill(s, 0);
+                }
+                head = to;
+                return;
+            }
+            for (long m = head + 1; m <= to; m++) {
+                for (int w = 0; w < WINDOW_HOURS.length; w++) {
+                    long leaving = m - WINDOW_HOURS[w] * 60L;
+                    int slot = slot(leaving);
+                    if (stamp[slot] == leaving && count[slot] > 0) {
+                        windowCount[w] -= count[slot];
+                        addTo(windowSums[w], sums[slot], -1);
+                        if (windowCount[w] == 0) {
+                            Arrays.fill(windowSums[w], 0);   // Drop rounding left over by the subtractions
+                        }
+                    }
+                }
+            }
+            head = to;
+        }
+
+        private static int slot(long minute) {
+            return (int) Math.floorMod(minute, (long) BUCKETS);
+        }
+
+        private static void addTo(double[] target, double[] values, int sign) {
+            for (int i = 0; i < VALUES; i++) {
+                target[i] += sign * values[i];
+            }
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // INNER CLASSES
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Averages over the last "hours" hours; samples = number of readings in the window.
+     */
+    public record WindowAverage(int hours, int samples,
+                                double aqi, double pm10, double no2, double co2, double o3) {}
+}
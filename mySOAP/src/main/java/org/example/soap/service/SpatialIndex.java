@@ -0,0 +1,220 @@
+// src/main/java/org/example/soap/service/SpatialIndex.java
+package org.example.soap.service;
+
+import org.example.soap.model.ZoneReading;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * SPATIAL INDEX OF ZONES (nearest zones to a point)
+ * ══════════════════════════════════════════════════
+ *
+ * An immutable k-d tree over the zones that have coordinates.
+ * Built once per ZoneSnapshot, then shared by every request without locks.
+ *
+ * WHY 3 DIMENSIONS FOR A MAP?
+ * ───────────────────────────
+ * Latitude/longitude are angles: 1° of longitude is 111 km at the equator but 0 km
+ * at the poles, and 179.9° is right next to -179.9°. Comparing angles gives wrong
+ * neighbours. So every point is turned into (x, y, z) on a sphere of radius 1:
+ *
+ *   x = cos(lat)·cos(lon)    y = cos(lat)·sin(lon)    z = sin(lat)
+ *
+ * The straight-line distance between two such points (the "chord") grows with the
+ * real distance along the Earth, so "nearest by chord" = "nearest on the map".
+ * The real distance is only computed for the results:  d = 2R·asin(chord / 2)
+ *
+ * HOW THE TREE WORKS:
+ * ───────────────────
+ * The points are split in two at the median x, each half at the median y,
+ * then z, then x again... A search walks down to the query's side first, and
+ * skips a whole half when the splitting plane is farther than the k-th best
+ * distance found so far → about log2(n) steps instead of looking at every zone.
+ *
+ * The tree lives in plain arrays: the node of a range [lo, hi) is at mid = (lo + hi) / 2,
+ * its children are [lo, mid) and [mid + 1, hi).
+ */
+public final class SpatialIndex {
+
+    // Mean Earth radius (IUGG)
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    public static final SpatialIndex EMPTY = new SpatialIndex(new ZoneReading[0], new double[0][]);
+
+    private final ZoneReading[] zones;   // In tree order
+    private final double[][] points;     // points[i] = {x, y, z} of zones[i]
+
+    private SpatialIndex(ZoneReading[] zones, double[][] points) {
+        this.zones = zones;
+        this.points = points;
+    }
+
+    /**
+     * Build the tree. Zones without coordinates are left out.
+     */
+    public static SpatialIndex of(Collection<ZoneReading> readings) {
+        List<ZoneReading> located = new ArrayList<>();
+        for (ZoneReading reading : readings) {
+            if (reading.latitude() != null && reading.longitude() != null) {
+                located.add(reading);
+            }
+        }
+        if (located.isEmpty()) {
+            return EMPTY;
+        }
+
+        Integer[] order = new Integer[located.size()];
+        double[][] unsorted = new double[located.size()][];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            unsorted[i] = toPoint(located.get(i).latitude(), located.get(i).longitude());
+        }
+        build(order, unsorted, 0, order.length, 0);
+
+        ZoneReading[] zones = new ZoneReading[order.length];
+        double[][] points = new double[order.length][];
+        for (int i = 0; i < order.length; i++) {
+            zones[i] = located.get(order[i]);
+            points[i] = unsorted[order[i]];
+        }
+        return new SpatialIndex(zones, points);
+    }
+
+    public int size() {
+        return zones.length;
+    }
+
+    /**
+     * The "count" zones closest to (latitude, longitude), nearest first,
+     * no farther than maxDistanceKm.
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, int count, double maxDistanceKm) {
+        if (zones.length == 0 || count < 1) {
+            return List.of();
+        }
+        Search search = new Search(toPoint(latitude, longitude), Math.min(count, zones.length),
+                chordOf(maxDistanceKm));
+        search.visit(0, zones.length, 0);
+
+        Candidate[] found = search.best.toArray(new Candidate[0]);
+        Arrays.sort(found, Comparator.comparingDouble(Candidate::chord2));
+        List<Neighbor> result = new ArrayList<>(found.length);
+        for (Candidate candidate : found) {
+            result.add(new Neighbor(zones[candidate.index()], distanceKm(Math.sqrt(candidate.chord2()))));
+        }
+        return result;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // BUILDING + SEARCHING THE TREE
+    // ═══════════════════════════════════════════════════════════════════
+
+    // Sort [lo, hi) on this depth's axis, so the median ends up in the middle; then each half
+    private static void build(Integer[] order, double[][] points, int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int axis = depth % 3;
+        Arrays.sort(order, lo, hi, Comparator.comparingDouble(i -> points[i][axis]));
+        int mid = (lo + hi) >>> 1;
+        build(order, points, lo, mid, depth + 1);
+        build(order, points, mid + 1, hi, depth + 1);
+    }
+
+    private final class Search {
+
+        private final double[] target;
+        private final int count;
+        private final double maxChord2;
+
+        // The best candidates so far; the head is the WORST of them (max-heap)
+        private final PriorityQueue<Candidate> best;
+
+        Search(double[] target, int count, double maxChord) {
+            this.target = target;
+            this.count = count;
+            this.maxChord2 = maxChord * maxChord;
+            this.best = new PriorityQueue<>(count + 1, Comparator.comparingDouble(Candidate::chord2).reversed());
+        }
+
+        void visit(int lo, int hi, int depth) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            int axis = depth % 3;
+
+            offer(mid);
+
+            // The query's side first: it is the most likely to hold the nearest points
+            double delta = target[axis] - points[mid][axis];
+            boolean leftFirst = delta < 0;
+            visit(leftFirst ? lo : mid + 1, leftFirst ? mid : hi, depth + 1);
+            // The other side only if the splitting plane is closer than the worst kept candidate
+            if (delta * delta <= bound()) {
+                visit(leftFirst ? mid + 1 : lo, leftFirst ? hi : mid, depth + 1);
+            }
+        }
+
+        private void offer(int index) {
+            double chord2 = squaredDistance(target, points[index]);
+            if (chord2 > maxChord2) {
+                return;
+            }
+            if (best.size() < count) {
+                best.add(new Candidate(index, chord2));
+            } else if (chord2 < best.peek().chord2()) {
+                best.poll();
+                best.add(new Candidate(index, chord2));
+            }
+        }
+
+        private double bound() {
+            return best.size() < count ? maxChord2 : best.peek().chord2();
+        }
+    }
+
+    private record Candidate(int index, double chord2) {}
+
+    // ═══════════════════════════════════════════════════════════════════
+    // GEOMETRY
+    // ═══════════════════════════════════════════════════════════════════
+
+    private static double[] toPoint(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[]{cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat)};
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // Great-circle distance → chord on the unit sphere (half the globe or more = no limit)
+    private static double chordOf(double distanceKm) {
+        double angle = distanceKm / EARTH_RADIUS_KM;
+        return angle >= Math.PI ? Double.POSITIVE_INFINITY : 2 * Math.sin(angle / 2);
+    }
+
+    private static double distanceKm(double chord) {
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, chord / 2));
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // INNER CLASSES
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * A zone found near the query point and its distance along the Earth's surface.
+     */
+    public record Neighbor(ZoneReading zone, double distanceKm) {}
+}
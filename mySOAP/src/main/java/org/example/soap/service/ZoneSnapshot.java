@@ -0,0 +1,141 @@
+// src/main/java/org/example/soap/service/ZoneSnapshot.java
+package org.example.soap.service;
+
+import org.example.soap.model.SensorReading;
+import org.example.soap.model.ZoneReading;
+import org.example.soap.repository.AirQualityRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * IN-MEMORY ZONE SNAPSHOT
+ * ════════════════════════
+ *
+ * Holds the current reading of every zone so SOAP requests never touch the database.
+ *
+ * HOW IT WORKS:
+ * ─────────────
+ * - A Snapshot is IMMUTABLE: a map from normalized zone name → reading
+ * - The current snapshot sits behind an AtomicReference
+ * - Readers just call get() - no locks, no JDBC, always a consistent view
+ * - Writers build a complete NEW snapshot and swap it in one step
+ *
+ * WHEN IS IT REFRESHED?
+ * ─────────────────────
+ * - At startup (after schema.sql / data.sql ran)
+ * - On a fixed schedule (airquality.snapshot.refresh-interval-ms), which picks up
+ *   rows changed outside the application (e.g. from the H2 console)
+ * - Whenever the ingestion writer commits new readings (applyReadings)
+ */
+@Component
+public class ZoneSnapshot implements SmartInitializingSingleton {
+
+    private final AirQualityRepository repository;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+
+    public ZoneSnapshot(AirQualityRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+    }
+
+    /**
+     * Reload all zones from the database and swap the snapshot.
+     *
+     * If nothing changed, the current snapshot (and its updatedAt time) is kept.
+     * synchronized only orders concurrent writers - readers are never blocked.
+     */
+    @Scheduled(fixedDelayString = "${airquality.snapshot.refresh-interval-ms:30000}",
+               initialDelayString = "${airquality.snapshot.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        List<ZoneReading> readings = repository.findAll().stream()
+                .map(ZoneReading::from)
+                .toList();
+
+        Snapshot previous = current.get();
+        if (!readings.equals(previous.all())) {
+            current.set(Snapshot.of(readings, Instant.now()));
+        }
+    }
+
+    /**
+     * Apply readings that were just committed as the zones' current values,
+     * without reloading the table. Zones not in the snapshot yet are appended.
+     * Readings carry no description, so a zone keeps the one it has.
+     */
+    public synchronized void applyReadings(Collection<SensorReading> readings) {
+        Snapshot previous = current.get();
+        Map<String, ZoneReading> byZone = new LinkedHashMap<>();
+        for (ZoneReading reading : previous.all()) {
+            byZone.put(normalize(reading.zoneName()), reading);
+        }
+        for (SensorReading reading : readings) {
+            ZoneReading existing = byZone.get(normalize(reading.zoneName()));
+            byZone.put(normalize(reading.zoneName()), new ZoneReading(
+                existing != null ? existing.zoneName() : reading.zoneName(),
+                reading.aqi(), reading.status(),
+                reading.pm10(), reading.no2(), reading.co2(), reading.o3(),
+                existing != null ? existing.description() : null,
+                existing != null ? existing.latitude() : null,
+                existing != null ? existing.longitude() : null
+            ));
+        }
+        current.set(Snapshot.of(List.copyOf(byZone.values()), Instant.now()));
+    }
+
+    /**
+     * The snapshot in use right now.
+     * Grab it ONCE per request when reading several zones, so they come from the same version.
+     */
+    public Snapshot get() {
+        return current.get();
+    }
+
+    // Lookups are case-insensitive and ignore surrounding spaces
+    static String normalize(String zoneName) {
+        return zoneName == null ? "" : zoneName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // IMMUTABLE SNAPSHOT
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * @param byZone    normalized zone name → reading (unmodifiable)
+     * @param all       every reading, in database (id) order (unmodifiable)
+     * @param locations the zones with coordinates, for nearest-zone lookups
+     * @param updatedAt when this data was loaded
+     */
+    public record Snapshot(Map<String, ZoneReading> byZone, List<ZoneReading> all,
+                           SpatialIndex locations, Instant updatedAt) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), List.of(), SpatialIndex.EMPTY, Instant.EPOCH);
+
+        static Snapshot of(List<ZoneReading> readings, Instant updatedAt) {
+            Map<String, ZoneReading> byZone = new LinkedHashMap<>();
+            for (ZoneReading reading : readings) {
+                byZone.put(normalize(reading.zoneName()), reading);
+            }
+            // Rebuilt with every snapshot: a few hundred zones take well under a millisecond
+            return new Snapshot(Map.copyOf(byZone), List.copyOf(readings), SpatialIndex.of(readings), updatedAt);
+        }
+
+        public Optional<ZoneReading> find(String zoneName) {
+            return Optional.ofNullable(byZone.get(normalize(zoneName)));
+        }
+    }
+}
@@ -6,30 +6,31 @@
 -- Based on realistic values for each area
 -- ═══════════════════════════════════════════════════════════════════════════
 
--- Clear existing data (for clean restarts)
-DELETE FROM air_quality_zones;
-
--- Industrial Zone - Worst air quality
-INSERT INTO air_quality_zones (zone_name, aqi, status, pm10, no2, co2, o3, description)
-VALUES ('Charguia 2', 185, 'Unhealthy', 95.5, 60.2, 450.0, 15.0, 
-        'Industrial zone with factories and heavy truck traffic');
-
--- City Center - Moderate (traffic pollution)
-INSERT INTO air_quality_zones (zone_name, aqi, status, pm10, no2, co2, o3, description)
-VALUES ('Tunis Center', 110, 'Moderate', 45.0, 55.0, 420.0, 25.0,
-        'Downtown area with heavy car traffic and commercial activity');
-
--- Coastal Tourist Area - Best air quality
-INSERT INTO air_quality_zones (zone_name, aqi, status, pm10, no2, co2, o3, description)
-VALUES ('Sidi Bou Said', 35, 'Good', 12.0, 10.0, 400.0, 35.0,
-        'Coastal village with sea breeze and minimal traffic');
-
--- Suburban Residential - Fair
-INSERT INTO air_quality_zones (zone_name, aqi, status, pm10, no2, co2, o3, description)
-VALUES ('Ariana', 75, 'Fair', 28.0, 30.0, 410.0, 20.0,
-        'Suburban residential area with moderate traffic');
-
--- Airport Area - Unhealthy for sensitive groups
-INSERT INTO air_quality_zones (zone_name, aqi, status, pm10, no2, co2, o3, description)
-VALUES ('Tunis Carthage Airport', 130, 'Unhealthy for Sensitive Groups', 55.0, 48.0, 435.0, 18.0,
-        'Airport area with aircraft emissions and road traffic');
\ No newline at end of file
+-- Seeds only zones that do not exist yet (whatever the case of their name).
+-- Existing zones keep their current values: the ingestion writer keeps those up to
+-- date, and the readings they came from may already have been purged by retention.
+-- Description and coordinates are reference data: they always follow this file.
+MERGE INTO air_quality_zones z
+USING (VALUES
+    -- Industrial Zone - Worst air quality
+    ('Charguia 2', 185, 'Unhealthy', 95.5, 60.2, 450.0, 15.0,
+     'Industrial zone with factories and heavy truck traffic', 36.8390, 10.2050),
+    -- City Center - Moderate (traffic pollution)
+    ('Tunis Center', 110, 'Moderate', 45.0, 55.0, 420.0, 25.0,
+     'Downtown area with heavy car traffic and commercial activity', 36.8008, 10.1800),
+    -- Coastal Tourist Area - Best air quality
+    ('Sidi Bou Said', 35, 'Good', 12.0, 10.0, 400.0, 35.0,
+     'Coastal village with sea breeze and minimal traffic', 36.8687, 10.3416),
+    -- Suburban Residential - Fair
+    ('Ariana', 75, 'Fair', 28.0, 30.0, 410.0, 20.0,
+     'Suburban residential area with moderate traffic', 36.8665, 10.1647),
+    -- Airport Area - Unhealthy for sensitive groups
+    ('Tunis Carthage Airport', 130, 'Unhealthy for Sensitive Groups', 55.0, 48.0, 435.0, 18.0,
+     'Airport area with aircraft emissions and road traffic', 36.8510, 10.2272)
+) AS s (zone_name, aqi, status, pm10, no2, co2, o3, description, latitude, longitude)
+ON LOWER(z.zone_name) = LOWER(s.zone_name)
+WHEN MATCHED THEN
+    UPDATE SET description = s.description, latitude = s.latitude, longitude = s.longitude
+WHEN NOT MATCHED THEN
+    INSERT (zone_name, aqi, status, pm10, no2, co2, o3, description, latitude, longitude)
+    VALUES (s.zone_name, s.aqi, s.status, s.pm10, s.no2, s.co2, s.o3, s.description, s.latitude, s.longitude);
@@ -16,4 +16,75 @@ CREATE TABLE IF NOT EXISTS air_quality_zones (
     co2         DOUBLE,
     o3          DOUBLE,
     description VARCHAR(500)
-);
\ No newline at end of file
+);
+
+-- When the current values of a zone were measured (NULL = seed data from data.sql)
+ALTER TABLE air_quality_zones ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+
+-- Where the zone is, in WGS84 degrees (NULL = not placed on the map yet)
+ALTER TABLE air_quality_zones ADD COLUMN IF NOT EXISTS latitude DOUBLE;
+ALTER TABLE air_quality_zones ADD COLUMN IF NOT EXISTS longitude DOUBLE;
+
+-- ═══════════════════════════════════════════════════════════════════════════
+-- TABLE: air_quality_readings
+-- Append-only history of every reading sent by the sensor gateways.
+-- Rows are never updated; air_quality_zones keeps the latest one per zone.
+-- Deleted after airquality.retention.raw-days, once rolled up (see ReadingCompactor).
+-- ═══════════════════════════════════════════════════════════════════════════
+
+CREATE TABLE IF NOT EXISTS air_quality_readings (
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    zone_name   VARCHAR(100) NOT NULL,
+    measured_at TIMESTAMP NOT NULL,
+    aqi         INT NOT NULL,
+    status      VARCHAR(50) NOT NULL,
+    pm10        DOUBLE,
+    no2         DOUBLE,
+    co2         DOUBLE,
+    o3          DOUBLE
+);
+
+-- History lookups are always "one zone, a time range"
+CREATE INDEX IF NOT EXISTS idx_readings_zone_time ON air_quality_readings (zone_name, measured_at);
+
+-- ═══════════════════════════════════════════════════════════════════════════
+-- TABLE: air_quality_rollups
+-- Readings summed per zone and per minute / hour / day (see ReadingCompactor).
+-- Raw readings are deleted after a while; these stay longer (days: forever).
+-- Sums, not averages: late readings are simply added to their bucket.
+-- ═══════════════════════════════════════════════════════════════════════════
+
+CREATE TABLE IF NOT EXISTS air_quality_rollups (
+    zone_name    VARCHAR(100) NOT NULL,
+    resolution   VARCHAR(10)  NOT NULL,   -- MINUTE, HOUR or DAY
+    bucket_start TIMESTAMP    NOT NULL,   -- UTC start of the minute / hour / day
+    samples      INT          NOT NULL,
+    aqi_sum      DOUBLE       NOT NULL,
+    aqi_max      INT          NOT NULL,
+    pm10_sum     DOUBLE       NOT NULL,
+    no2_sum      DOUBLE       NOT NULL,
+    co2_sum      DOUBLE       NOT NULL,
+    o3_sum       DOUBLE       NOT NULL,
+    PRIMARY KEY (zone_name, resolution, bucket_start)   -- Also serves history lookups
+);
+
+-- Retention: "delete the MINUTE rows older than ..." without scanning every zone
+CREATE INDEX IF NOT EXISTS idx_rollups_age ON air_quality_rollups (resolution, bucket_start);
+
+-- How far the compactor got: every reading with id <= last_id is in the rollups
+CREATE TABLE IF NOT EXISTS compaction_state (
+    name    VARCHAR(50) PRIMARY KEY,
+    last_id BIGINT NOT NULL
+);
+INSERT INTO compaction_state (name, last_id)
+SELECT 'readings', 0 WHERE NOT EXISTS (SELECT 1 FROM compaction_state WHERE name = 'readings');
+
+-- ═══════════════════════════════════════════════════════════════════════════
+-- TABLE: sql_init_state
+-- Checksum of schema.sql + data.sql when they last ran (see SqlInitConfig):
+-- unchanged scripts are not run again at the next start
+-- ═══════════════════════════════════════════════════════════════════════════
+CREATE TABLE IF NOT EXISTS sql_init_state (
+    name     VARCHAR(50) PRIMARY KEY,
+    checksum VARCHAR(64) NOT NULL
+);
@@ -0,0 +1,197 @@
+// src/test/java/org/example/soap/service/ReadingCompactorTest.java
+package org.example.soap.service;
+
+import org.example.soap.generated.Resolution;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * HISTORY COMPACTION ON A REAL (IN-MEMORY) H2 DATABASE
+ * ═════════════════════════════════════════════════════
+ *
+ * The compactor is built by hand on the app's schema.sql, with a tiny batch size
+ * so that one run stops in the middle of a bucket (the last_id watermark falls
+ * between two readings of the same minute).
+ *
+ * What must hold:
+ * - running again with nothing new changes nothing (no reading counted twice)
+ * - a bucket split over several batches, or joined by a late reading, ends up
+ *   with exactly the sums of all its readings
+ * - retention never deletes a raw reading that is not rolled up yet
+ */
+class ReadingCompactorTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    private static final String INSERT_READING_SQL =
+            "INSERT INTO air_quality_readings (zone_name, measured_at, aqi, status, pm10, no2, co2, o3) " +
+            "VALUES (?, ?, ?, 'Good', ?, 1, 400, 20)";
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("schema.sql")
+            .build();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+    private final RetentionPolicy retentionPolicy = new RetentionPolicy(7, 30, 365, 1500);
+
+    // One batch of BATCH_SIZE readings per run
+    private final ReadingCompactor compactor = new ReadingCompactor(jdbcTemplate,
+            new DataSourceTransactionManager(database), retentionPolicy, BATCH_SIZE, 1);
+
+    // A minute in the recent past, far from any retention cutoff
+    private final Instant minute = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(Duration.ofHours(2));
+
+    @AfterEach
+    void shutDown() {
+        database.shutdown();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // ROLL UP
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Test
+    void runningAgainWithNothingNewChangesNothing() {
+        insert("Tunis", minute.plusSeconds(5), 40, 10);
+        insert("Tunis", minute.plusSeconds(65), 60, 20);
+        insert("Sfax", minute.plusSeconds(10), 80, 30);
+        compactUntilDone();
+        List<Map<String, Object>> rollups = rollups();
+        long rolledUp = compactor.getRolledUp();
+
+        compactor.compact();
+        compactor.compact();
+
+        assertThat(rollups()).isEqualTo(rollups);
+        assertThat(compactor.getRolledUp()).isEqualTo(rolledUp).isEqualTo(3);
+        assertThat(lastId()).isEqualTo(maxReadingId());
+        // Tunis: 2 minutes, 1 hour, 1 day; Sfax: 1 of each
+        assertThat(rollups).hasSize(7);
+    }
+
+    @Test
+    void bucketSplitByTheWatermarkAddsUpToAllItsReadings() {
+        int[] aqis = {10, 50, 30, 70, 20};
+        for (int i = 0; i < aqis.length; i++) {
+            insert("Tunis", minute.plusSeconds(i * 10L), aqis[i], aqis[i] / 10.0);
+        }
+
+        // Each run stops after 2 readings: the minute is seen as 2, then 4, then 5 samples
+        compactor.compact();
+        assertThat(bucket("MINUTE", minute)).containsEntry("SAMPLES", 2).containsEntry("AQI_MAX", 50);
+        compactor.compact();
+        assertThat(bucket("MINUTE", minute)).containsEntry("SAMPLES", 4).containsEntry("AQI_MAX", 70);
+        compactor.compact();
+
+        for (String resolution : List.of("MINUTE", "HOUR", "DAY")) {
+            assertThat(bucket(resolution, ReadingHistory.bucketStart(Resolution.valueOf(resolution), minute)))
+                    .containsEntry("SAMPLES", 5)
+                    .containsEntry("AQI_SUM", 180.0)
+                    .containsEntry("AQI_MAX", 70)
+                    .containsEntry("PM10_SUM", 18.0);
+        }
+    }
+
+    @Test
+    void lateReadingJoinsItsRolledUpBucket() {
+        insert("Tunis", minute.plusSeconds(1), 40, 4);
+        insert("Tunis", minute.plusSeconds(2), 60, 6);
+        compactUntilDone();
+
+        // Arrives after its minute was rolled up, with a later id
+        insert("Tunis", minute.plusSeconds(3), 90, 9);
+        compactUntilDone();
+
+        assertThat(bucket("MINUTE", minute))
+                .containsEntry("SAMPLES", 3)
+                .containsEntry("AQI_SUM", 190.0)
+                .containsEntry("AQI_MAX", 90);
+        assertThat(rollups()).hasSize(3);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // RETENTION
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Test
+    void oldRawReadingsAreOnlyDeletedOnceRolledUp() {
+        Instant old = Instant.now().minus(Duration.ofDays(10)).truncatedTo(ChronoUnit.MINUTES);
+        insert("Tunis", old, 10, 1);
+        insert("Tunis", old.plusSeconds(1), 20, 2);
+        insert("Tunis", old.plusSeconds(2), 30, 3);
+        insert("Tunis", minute, 40, 4);
+
+        // First run: 2 readings rolled up, only those 2 deleted
+        compactor.compact();
+        assertThat(readingCount()).isEqualTo(2);
+        assertThat(compactor.getDeletedReadings()).isEqualTo(2);
+
+        // Second run: the third old one and the recent one; only the old one goes
+        compactor.compact();
+        assertThat(readingCount()).isEqualTo(1);
+        assertThat(bucket("MINUTE", old)).containsEntry("SAMPLES", 3).containsEntry("AQI_SUM", 60.0);
+    }
+
+    @Test
+    void rollupsAreDeletedPerResolutionRetention() {
+        Instant old = Instant.now().minus(Duration.ofDays(40)).truncatedTo(ChronoUnit.MINUTES);
+        insert("Tunis", old, 10, 1);
+        compactor.compact();
+
+        // 40 days: past the raw (7) and minute (30) retention, within hour (365); days are kept forever
+        assertThat(readingCount()).isZero();
+        assertThat(rollups()).extracting(row -> row.get("RESOLUTION")).containsExactlyInAnyOrder("HOUR", "DAY");
+        assertThat(compactor.getDeletedRollups()).isEqualTo(1);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════════
+
+    private void compactUntilDone() {
+        while (lastId() < maxReadingId()) {
+            compactor.compact();
+        }
+    }
+
+    private void insert(String zone, Instant measuredAt, int aqi, double pm10) {
+        jdbcTemplate.update(INSERT_READING_SQL, zone, Timestamp.from(measuredAt), aqi, pm10);
+    }
+
+    private List<Map<String, Object>> rollups() {
+        return jdbcTemplate.queryForList(
+                "SELECT * FROM air_quality_rollups ORDER BY zone_name, resolution, bucket_start");
+    }
+
+    private Map<String, Object> bucket(String resolution, Instant start) {
+        return jdbcTemplate.queryForMap("SELECT * FROM air_quality_rollups WHERE resolution = ? AND bucket_start = ?",
+                resolution, Timestamp.from(start));
+    }
+
+    private long lastId() {
+        return jdbcTemplate.queryForObject("SELECT last_id FROM compaction_state WHERE name = 'readings'", Long.class);
+    }
+
+    private long maxReadingId() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM air_quality_readings", Long.class);
+    }
+
+    private long readingCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM air_quality_readings", Long.class);
+    }
+}
@@ -0,0 +1,104 @@
+// src/test/java/org/example/soap/service/RetentionPolicyTest.java
+package org.example.soap.service;
+
+import org.example.soap.generated.Resolution;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * WHICH RESOLUTION ANSWERS A HISTORY REQUEST
+ * ═══════════════════════════════════════════
+ *
+ * Retention 7 / 30 / 365 days (the defaults). max-points is set per test so the
+ * boundary is easy to hit: a range giving exactly max-points readings still gets
+ * the finer resolution, one more reading switches to the next that fits.
+ */
+class RetentionPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-15T12:00:00Z");
+
+    // ═══════════════════════════════════════════════════════════════════
+    // MAX-POINTS BOUNDARY
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Test
+    void rawUpToExactlyMaxPointsThenHour() {
+        RetentionPolicy policy = policy(60);
+
+        // 59 minutes = 60 readings (both ends count)
+        assertThat(policy.resolutionFor(NOW.minus(Duration.ofMinutes(59)), NOW, null, NOW)).isEqualTo(Resolution.RAW);
+        // 61 readings: too many raw, and MINUTE would give as many, so HOUR
+        assertThat(policy.resolutionFor(NOW.minus(Duration.ofMinutes(60)), NOW, null, NOW)).isEqualTo(Resolution.HOUR);
+    }
+
+    @Test
+    void hourUpToExactlyMaxPointsThenDay() {
+        RetentionPolicy policy = policy(24);
+
+        assertThat(policy.resolutionFor(NOW.minus(Duration.ofHours(23)), NOW, null, NOW)).isEqualTo(Resolution.HOUR);
+        assertThat(policy.resolutionFor(NOW.minus(Duration.ofHours(24)), NOW, null, NOW)).isEqualTo(Resolution.DAY);
+    }
+
+    @Test
+    void dayEvenWhenItGivesMoreThanMaxPoints() {
+        // 3 years of daily averages is over 1000 points, but there is nothing coarser
+        assertThat(policy(1000).resolutionFor(NOW.minus(Duration.ofDays(3 * 365)), NOW, null, NOW))
+                .isEqualTo(Resolution.DAY);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // RETENTION
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Test
+    void skipsResolutionsNoLongerStoredForFrom() {
+        RetentionPolicy policy = policy(1500);
+
+        // A 10-minute range 8 days ago: raw readings are gone (7 days), minutes are not (30)
+        Instant from = NOW.minus(Duration.ofDays(8));
+        assertThat(policy.resolutionFor(from, from.plus(Duration.ofMinutes(10)), null, NOW)).isEqualTo(Resolution.MINUTE);
+        // Exactly at the raw cutoff: still stored
+        Instant cutoff = NOW.minus(Duration.ofDays(7));
+        assertThat(policy.resolutionFor(cutoff, cutoff.plus(Duration.ofMinutes(10)), null, NOW)).isEqualTo(Resolution.RAW);
+        // 400 days ago: only days are left
+        Instant old = NOW.minus(Duration.ofDays(400));
+        assertThat(policy.resolutionFor(old, old.plus(Duration.ofHours(1)), null, NOW)).isEqualTo(Resolution.DAY);
+    }
+
+    @Test
+    void requestedResolutionIsKeptIfStoredWhateverTheNumberOfPoints() {
+        RetentionPolicy policy = policy(10);
+
+        Instant from = NOW.minus(Duration.ofDays(2));
+        assertThat(policy.resolutionFor(from, NOW, Resolution.RAW, NOW)).isEqualTo(Resolution.RAW);
+        // No longer stored: the next coarser resolution that is
+        assertThat(policy.resolutionFor(NOW.minus(Duration.ofDays(60)), NOW, Resolution.MINUTE, NOW))
+                .isEqualTo(Resolution.HOUR);
+    }
+
+    @Test
+    void retentionPerResolutionAndValidation() {
+        RetentionPolicy policy = policy(1500);
+        assertThat(policy.retention(Resolution.RAW)).isEqualTo(Duration.ofDays(7));
+        assertThat(policy.retention(Resolution.HOUR)).isEqualTo(Duration.ofDays(365));
+        assertThat(policy.retention(Resolution.DAY)).isNull();
+
+        assertThatThrownBy(() -> new RetentionPolicy(0, 30, 365, 1500)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RetentionPolicy(7, 5, 365, 1500)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RetentionPolicy(7, 30, 20, 1500)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RetentionPolicy(7, 30, 365, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════════
+
+    private static RetentionPolicy policy(int maxPoints) {
+        return new RetentionPolicy(7, 30, 365, maxPoints);
+    }
+}
@@ -0,0 +1,169 @@
+// src/test/java/org/example/soap/service/RollingAveragesTest.java
+package org.example.soap.service;
+
+import org.example.soap.model.SensorReading;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * ROLLING AVERAGES vs BRUTE FORCE
+ * ════════════════════════════════
+ *
+ * The running totals must always equal what averaging the readings of each window
+ * one by one would give. Time is passed in, so the tests can move "now" by hours or
+ * days; no database is needed (the startup load is not run).
+ *
+ * The ring has 1440 buckets: anything spanning more than a day wraps around and
+ * reuses buckets, which is where stale sums usually leak into a window.
+ */
+class RollingAveragesTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-15T12:00:00Z");
+    private static final int[] WINDOW_HOURS = {1, 8, 24};
+
+    private final RollingAverages averages = new RollingAverages(null);
+
+    // ═══════════════════════════════════════════════════════════════════
+    // HEAD AND WINDOWS
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Test
+    void readingsLeaveEachWindowAsTheHeadMoves() {
+        averages.record(List.of(
+                reading(NOW.minus(Duration.ofMinutes(30)), 10),
+                reading(NOW.minus(Duration.ofHours(2)), 20),
+                reading(NOW.minus(Duration.ofHours(10)), 30)), NOW);
+
+        assertWindows(NOW, 1, 10, 2, 15, 3, 20);
+
+        // 31 minutes later the first reading is 61 minutes old: out of the 1-hour window only
+        assertWindows(NOW.plus(Duration.ofMinutes(31)), 0, 0, 2, 15, 3, 20);
+        // 6 hours later the 2-hour-old one leaves the 8-hour window
+        assertWindows(NOW.plus(Duration.ofHours(6)), 0, 0, 1, 10, 3, 20);
+        // A day later nothing is left
+        assertWindows(NOW.plus(Duration.ofDays(1)), 0, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    void windowEdgesAreExclusiveOfTheOldestMinute() {
+        // Exactly 60 minutes old is outside the 1-hour window; 59 is inside
+        averages.record(List.of(
+                reading(NOW.minus(Duration.ofMinutes(60)), 40),
+                reading(NOW.minus(Duration.ofMinutes(59)), 60)), NOW);
+
+        assertWindows(NOW, 1, 60, 2, 50, 2, 50);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // LATE AND FUTURE READINGS
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Test
+    void lateReadingsCountUntilTheyAreADayOld() {
+        averages.record(List.of(reading(NOW, 10)), NOW);
+
+        // Arrive after a newer one, out of order
+        averages.record(List.of(
+                reading(NOW.minus(Duration.ofHours(3)), 20),
+                reading(NOW.minus(Duration.ofHours(24)).plus(Duration.ofMinutes(1)), 30),
+                reading(NOW.minus(Duration.ofHours(24)), 1000)), NOW);
+
+        // The exactly-24-hours-old one is dropped, the others join their windows
+        assertWindows(NOW, 1, 10, 2, 15, 3, 20);
+    }
+
+    @Test
+    void farFutureReadingDoesNotHideRealOnes() {
+        averages.record(List.of(reading(NOW.plus(Duration.ofDays(2)), 500)), NOW);
+        averages.record(List.of(reading(NOW.minus(Duration.ofMinutes(5)), 40)), NOW);
+
+        assertWindows(NOW, 1, 40, 1, 40, 1, 40);
+    }
+
+    @Test
+    void readingSlightlyAheadIsCounted() {
+        averages.record(List.of(
+                reading(NOW.plus(Duration.ofMinutes(RollingAverages.MAX_AHEAD_MINUTES)), 30),
+                reading(NOW.minus(Duration.ofMinutes(10)), 50)), NOW);
+
+        assertWindows(NOW, 2, 40, 2, 40, 2, 40);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // WRAP-AROUND, COMPARED WITH BRUTE FORCE
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Test
+    void matchesBruteForceOverSeveralDays() {
+        Random random = new Random(11);
+        List<SensorReading> recorded = new ArrayList<>();
+        Instant now = NOW;
+
+        // Three days of readings, time moving 1 to 90 minutes per step so the ring
+        // wraps several times; a quarter of the readings arrive up to 30 hours late
+        for (int step = 0; step < 2_000; step++) {
+            now = now.plus(Duration.ofMinutes(1 + random.nextInt(90))).plusSeconds(random.nextInt(60));
+            if (now.isAfter(NOW.plus(Duration.ofDays(3)))) {
+                break;
+            }
+            Instant measuredAt = random.nextInt(4) == 0
+                    ? now.minus(Duration.ofMinutes(random.nextInt(30 * 60)))
+                    : now.minusSeconds(random.nextInt(60));
+            SensorReading reading = reading(measuredAt, random.nextInt(501));
+            averages.record(List.of(reading), now);
+            recorded.add(reading);
+
+            assertMatchesBruteForce(recorded, now);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════════
+
+    // Expected samples and AQI average of the 1, 8 and 24 hour windows
+    private void assertWindows(Instant now, int n1, double aqi1, int n8, double aqi8, int n24, double aqi24) {
+        List<RollingAverages.WindowAverage> windows = averages.averages("Tunis", now);
+        assertThat(windows).extracting(RollingAverages.WindowAverage::samples).containsExactly(n1, n8, n24);
+        assertThat(windows.get(0).aqi()).isCloseTo(aqi1, within(1e-9));
+        assertThat(windows.get(1).aqi()).isCloseTo(aqi8, within(1e-9));
+        assertThat(windows.get(2).aqi()).isCloseTo(aqi24, within(1e-9));
+    }
+
+    // Every reading checked one by one: in a window if its minute is within the last "hours"
+    // hours of the current minute, and it was not already a day old when it arrived
+    private void assertMatchesBruteForce(List<SensorReading> recorded, Instant now) {
+        long nowMinute = minuteOf(now);
+        List<RollingAverages.WindowAverage> windows = averages.averages("Tunis", now);
+        for (int w = 0; w < WINDOW_HOURS.length; w++) {
+            long oldest = nowMinute - WINDOW_HOURS[w] * 60L;
+            List<SensorReading> inside = recorded.stream()
+                    .filter(r -> minuteOf(r.measuredAt()) > oldest && minuteOf(r.measuredAt()) <= nowMinute)
+                    .toList();
+            RollingAverages.WindowAverage window = windows.get(w);
+            assertThat(window.samples()).as("%dh window at %s", WINDOW_HOURS[w], now).isEqualTo(inside.size());
+            if (!inside.isEmpty()) {
+                double aqi = inside.stream().mapToInt(SensorReading::aqi).average().orElseThrow();
+                double pm10 = inside.stream().mapToDouble(SensorReading::pm10).average().orElseThrow();
+                assertThat(window.aqi()).isCloseTo(aqi, within(1e-6));
+                assertThat(window.pm10()).isCloseTo(pm10, within(1e-6));
+            }
+        }
+    }
+
+    private static long minuteOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 60);
+    }
+
+    private static SensorReading reading(Instant measuredAt, int aqi) {
+        return new SensorReading("Tunis", aqi, "Good", aqi / 10.0, 1, 400, 20, measuredAt);
+    }
+}
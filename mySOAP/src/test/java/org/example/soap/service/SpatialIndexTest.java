@@ -0,0 +1,195 @@
+// src/test/java/org/example/soap/service/SpatialIndexTest.java
+package org.example.soap.service;
+
+import org.example.soap.model.ZoneReading;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * SPATIAL INDEX vs BRUTE FORCE
+ * ═════════════════════════════
+ *
+ * The k-d tree must return exactly what checking every zone would: the same zones,
+ * in the same order, at the same distances. The reference below measures each zone
+ * with the haversine formula (straight from latitude/longitude, no 3D points), so a
+ * mistake in the tree, the chord conversion or the pruning shows up as a difference.
+ *
+ * Random zones and queries cover the general case; the antimeridian (179.9° next to
+ * -179.9°) and the poles (every longitude meets) are where lat/lon maths usually breaks.
+ */
+class SpatialIndexTest {
+
+    private static final double TOLERANCE_KM = 1e-6;
+
+    // ═══════════════════════════════════════════════════════════════════
+    // RANDOM POINTS, COMPARED WITH BRUTE FORCE
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Test
+    void matchesBruteForceOnRandomZones() {
+        Random random = new Random(42);
+        List<ZoneReading> zones = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            zones.add(randomZone(random, "z" + i));
+        }
+        assertMatchesBruteForce(zones, random, 300);
+    }
+
+    @Test
+    void matchesBruteForceAroundTheAntimeridianAndThePoles() {
+        Random random = new Random(7);
+        List<ZoneReading> zones = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            // A band across ±180° longitude
+            double longitude = 176 + random.nextDouble() * 8;
+            zones.add(zone("am" + i, random.nextDouble() * 60 - 30, longitude > 180 ? longitude - 360 : longitude));
+            // Caps around both poles, every longitude
+            zones.add(zone("n" + i, 85 + random.nextDouble() * 5, random.nextDouble() * 360 - 180));
+            zones.add(zone("s" + i, -85 - random.nextDouble() * 5, random.nextDouble() * 360 - 180));
+        }
+        assertMatchesBruteForce(zones, random, 300);
+    }
+
+    @Test
+    void matchesBruteForceForEveryCountUpToAllZones() {
+        Random random = new Random(3);
+        List<ZoneReading> zones = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            zones.add(randomZone(random, "z" + i));
+        }
+        SpatialIndex index = SpatialIndex.of(zones);
+        for (int count = 1; count <= 45; count++) {
+            double latitude = random.nextDouble() * 180 - 90;
+            double longitude = random.nextDouble() * 360 - 180;
+            assertSameNeighbors(index.nearest(latitude, longitude, count, 25_000),
+                    bruteForce(zones, latitude, longitude, count, 25_000));
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // KNOWN ANSWERS
+    // ═══════════════════════════════════════════════════════════════════
+
+    @Test
+    void neighboursAcrossTheAntimeridian() {
+        SpatialIndex index = SpatialIndex.of(List.of(
+                zone("Fiji west", 0.0, 179.9),
+                zone("Samoa east", 0.0, -179.9),
+                zone("Far west", 0.0, 178.0)));
+
+        List<SpatialIndex.Neighbor> found = index.nearest(0, 179.95, 3, 25_000);
+
+        // 0.05° east and 0.15° east, across 180°: both closer than 1.95° west
+        assertThat(found).extracting(n -> n.zone().zoneName())
+                .containsExactly("Fiji west", "Samoa east", "Far west");
+        assertThat(found.get(1).distanceKm()).isCloseTo(haversineKm(0, 179.95, 0, -179.9), within(TOLERANCE_KM));
+    }
+
+    @Test
+    void neighboursAtThePoles() {
+        SpatialIndex index = SpatialIndex.of(List.of(
+                zone("Half a degree", 89.5, 10.0),
+                zone("Fifth of a degree", 89.8, -170.0),
+                zone("Two degrees", 88.0, 45.0),
+                zone("South", -89.9, 0.0)));
+
+        // At the pole the longitude means nothing: only the latitude counts
+        for (double longitude : new double[]{-180, -90, 0, 123, 180}) {
+            List<SpatialIndex.Neighbor> found = index.nearest(90, longitude, 3, 25_000);
+            assertThat(found).extracting(n -> n.zone().zoneName())
+                    .containsExactly("Fifth of a degree", "Half a degree", "Two degrees");
+            assertThat(found.get(0).distanceKm())
+                    .isCloseTo(Math.toRadians(0.2) * SpatialIndex.EARTH_RADIUS_KM, within(TOLERANCE_KM));
+        }
+        assertThat(index.nearest(-90, 77, 1, 25_000)).extracting(n -> n.zone().zoneName())
+                .containsExactly("South");
+    }
+
+    @Test
+    void distanceLimitCountAndMissingCoordinates() {
+        SpatialIndex index = SpatialIndex.of(List.of(
+                zone("Tunis", 36.8065, 10.1815),
+                zone("Sfax", 34.7406, 10.7603),
+                zone("Nowhere", null, null)));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.nearest(36.8, 10.18, 5, 100)).extracting(n -> n.zone().zoneName())
+                .containsExactly("Tunis");
+        assertThat(index.nearest(36.8, 10.18, 5, 25_000)).hasSize(2);
+        assertThat(index.nearest(36.8, 10.18, 0, 25_000)).isEmpty();
+        assertThat(SpatialIndex.of(List.of(zone("Nowhere", null, null)))).isSameAs(SpatialIndex.EMPTY);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════════
+
+    // Queries at random places, with random counts (some above the number of zones)
+    // and distance limits (some so large they keep everything)
+    private static void assertMatchesBruteForce(List<ZoneReading> zones, Random random, int queries) {
+        SpatialIndex index = SpatialIndex.of(zones);
+        int[] counts = {1, 2, 3, 5, 10, 17, 50, zones.size(), zones.size() + 10};
+        double[] limits = {50, 500, 2_000, 8_000, 25_000};
+        for (int i = 0; i < queries; i++) {
+            ZoneReading near = zones.get(random.nextInt(zones.size()));
+            // Half the queries right next to a zone, half anywhere
+            double latitude = i % 2 == 0
+                    ? Math.max(-90, Math.min(90, near.latitude() + random.nextGaussian()))
+                    : random.nextDouble() * 180 - 90;
+            double longitude = i % 2 == 0
+                    ? near.longitude() + random.nextGaussian()
+                    : random.nextDouble() * 360 - 180;
+            int count = counts[random.nextInt(counts.length)];
+            double limit = limits[random.nextInt(limits.length)];
+
+            assertSameNeighbors(index.nearest(latitude, longitude, count, limit),
+                    bruteForce(zones, latitude, longitude, count, limit));
+        }
+    }
+
+    private static void assertSameNeighbors(List<SpatialIndex.Neighbor> actual, List<SpatialIndex.Neighbor> expected) {
+        assertThat(actual).extracting(n -> n.zone().zoneName())
+                .containsExactlyElementsOf(expected.stream().map(n -> n.zone().zoneName()).toList());
+        for (int i = 0; i < actual.size(); i++) {
+            assertThat(actual.get(i).distanceKm()).isCloseTo(expected.get(i).distanceKm(), within(TOLERANCE_KM));
+        }
+    }
+
+    // Every zone, measured one by one
+    private static List<SpatialIndex.Neighbor> bruteForce(List<ZoneReading> zones, double latitude, double longitude,
+                                                          int count, double maxDistanceKm) {
+        return zones.stream()
+                .filter(zone -> zone.latitude() != null)
+                .map(zone -> new SpatialIndex.Neighbor(zone,
+                        haversineKm(latitude, longitude, zone.latitude(), zone.longitude())))
+                .filter(neighbor -> neighbor.distanceKm() <= maxDistanceKm)
+                .sorted(Comparator.comparingDouble(SpatialIndex.Neighbor::distanceKm))
+                .limit(count)
+                .toList();
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * SpatialIndex.EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static ZoneReading randomZone(Random random, String name) {
+        // Uniform over the sphere: uniform sin(latitude), not uniform latitude
+        double latitude = Math.toDegrees(Math.asin(random.nextDouble() * 2 - 1));
+        return zone(name, latitude, random.nextDouble() * 360 - 180);
+    }
+
+    private static ZoneReading zone(String name, Double latitude, Double longitude) {
+        return new ZoneReading(name, 50, "Good", 10, 10, 400, 20, null, latitude, longitude);
+    }
+}